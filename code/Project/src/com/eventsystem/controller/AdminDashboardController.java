@@ -1,23 +1,38 @@
 package com.eventsystem.controller;
 
 import com.eventsystem.model.*;
+import com.eventsystem.storage.ChangeBus;
+import com.eventsystem.storage.DataExporter;
 import com.eventsystem.storage.DataStorageService;
+import com.eventsystem.storage.DatabaseChange;
+import com.eventsystem.storage.EventAnalytics;
 import com.eventsystem.storage.EventDatabase;
+import com.eventsystem.storage.JournalEntry;
+import com.eventsystem.storage.StorageConflictException;
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
-import javafx.collections.transformation.FilteredList;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
+import javafx.concurrent.Task;
 import javafx.scene.Scene;
 import javafx.scene.chart.PieChart;
 import javafx.scene.control.*;
 import javafx.stage.Stage;
+import javafx.util.Duration;
 
-import java.io.FileWriter;
 import java.io.IOException;
 import java.net.URL;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 
 /**
  * Updated Controller for the Admin Dashboard.
@@ -30,14 +45,14 @@ public class AdminDashboardController {
     @FXML private Label statsLabel;
 
     // -- Events Tab --
-    @FXML private ListView<String> eventListView;
+    @FXML private ListView<EventViewModel> eventListView;
     @FXML private TextField searchField;
 
     // -- Users Tab --
-    @FXML private ListView<String> userListView;
+    @FXML private ListView<User> userListView;
 
     // -- Rooms Tab --
-    @FXML private ListView<String> roomListView;
+    @FXML private ListView<Room> roomListView;
     @FXML private TextField roomNameField;
     @FXML private TextField roomLocationField;
     @FXML private TextField roomCapacityField;
@@ -50,9 +65,30 @@ public class AdminDashboardController {
     private EventDatabase database;
     private DataStorageService storageService;
 
-    // For filtering events
-    private ObservableList<Event> masterEventList;
-    private FilteredList<Event> filteredEventList;
+    // Events currently shown (all events, or the ranked search results)
+    private EventListModel shownEvents;
+    private boolean searching;
+
+    // --- Search: debounced, run in the background, stale results dropped ---
+    private final PauseTransition searchDelay = new PauseTransition(Duration.millis(250));
+    private Task<List<Event>> searchTask;
+    private long searchGeneration;
+    private Task<DataExporter.Result> exportTask;
+
+    // Analytics: the slices are updated in place from the precomputed counters
+    private final PieChart.Data activeSlice = new PieChart.Data("Active", 0);
+    private final PieChart.Data pendingSlice = new PieChart.Data("Pending", 0);
+    private final PieChart.Data cancelledSlice = new PieChart.Data("Cancelled", 0);
+    private final AtomicBoolean analyticsRefreshPending = new AtomicBoolean();
+    private Task<EventAnalytics> analyticsTask;
+
+    // Users and rooms, patched from the database's change bus
+    private final ObservableList<User> userItems = FXCollections.observableArrayList();
+    private final ObservableList<Room> roomItems = FXCollections.observableArrayList();
+    private final List<ChangeBus.Subscription> subscriptions = new ArrayList<>();
+
+    // Set on logout; callbacks of tasks that finish later do nothing then
+    private boolean closed;
 
     public void initData(Administrator admin, EventDatabase db, DataStorageService storage) {
         this.currentUser = admin;
@@ -73,90 +109,148 @@ public class AdminDashboardController {
     // =================================================
 
     private void setupEventTab() {
-        // Wrap the database list in an ObservableList
-        this.masterEventList = FXCollections.observableArrayList(database.getEvents());
-
-        // Wrap that in a FilteredList (initially show all)
-        this.filteredEventList = new FilteredList<>(masterEventList, p -> true);
-
-        // Listen for text changes in the search bar
-        searchField.textProperty().addListener((observable, oldValue, newValue) -> {
-            filteredEventList.setPredicate(event -> {
-                // If filter text is empty, display all events.
-                if (newValue == null || newValue.isEmpty()) {
-                    return true;
-                }
+        // Every event while not searching; during a search only the matches shown get updated
+        this.shownEvents = new EventListModel(database, e -> !searching || shownEvents.contains(e));
+        eventListView.setCellFactory(EventListModel.cells(this::formatEventRow));
+        eventListView.setItems(shownEvents.getRows());
+
+        // Typing restarts the delay; the search only runs once the user pauses
+        searchDelay.setOnFinished(event -> runSearch(searchField.getText()));
+        searchField.textProperty().addListener((observable, oldValue, newValue) -> searchDelay.playFromStart());
+
+        // Listing every event loads all segments of a lazy database, so that runs in the background
+        long generation = searchGeneration;
+        withAllEvents(events -> {
+            if (generation == searchGeneration) shownEvents.setEvents(events);
+        });
+    }
 
-                String lowerCaseFilter = newValue.toLowerCase();
+    /**
+     * Runs the query on a background task, cancelling the search still running for an older
+     * query. The results replace the list in one change, and only if no newer query has been
+     * started since (a superseded search can finish just before it is cancelled).
+     */
+    private void runSearch(String query) {
+        long generation = ++searchGeneration;
+        if (searchTask != null) searchTask.cancel();
+
+        // If the search text is empty, display all events, otherwise the ranked matches
+        if (query == null || query.trim().isEmpty()) {
+            searchTask = null;
+            withAllEvents(events -> {
+                if (generation != searchGeneration) return;
+                searching = false;
+                shownEvents.setEvents(events);
+            });
+            return;
+        }
 
-                // Check if title or organizer name contains the filter text
-                if (event.getTitle().toLowerCase().contains(lowerCaseFilter)) {
-                    return true;
-                } else if (event.getOrganizer() != null &&
-                        event.getOrganizer().getName().toLowerCase().contains(lowerCaseFilter)) {
-                    return true;
-                }
-                return false; // Does not match.
+        // The search itself never loads segments off this thread
+        whenAllEventsLoaded(() -> {
+            if (generation != searchGeneration) return;
+            searchTask = TaskService.getInstance().submit("Search", progress -> database.searchEvents(query), results -> {
+                if (generation != searchGeneration) return;
+                searching = true;
+                shownEvents.setEvents(results);
+                messageLabel.setText(results.size() + " events match \"" + query.trim() + "\".");
+            }, error -> {
+                error.printStackTrace();
+                messageLabel.setText("Error searching events.");
             });
-            // Re-render list after filtering
-            renderEventListView();
         });
+    }
 
-        renderEventListView();
+    /**
+     * Calls the action on the JavaFX thread with a snapshot of every event (see whenAllEventsLoaded).
+     */
+    private void withAllEvents(Consumer<List<Event>> action) {
+        whenAllEventsLoaded(() -> action.accept(new ArrayList<>(database.getEvents())));
     }
 
-    private void renderEventListView() {
-        // Convert the filtered Event objects into readable Strings
-        ObservableList<String> displayList = FXCollections.observableArrayList();
-        for (Event e : filteredEventList) {
-            String orgName = (e.getOrganizer() != null) ? e.getOrganizer().getName() : "Pending";
-            displayList.add(String.format("%s [%s] - Org: %s", e.getTitle(), e.getStatus(), orgName));
+    /**
+     * Runs the action on the JavaFX thread once every event is in memory. On a lazy database
+     * the remaining segments are read on a background task first and then linked into the
+     * database here, so the event list and indexes are only ever changed on this thread.
+     */
+    private void whenAllEventsLoaded(Runnable action) {
+        if (database.isFullyLoaded()) {
+            action.run();
+            return;
         }
-        eventListView.setItems(displayList);
+        messageLabel.setText("Loading events...");
+        TaskService.getInstance().submit("Load all events", progress -> database.prefetchEvents(), segments -> {
+            if (closed) return;
+            messageLabel.setText("");
+            database.getEvents();
+            action.run();
+        }, error -> {
+            error.printStackTrace();
+            messageLabel.setText("Error loading events.");
+        });
+    }
+
+    private String formatEventRow(EventViewModel e) {
+        String orgName = (e.getOrganizerName() != null) ? e.getOrganizerName() : "Pending";
+        return String.format("%s [%s] - Org: %s", e.getTitle(), e.getStatus(), orgName);
     }
 
+    /**
+     * Generates the campus-wide reports (see ReportEngine) on a background task and shows them
+     * in one dialog. Only the event segments changed since the last run are aggregated again.
+     */
     @FXML
     protected void onGenerateReportClick() {
-        // Use the filtered list to find the actual selected event object
-        int index = eventListView.getSelectionModel().getSelectedIndex();
-        if (index == -1) {
-            messageLabel.setText("Select an event to generate a report.");
-            return;
-        }
+        whenAllEventsLoaded(this::generateReports);
+    }
 
-        // Because the list is filtered, index maps to filteredEventList
-        Event selected = filteredEventList.get(index);
-
-        // Generate report (Simple alert for now)
-        Alert alert = new Alert(Alert.AlertType.INFORMATION);
-        alert.setTitle("Event Report");
-        alert.setHeaderText("Report for: " + selected.getTitle());
-        alert.setContentText("Status: " + selected.getStatus() +
-                "\nRegistrations: " + selected.getRegistrations().size() +
-                "/" + selected.getCapacity());
-        alert.showAndWait();
+    private void generateReports() {
+        messageLabel.setText("Generating reports...");
+        TaskService.getInstance().submit("Reports", progress -> currentUser.generateReports(database.getReportEngine()), reports -> {
+            messageLabel.setText("");
+            StringBuilder text = new StringBuilder();
+            for (Report report : reports) {
+                text.append("=== ").append(report.getTitle()).append(" ===\n").append(report.getData()).append('\n');
+            }
+            TextArea reportText = new TextArea(text.toString());
+            reportText.setEditable(false);
+            reportText.setPrefSize(720, 480);
+
+            Alert alert = new Alert(Alert.AlertType.INFORMATION);
+            alert.setTitle("Campus Reports");
+            alert.setHeaderText("Reports as of " + new SimpleDateFormat("yyyy-MM-dd HH:mm").format(reports.get(0).getGeneratedDate()));
+            alert.getDialogPane().setContent(reportText);
+            alert.showAndWait();
+        }, error -> {
+            error.printStackTrace();
+            messageLabel.setText("Error generating reports.");
+        });
     }
 
+    /**
+     * Exports rooms, users, events and registrations as CSV files (see DataExporter) on a
+     * background task. Clicking again before the export is done (queued or running) cancels it.
+     */
     @FXML
     protected void onExportEventsClick() {
-        String filename = "events_export_" + System.currentTimeMillis() + ".csv";
-        try (FileWriter writer = new FileWriter(filename)) {
-            writer.append("Event ID,Title,Status,Organizer,Capacity,Registered\n");
-
-            for (Event e : database.getEvents()) {
-                String org = (e.getOrganizer() != null) ? e.getOrganizer().getName() : "None";
-                writer.append(e.getEventID()).append(",")
-                        .append(e.getTitle()).append(",")
-                        .append(e.getStatus()).append(",")
-                        .append(org).append(",")
-                        .append(String.valueOf(e.getCapacity())).append(",")
-                        .append(String.valueOf(e.getRegistrations().size())).append("\n");
-            }
-            messageLabel.setText("Data exported to: " + filename);
-        } catch (IOException e) {
-            e.printStackTrace();
-            messageLabel.setText("Error exporting data.");
+        if (exportTask != null && !exportTask.isDone()) {
+            exportTask.cancel();
+            messageLabel.setText("Export cancelled.");
+            return;
         }
+        whenAllEventsLoaded(this::exportData);
+    }
+
+    private void exportData() {
+        Path directory = Paths.get("events_export_" + System.currentTimeMillis());
+        exportTask = TaskService.getInstance().submit("Export data", progress -> {
+            DataExporter exporter = new DataExporter(database);
+            exporter.setCancelled(progress::isCancelled);
+            return exporter.exportTo(directory);
+        }, result -> messageLabel.setText("Exported " + result.getRowCount() + " rows to: " + directory), error -> {
+            error.printStackTrace();
+            messageLabel.setText("Error exporting data.");
+        });
+        messageLabel.setText("Exporting data...");
     }
 
     // =================================================
@@ -164,38 +258,53 @@ public class AdminDashboardController {
     // =================================================
 
     private void setupUserTab() {
+        userListView.setCellFactory(TextCells.of(u ->
+                (u instanceof EventOrganizer ? "[Organizer] " : "[Student] ") + u.getName() + " (" + u.getEmail() + ")"));
+        userListView.setItems(userItems);
         refreshUserListView();
+
+        // Students and organizers only; administrators are not listed
+        ChangeBus bus = database.getChangeBus();
+        subscriptions.add(bus.subscribe(DatabaseChange.UserAdded.class, change -> EventListModel.onFxThread(() -> {
+            if (!(change.getUser() instanceof Administrator)) userItems.add(change.getUser());
+        })));
+        subscriptions.add(bus.subscribe(DatabaseChange.UserRemoved.class,
+                change -> EventListModel.onFxThread(() -> userItems.remove(change.getUser()))));
     }
 
     private void refreshUserListView() {
-        ObservableList<String> users = FXCollections.observableArrayList();
-        database.getStudents().forEach(s -> users.add("[Student] " + s.getName() + " (" + s.getEmail() + ")"));
-        database.getOrganizers().forEach(o -> users.add("[Organizer] " + o.getName() + " (" + o.getEmail() + ")"));
-        userListView.setItems(users);
+        List<User> users = new ArrayList<>(database.getStudents());
+        users.addAll(database.getOrganizers());
+        userItems.setAll(users);
     }
 
     @FXML
     protected void onDeleteUserClick() {
-        String selectedString = userListView.getSelectionModel().getSelectedItem();
-        if (selectedString == null) {
+        User removed = userListView.getSelectionModel().getSelectedItem();
+        if (removed == null) {
             messageLabel.setText("Select a user to delete.");
             return;
         }
 
-        // Identify if it's a student or organizer and remove
-        boolean removed = false;
-        if (selectedString.startsWith("[Student]")) {
-            removed = database.getStudents().removeIf(s -> selectedString.contains(s.getEmail()));
-        } else if (selectedString.startsWith("[Organizer]")) {
-            removed = database.getOrganizers().removeIf(o -> selectedString.contains(o.getEmail()));
+        // The row disappears on its own (UserRemoved)
+        database.removeUser(removed);
+        try {
+            storageService.recordChange(database, JournalEntry.removeUser(removed));
+        } catch (StorageConflictException e) {
+            restoreUser(removed);
+            messageLabel.setText(e.getMessage());
+            return;
         }
+        messageLabel.setText("User deleted successfully.");
+    }
 
-        if (removed) {
-            storageService.saveData(database);
-            refreshUserListView();
-            messageLabel.setText("User deleted successfully.");
+    private void restoreUser(User user) {
+        if (user instanceof Administrator) {
+            database.addAdministrator((Administrator) user);
+        } else if (user instanceof EventOrganizer) {
+            database.addOrganizer((EventOrganizer) user);
         } else {
-            messageLabel.setText("Error deleting user.");
+            database.addStudent((Student) user);
         }
     }
 
@@ -204,13 +313,19 @@ public class AdminDashboardController {
     // =================================================
 
     private void setupRoomTab() {
+        roomListView.setCellFactory(TextCells.of(r -> r.getName() + " (" + r.getLocation() + ") - Cap: " + r.getCapacity()));
+        roomListView.setItems(roomItems);
         refreshRoomListView();
+
+        ChangeBus bus = database.getChangeBus();
+        subscriptions.add(bus.subscribe(DatabaseChange.RoomAdded.class,
+                change -> EventListModel.onFxThread(() -> roomItems.add(change.getRoom()))));
+        subscriptions.add(bus.subscribe(DatabaseChange.RoomRemoved.class,
+                change -> EventListModel.onFxThread(() -> roomItems.remove(change.getRoom()))));
     }
 
     private void refreshRoomListView() {
-        ObservableList<String> rooms = FXCollections.observableArrayList();
-        database.getRooms().forEach(r -> rooms.add(r.getName() + " (" + r.getLocation() + ") - Cap: " + r.getCapacity()));
-        roomListView.setItems(rooms);
+        roomItems.setAll(database.getRooms());
     }
 
     @FXML
@@ -226,17 +341,23 @@ public class AdminDashboardController {
 
         try {
             int cap = Integer.parseInt(capStr);
-            Room newRoom = new Room("R-" + System.currentTimeMillis(), name, loc, cap);
+            Room newRoom = new Room(IdService.nextId("R-"), name, loc, cap);
 
             database.addRoom(newRoom);
-            storageService.saveData(database);
+            try {
+                storageService.recordChange(database, JournalEntry.addRoom(newRoom));
+            } catch (StorageConflictException e) {
+                database.removeRoom(newRoom);
+                messageLabel.setText(e.getMessage());
+                return;
+            }
 
             // Clear fields
             roomNameField.clear();
             roomLocationField.clear();
             roomCapacityField.clear();
 
-            refreshRoomListView();
+            // The row appears on its own (RoomAdded)
             messageLabel.setText("Room added: " + name);
 
         } catch (NumberFormatException e) {
@@ -246,11 +367,16 @@ public class AdminDashboardController {
 
     @FXML
     protected void onDeleteRoomClick() {
-        int index = roomListView.getSelectionModel().getSelectedIndex();
-        if (index != -1) {
-            Room removed = database.getRooms().remove(index);
-            storageService.saveData(database);
-            refreshRoomListView();
+        Room removed = roomListView.getSelectionModel().getSelectedItem();
+        if (removed != null) {
+            database.removeRoom(removed);
+            try {
+                storageService.recordChange(database, JournalEntry.removeRoom(removed));
+            } catch (StorageConflictException e) {
+                database.addRoom(removed);
+                messageLabel.setText(e.getMessage());
+                return;
+            }
             messageLabel.setText("Deleted room: " + removed.getName());
         } else {
             messageLabel.setText("Select a room to delete.");
@@ -262,21 +388,46 @@ public class AdminDashboardController {
     // =================================================
 
     private void setupAnalyticsTab() {
-        long activeCount = database.getEvents().stream().filter(e -> "Active".equals(e.getStatus())).count();
-        long pendingCount = database.getEvents().stream().filter(e -> "Pending".equals(e.getStatus())).count();
-        long cancelledCount = database.getEvents().stream().filter(e -> "Cancelled".equals(e.getStatus())).count();
+        eventPieChart.setData(FXCollections.observableArrayList(activeSlice, pendingSlice, cancelledSlice));
 
-        ObservableList<PieChart.Data> pieChartData = FXCollections.observableArrayList(
-                new PieChart.Data("Active", activeCount),
-                new PieChart.Data("Pending", pendingCount),
-                new PieChart.Data("Cancelled", cancelledCount)
-        );
+        // The first build counts every event, so it runs in the background (once all are loaded)
+        whenAllEventsLoaded(this::buildAnalytics);
+    }
 
-        eventPieChart.setData(pieChartData);
+    private void buildAnalytics() {
+        analyticsTask = TaskService.getInstance().submit("Build analytics", progress -> database.getAnalytics(), analytics -> {
+            if (closed) return;
+            subscriptions.add(analytics.subscribe(() -> {
+                // A burst of changes (e.g. a bulk import) is shown with one refresh
+                if (analyticsRefreshPending.compareAndSet(false, true)) {
+                    Platform.runLater(() -> {
+                        analyticsRefreshPending.set(false);
+                        showAnalytics(analytics);
+                    });
+                }
+            }));
+            showAnalytics(analytics);
+        }, error -> {
+            error.printStackTrace();
+            messageLabel.setText("Error loading analytics.");
+        });
+    }
 
-        statsLabel.setText("Total Students: " + database.getStudents().size() +
-                " | Total Organizers: " + database.getOrganizers().size() +
-                " | Total Rooms: " + database.getRooms().size());
+    /**
+     * Reads the precomputed counters; nothing is counted here.
+     */
+    private void showAnalytics(EventAnalytics analytics) {
+        activeSlice.setPieValue(analytics.getEventCount(EventStatus.ACTIVE));
+        pendingSlice.setPieValue(analytics.getEventCount(EventStatus.PENDING));
+        cancelledSlice.setPieValue(analytics.getEventCount(EventStatus.CANCELLED));
+
+        int[] fill = analytics.getFillHistogram();
+        statsLabel.setText("Total Students: " + analytics.getStudentCount() +
+                " | Total Organizers: " + analytics.getOrganizerCount() +
+                " | Total Rooms: " + analytics.getRoomCount() +
+                " | Registrations: " + analytics.getRegistrationCount() +
+                " (today: " + analytics.getRegistrationsOn(LocalDate.now()) + ")" +
+                " | Full Events: " + fill[EventAnalytics.FILL_BUCKETS - 1]);
     }
 
     // =================================================
@@ -285,16 +436,23 @@ public class AdminDashboardController {
 
     @FXML
     protected void onLogoutButtonClick() {
+        URL fxmlUrl = getClass().getResource("/com/eventsystem/view/login-view.fxml");
+        if (fxmlUrl == null) return;
         try {
-            URL fxmlUrl = getClass().getResource("/com/eventsystem/view/login-view.fxml");
-            if (fxmlUrl == null) return;
             FXMLLoader fxmlLoader = new FXMLLoader(fxmlUrl);
             Scene scene = new Scene(fxmlLoader.load(), 320, 240);
             Stage stage = new Stage();
             stage.setTitle("Campus Event System - Login");
             stage.setScene(scene);
             stage.show();
+            searchDelay.stop();
+            if (searchTask != null) searchTask.cancel();
+            if (exportTask != null) exportTask.cancel();
+            if (analyticsTask != null) analyticsTask.cancel();
+            closed = true;
+            shownEvents.close();
+            subscriptions.forEach(ChangeBus.Subscription::close);
             ((Stage) welcomeLabel.getScene().getWindow()).close();
         } catch (IOException e) { e.printStackTrace(); }
     }
-}
\ No newline at end of file
+}
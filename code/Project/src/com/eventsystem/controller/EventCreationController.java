@@ -5,6 +5,8 @@ import com.eventsystem.model.Room;
 import com.eventsystem.model.Student;
 import com.eventsystem.storage.DataStorageService;
 import com.eventsystem.storage.EventDatabase;
+import com.eventsystem.storage.JournalEntry;
+import com.eventsystem.storage.StorageConflictException;
 import javafx.collections.FXCollections;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
@@ -14,7 +16,6 @@ import javafx.stage.Stage;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.util.Date;
-import java.util.stream.Collectors;
 
 public class EventCreationController {
 
@@ -45,13 +46,11 @@ public class EventCreationController {
     private Student currentUser;
     private EventDatabase database;
     private DataStorageService storageService;
-    private StudentDashboardController dashboardController;
 
-    public void initData(Student student, EventDatabase db, DataStorageService storage, StudentDashboardController dash) {
+    public void initData(Student student, EventDatabase db, DataStorageService storage) {
         this.currentUser = student;
         this.database = db;
         this.storageService = storage;
-        this.dashboardController = dash;
 
         for (int i = 0; i < 24; i++) {
             startHourCombo.getItems().add(i);
@@ -62,19 +61,6 @@ public class EventCreationController {
 
         datePicker.setValue(LocalDate.now());
 
-        // Debug: Print rooms to console
-        System.out.println("DEBUG: Loading rooms into combo box...");
-        for(Room r : database.getRooms()) {
-            System.out.println(" - Found room: " + r.getName());
-        }
-
-        roomCombo.setItems(
-                database.getRooms().stream()
-                        // removed filter for debugging purposes, let's see all rooms first
-                        // .filter(room -> !room.getName().equals("Main Hall"))
-                        .collect(Collectors.toCollection(FXCollections::observableArrayList))
-        );
-
         roomCombo.setConverter(new javafx.util.StringConverter<>() {
             @Override
             public String toString(Room room) {
@@ -90,6 +76,38 @@ public class EventCreationController {
         SpinnerValueFactory<Integer> valueFactory =
                 new SpinnerValueFactory.IntegerSpinnerValueFactory(1, 100, 10);
         capacitySpinner.setValueFactory(valueFactory);
+
+        // Only offer rooms that are free and big enough for the chosen time and capacity
+        datePicker.valueProperty().addListener((obs, oldValue, newValue) -> refreshRoomChoices());
+        startHourCombo.valueProperty().addListener((obs, oldValue, newValue) -> refreshRoomChoices());
+        endHourCombo.valueProperty().addListener((obs, oldValue, newValue) -> refreshRoomChoices());
+        capacitySpinner.valueProperty().addListener((obs, oldValue, newValue) -> refreshRoomChoices());
+        refreshRoomChoices();
+    }
+
+    /**
+     * Fills the room combo box with the free rooms for the selected window (smallest first).
+     * The current selection is kept if that room is still free.
+     */
+    private void refreshRoomChoices() {
+        LocalDate localDate = datePicker.getValue();
+        Integer startHour = startHourCombo.getValue();
+        Integer endHour = endHourCombo.getValue();
+        Room selected = roomCombo.getValue();
+
+        if (localDate == null || startHour == null || endHour == null || startHour >= endHour) {
+            roomCombo.setItems(FXCollections.observableArrayList());
+            return;
+        }
+
+        Date startTime = Date.from(localDate.atTime(startHour, 0).atZone(ZoneId.systemDefault()).toInstant());
+        Date endTime = Date.from(localDate.atTime(endHour, 0).atZone(ZoneId.systemDefault()).toInstant());
+        int capacity = capacitySpinner.getValue() != null ? capacitySpinner.getValue() : 0;
+
+        roomCombo.setItems(FXCollections.observableArrayList(database.findFreeRooms(startTime, endTime, capacity)));
+        if (selected != null && roomCombo.getItems().contains(selected)) {
+            roomCombo.setValue(selected);
+        }
     }
 
     @FXML
@@ -130,7 +148,8 @@ public class EventCreationController {
         Date endTime = Date.from(localDate.atTime(endHour, 0)
                 .atZone(ZoneId.systemDefault()).toInstant());
 
-        // 3. Check room availability
+        // 3. Check room availability (bookings of events in not-yet-loaded months are loaded first)
+        database.loadEventsBetween(startTime, endTime);
         if (!selectedRoom.isAvailable(startTime, endTime)) {
             System.out.println("DEBUG: Validation failed - Room conflict for " + selectedRoom.getName());
             messageLabel.setText("Sorry, " + selectedRoom.getName() + " is already booked at this time.");
@@ -149,20 +168,20 @@ public class EventCreationController {
             return;
         }
 
-        // 5. Add to database and save
+        // 5. Add to database and save (open dashboards pick the event up from the change bus)
         database.addEvent(newEvent);
-        storageService.saveData(database);
-        System.out.println("DEBUG: Event saved to database.");
-
-        // 6. Refresh dashboard
-        if (dashboardController != null) {
-            dashboardController.refreshEventList();
-            System.out.println("DEBUG: Dashboard refreshed.");
-        } else {
-            System.out.println("DEBUG: ERROR - Dashboard controller is null!");
+        try {
+            storageService.recordChange(database, JournalEntry.addEvent(newEvent));
+        } catch (StorageConflictException e) {
+            database.removeEvent(newEvent);
+            selectedRoom.releaseBooking(newEvent);
+            messageLabel.setText(e.getMessage());
+            messageLabel.setTextFill(Color.RED);
+            return;
         }
+        System.out.println("DEBUG: Event saved to database.");
 
-        // 7. Close window
+        // 6. Close window
         Stage stage = (Stage) titleField.getScene().getWindow();
         stage.close();
     }
@@ -0,0 +1,213 @@
+package com.eventsystem.controller;
+
+import com.eventsystem.model.Event;
+import com.eventsystem.storage.ChangeBus;
+import com.eventsystem.storage.DatabaseChange;
+import com.eventsystem.storage.EventDatabase;
+import com.eventsystem.storage.EventSummary;
+import javafx.application.Platform;
+import javafx.collections.ObservableList;
+import javafx.collections.ObservableListBase;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.util.Callback;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * The rows of a dashboard event list, paged and kept current by the database's ChangeBus.
+ *
+ * The list holds only the event IDs. Row view models are built a page (PAGE_SIZE rows) at a
+ * time from EventDatabase.getEventSummaries(List) when the ListView asks for a row, and at most
+ * CACHED_PAGES pages are kept, so scrolling through 100k events costs the same memory as
+ * scrolling through a few hundred. Published event changes are matched against the list's
+ * filter: a cached row is updated in place, a new event is appended, a removed one dropped.
+ * Close the model when the dashboard goes away.
+ */
+class EventListModel implements AutoCloseable {
+
+    static final int PAGE_SIZE = 50;
+    private static final int CACHED_PAGES = 8;
+
+    private final EventDatabase database;
+    private final Predicate<Event> filter;
+    private final ChangeBus.Subscription subscription;
+
+    // --- Every listed ID; view models only for the cached pages ---
+    private final List<String> ids = new ArrayList<>();
+    private final Set<String> listed = new HashSet<>();
+    private final Map<Integer, List<EventViewModel>> pages = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, List<EventViewModel>> eldest) {
+            return size() > CACHED_PAGES;
+        }
+    };
+    private final Rows rows = new Rows();
+
+    /**
+     * @param filter which events belong in the list
+     */
+    EventListModel(EventDatabase database, Predicate<Event> filter) {
+        this.database = database;
+        this.filter = filter;
+        this.subscription = database.getChangeBus()
+                .subscribe(DatabaseChange.EventChange.class, change -> onFxThread(() -> apply(change)));
+    }
+
+    ObservableList<EventViewModel> getRows() { return rows; }
+
+    void setEvents(Collection<Event> events) {
+        List<String> fresh = new ArrayList<>(events.size());
+        for (Event e : events) fresh.add(e.getEventID());
+        setEventIDs(fresh);
+    }
+
+    /**
+     * Replaces the listed events, e.g. with EventDatabase.getEventIDs(status).
+     */
+    void setEventIDs(List<String> eventIDs) {
+        int oldSize = ids.size();
+        ids.clear();
+        ids.addAll(eventIDs);
+        listed.clear();
+        listed.addAll(eventIDs);
+        pages.clear();
+        rows.fireReplaced(oldSize);
+    }
+
+    boolean contains(Event event) { return listed.contains(event.getEventID()); }
+
+    @Override
+    public void close() {
+        subscription.close();
+    }
+
+    /**
+     * A cell factory for this model's rows. Each row is formatted when it first becomes
+     * visible and again only after it changes.
+     */
+    static Callback<ListView<EventViewModel>, ListCell<EventViewModel>> cells(Function<EventViewModel, String> format) {
+        return TextCells.of(row -> row.getText(format));
+    }
+
+    // --- Patching ---
+
+    private void apply(DatabaseChange.EventChange change) {
+        Event event = change.getEvent();
+        String eventID = event.getEventID();
+        boolean belongs = !(change instanceof DatabaseChange.EventRemoved) && filter.test(event);
+        boolean present = listed.contains(eventID);
+        if (present && belongs) {
+            // Rows not in a cached page are built fresh when they are next shown
+            int index = cachedIndexOf(eventID);
+            if (index >= 0) {
+                rows.get(index).update(event);
+                rows.fireUpdated(index);
+            }
+        } else if (belongs) {
+            listed.add(eventID);
+            ids.add(eventID);
+            pages.remove((ids.size() - 1) / PAGE_SIZE);
+            rows.fireAdded(ids.size() - 1);
+        } else if (present) {
+            int index = cachedIndexOf(eventID);
+            if (index < 0) index = ids.indexOf(eventID);
+            EventViewModel removed = rows.get(index);
+            listed.remove(eventID);
+            ids.remove(index);
+            // Every page from this one on shifts by a row
+            int firstShifted = index / PAGE_SIZE;
+            pages.keySet().removeIf(page -> page >= firstShifted);
+            rows.fireRemoved(index, removed);
+        }
+    }
+
+    private int cachedIndexOf(String eventID) {
+        for (Map.Entry<Integer, List<EventViewModel>> page : pages.entrySet()) {
+            List<EventViewModel> pageRows = page.getValue();
+            for (int i = 0; i < pageRows.size(); i++) {
+                if (pageRows.get(i).getEventID().equals(eventID)) return page.getKey() * PAGE_SIZE + i;
+            }
+        }
+        return -1;
+    }
+
+    private List<EventViewModel> loadPage(int page) {
+        int from = page * PAGE_SIZE;
+        List<String> pageIDs = ids.subList(from, Math.min(from + PAGE_SIZE, ids.size()));
+        List<EventSummary> summaries = database.getEventSummaries(pageIDs);
+        List<EventViewModel> pageRows = new ArrayList<>(pageIDs.size());
+        for (int i = 0; i < pageIDs.size(); i++) {
+            EventSummary s = summaries.get(i);
+            pageRows.add((s != null) ? new EventViewModel(s) : EventViewModel.unavailable(pageIDs.get(i)));
+        }
+        return pageRows;
+    }
+
+    /**
+     * The list the ListView sees: sized by the ID list, rows built per page on get().
+     */
+    private final class Rows extends ObservableListBase<EventViewModel> {
+
+        @Override
+        public EventViewModel get(int index) {
+            Objects.checkIndex(index, ids.size());
+            int page = index / PAGE_SIZE;
+            List<EventViewModel> pageRows = pages.get(page);
+            if (pageRows == null) {
+                pageRows = loadPage(page);
+                pages.put(page, pageRows);
+            }
+            return pageRows.get(index % PAGE_SIZE);
+        }
+
+        @Override
+        public int size() { return ids.size(); }
+
+        void fireReplaced(int oldSize) {
+            beginChange();
+            if (oldSize > 0) nextRemove(0, Collections.nCopies(oldSize, null));
+            if (!ids.isEmpty()) nextAdd(0, ids.size());
+            endChange();
+        }
+
+        void fireAdded(int index) {
+            beginChange();
+            nextAdd(index, index + 1);
+            endChange();
+        }
+
+        void fireUpdated(int index) {
+            beginChange();
+            nextUpdate(index);
+            endChange();
+        }
+
+        void fireRemoved(int index, EventViewModel removed) {
+            beginChange();
+            nextRemove(index, removed);
+            endChange();
+        }
+    }
+
+    /**
+     * Runs the action on the JavaFX thread (right away if already on it).
+     */
+    static void onFxThread(Runnable action) {
+        if (Platform.isFxApplicationThread()) {
+            action.run();
+        } else {
+            Platform.runLater(action);
+        }
+    }
+}
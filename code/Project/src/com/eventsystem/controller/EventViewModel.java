@@ -0,0 +1,101 @@
+package com.eventsystem.controller;
+
+import com.eventsystem.model.Event;
+import com.eventsystem.storage.EventSummary;
+import javafx.beans.property.ReadOnlyIntegerProperty;
+import javafx.beans.property.ReadOnlyIntegerWrapper;
+import javafx.beans.property.ReadOnlyObjectProperty;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.beans.property.ReadOnlyStringProperty;
+import javafx.beans.property.ReadOnlyStringWrapper;
+
+import java.util.Date;
+import java.util.function.Function;
+
+/**
+ * One row of a dashboard event list: the listed fields of an event as JavaFX properties.
+ *
+ * Built from an EventSummary when its page is first shown, and updated in place from the
+ * Event when a change is published. The row's text is formatted once and kept until then.
+ */
+public class EventViewModel {
+
+    private final String eventID;
+    private String text; // formatted on first display, cleared by update()
+
+    private final ReadOnlyStringWrapper title = new ReadOnlyStringWrapper();
+    private final ReadOnlyStringWrapper status = new ReadOnlyStringWrapper();
+    private final ReadOnlyStringWrapper organizerName = new ReadOnlyStringWrapper();
+    private final ReadOnlyObjectWrapper<Date> startTime = new ReadOnlyObjectWrapper<>();
+    private final ReadOnlyIntegerWrapper capacity = new ReadOnlyIntegerWrapper();
+    private final ReadOnlyIntegerWrapper registeredCount = new ReadOnlyIntegerWrapper();
+
+    public EventViewModel(Event event) {
+        this.eventID = event.getEventID();
+        update(event);
+    }
+
+    public EventViewModel(EventSummary summary) {
+        this.eventID = summary.getEventID();
+        title.set(summary.getTitle());
+        status.set(summary.getStatus());
+        organizerName.set(summary.getOrganizerName());
+        startTime.set(summary.getStartTime());
+        capacity.set(summary.getCapacity());
+        registeredCount.set(summary.getRegisteredCount());
+    }
+
+    /**
+     * Copies the listed fields from the event. Must run on the JavaFX thread.
+     */
+    public void update(Event e) {
+        this.text = null;
+        title.set(e.getTitle());
+        status.set(e.getStatus());
+        organizerName.set(e.getOrganizer() != null ? e.getOrganizer().getName() : null);
+        startTime.set(e.getStartTime());
+        capacity.set(e.getCapacity());
+        registeredCount.set(e.getRegistrations().size());
+    }
+
+    /**
+     * Row for an ID that is no longer in the database (shown until the list is reloaded).
+     */
+    static EventViewModel unavailable(String eventID) {
+        EventViewModel row = new EventViewModel(eventID);
+        row.title.set("(unavailable) " + eventID);
+        return row;
+    }
+
+    private EventViewModel(String eventID) {
+        this.eventID = eventID;
+    }
+
+    /**
+     * The row's text, formatted on the first call after a change.
+     */
+    String getText(Function<EventViewModel, String> format) {
+        if (text == null) text = format.apply(this);
+        return text;
+    }
+
+    public String getEventID() { return eventID; }
+
+    public ReadOnlyStringProperty titleProperty() { return title.getReadOnlyProperty(); }
+    public String getTitle() { return title.get(); }
+
+    public ReadOnlyStringProperty statusProperty() { return status.getReadOnlyProperty(); }
+    public String getStatus() { return status.get(); }
+
+    public ReadOnlyStringProperty organizerNameProperty() { return organizerName.getReadOnlyProperty(); }
+    public String getOrganizerName() { return organizerName.get(); }
+
+    public ReadOnlyObjectProperty<Date> startTimeProperty() { return startTime.getReadOnlyProperty(); }
+    public Date getStartTime() { return startTime.get(); }
+
+    public ReadOnlyIntegerProperty capacityProperty() { return capacity.getReadOnlyProperty(); }
+    public int getCapacity() { return capacity.get(); }
+
+    public ReadOnlyIntegerProperty registeredCountProperty() { return registeredCount.getReadOnlyProperty(); }
+    public int getRegisteredCount() { return registeredCount.get(); }
+}
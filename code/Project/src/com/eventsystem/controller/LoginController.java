@@ -6,8 +6,9 @@ import com.eventsystem.model.Student;
 import com.eventsystem.model.User;
 import com.eventsystem.storage.DataStorageService;
 import com.eventsystem.storage.EventDatabase;
-import com.eventsystem.programs.Main;
+import com.eventsystem.programs.StartupPipeline;
 
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
@@ -20,6 +21,7 @@ import javafx.stage.Stage;
 
 import java.io.IOException;
 import java.net.URL;
+import java.util.concurrent.CompletableFuture;
 
 public class LoginController {
 
@@ -35,67 +37,110 @@ public class LoginController {
     private DataStorageService storageService;
     private EventDatabase database;
 
+    // --- Background loading ---
+    private StartupPipeline pipeline;
+    private CompletableFuture<EventDatabase> databaseReady;
+    private Runnable pendingAction; // last button action clicked while loading
+
+    /**
+     * Starts loading the database in the background; the window is shown right away
+     * and the label reports the loading progress.
+     */
     @FXML
     public void initialize() {
-        this.storageService = new DataStorageService();
-        this.database = storageService.loadData();
+        this.storageService = DataStorageService.getInstance();
+        messageLabel.setText("Loading data...");
+        messageLabel.setTextFill(Color.BLACK);
+
+        this.pipeline = new StartupPipeline(storageService, (stage, progress) ->
+                Platform.runLater(() -> {
+                    if (database == null) {
+                        messageLabel.setText(stage + "... (" + Math.round(progress * 100) + "%)");
+                    }
+                }));
+        this.databaseReady = pipeline.start();
+        databaseReady.whenComplete((db, error) -> Platform.runLater(() -> onDatabaseReady(db, error)));
+    }
+
+    private void onDatabaseReady(EventDatabase db, Throwable error) {
+        if (error != null) {
+            messageLabel.setText("Error loading data. Please restart the application.");
+            messageLabel.setTextFill(Color.RED);
+            return;
+        }
 
-        if (database.getAdministrators().isEmpty()) {
-            System.out.println("Database is empty. Populating with initial data...");
-            Main.populateInitialData(database);
-            storageService.saveData(database);
+        this.database = db;
+        if (pipeline.wasSeeded()) {
             messageLabel.setText("Database populated. Please log in.");
         } else {
             messageLabel.setText("Database loaded. Please log in.");
             messageLabel.setTextFill(Color.BLACK);
         }
+
+        if (pendingAction != null) {
+            Runnable action = pendingAction;
+            pendingAction = null;
+            action.run();
+        }
+    }
+
+    /**
+     * Runs the action now if the database is loaded, otherwise once loading has finished.
+     * Only the most recent action is kept while waiting.
+     */
+    private void whenDatabaseReady(Runnable action) {
+        if (database != null) {
+            action.run();
+        } else if (databaseReady.isCompletedExceptionally()) {
+            messageLabel.setText("Error loading data. Please restart the application.");
+            messageLabel.setTextFill(Color.RED);
+        } else {
+            pendingAction = action;
+            messageLabel.setText("Still loading data, please wait...");
+            messageLabel.setTextFill(Color.BLACK);
+        }
     }
 
     @FXML
     protected void onLoginButtonClick() {
-        String email = emailField.getText();
-        String password = passwordField.getText();
-
-        if (email.isEmpty() || password.isEmpty()) {
+        if (emailField.getText().isEmpty() || passwordField.getText().isEmpty()) {
             messageLabel.setText("Email and password cannot be empty.");
             messageLabel.setTextFill(Color.RED);
             return;
         }
+        whenDatabaseReady(this::attemptLogin);
+    }
 
-        for (User admin : database.getAdministrators()) {
-            if (admin.login(email, password)) {
-                loginSuccess("Admin", admin);
-                return;
-            }
-        }
-
-        for (User organizer : database.getOrganizers()) {
-            if (organizer.login(email, password)) {
-                loginSuccess("Organizer", organizer);
-                return;
-            }
-        }
+    private void attemptLogin() {
+        String email = emailField.getText();
+        String password = passwordField.getText();
 
-        for (User student : database.getStudents()) {
-            if (student.login(email, password)) {
-                loginSuccess("Student", student);
-                return;
-            }
+        User user = database.authenticate(email, password);
+        if (user instanceof Administrator) {
+            loginSuccess("Admin", user);
+        } else if (user instanceof EventOrganizer) {
+            loginSuccess("Organizer", user);
+        } else if (user instanceof Student) {
+            loginSuccess("Student", user);
+        } else {
+            loginFailure();
         }
-
-        loginFailure();
     }
 
     @FXML
     protected void onCreateAccountClick() {
-        try {
-            URL fxmlUrl = getClass().getResource("/com/eventsystem/view/register-view.fxml");
-            if (fxmlUrl == null) {
-                messageLabel.setText("Error: Cannot find register-view.fxml");
-                messageLabel.setTextFill(Color.RED);
-                return;
-            }
+        whenDatabaseReady(this::openRegisterForm);
+    }
+
+    private void openRegisterForm() {
+        URL fxmlUrl = getClass().getResource("/com/eventsystem/view/register-view.fxml");
+        if (fxmlUrl == null) {
+            messageLabel.setText("Error: Cannot find register-view.fxml");
+            messageLabel.setTextFill(Color.RED);
+            return;
+        }
 
+        try {
             FXMLLoader fxmlLoader = new FXMLLoader(fxmlUrl);
             Scene scene = new Scene(fxmlLoader.load());
 
@@ -107,11 +152,8 @@ public class LoginController {
             registerStage.setScene(scene);
             registerStage.initModality(Modality.APPLICATION_MODAL);
             registerStage.showAndWait();
-
         } catch (IOException e) {
-            e.printStackTrace();
-            messageLabel.setText("Error loading registration form.");
-            messageLabel.setTextFill(Color.RED);
+            showLoadError("Error loading registration form.", e);
         }
     }
 
@@ -135,14 +177,14 @@ public class LoginController {
     }
 
     private void openStudentDashboard(Student loggedInStudent) {
-        try {
-            URL fxmlUrl = getClass().getResource("/com/eventsystem/view/student-dashboard-view.fxml");
-            if (fxmlUrl == null) {
-                messageLabel.setText("Error: Cannot find student-dashboard-view.fxml");
-                messageLabel.setTextFill(Color.RED);
-                return;
-            }
+        URL fxmlUrl = getClass().getResource("/com/eventsystem/view/student-dashboard-view.fxml");
+        if (fxmlUrl == null) {
+            messageLabel.setText("Error: Cannot find student-dashboard-view.fxml");
+            messageLabel.setTextFill(Color.RED);
+            return;
+        }
 
+        try {
             FXMLLoader fxmlLoader = new FXMLLoader(fxmlUrl);
             Scene scene = new Scene(fxmlLoader.load(), 600, 400);
 
@@ -154,25 +196,21 @@ public class LoginController {
             dashboardStage.setScene(scene);
             dashboardStage.show();
 
-            Stage loginStage = (Stage) messageLabel.getScene().getWindow();
-            loginStage.close();
-
+            ((Stage) messageLabel.getScene().getWindow()).close();
         } catch (IOException e) {
-            e.printStackTrace();
-            messageLabel.setText("Error loading dashboard.");
-            messageLabel.setTextFill(Color.RED);
+            showLoadError("Error loading dashboard.", e);
         }
     }
 
     private void openOrganizerDashboard(EventOrganizer loggedInOrganizer) {
-        try {
-            URL fxmlUrl = getClass().getResource("/com/eventsystem/view/organizer-dashboard-view.fxml");
-            if (fxmlUrl == null) {
-                messageLabel.setText("Error: Cannot find organizer-dashboard-view.fxml");
-                messageLabel.setTextFill(Color.RED);
-                return;
-            }
+        URL fxmlUrl = getClass().getResource("/com/eventsystem/view/organizer-dashboard-view.fxml");
+        if (fxmlUrl == null) {
+            messageLabel.setText("Error: Cannot find organizer-dashboard-view.fxml");
+            messageLabel.setTextFill(Color.RED);
+            return;
+        }
 
+        try {
             FXMLLoader fxmlLoader = new FXMLLoader(fxmlUrl);
             Scene scene = new Scene(fxmlLoader.load(), 700, 500);
 
@@ -184,13 +222,9 @@ public class LoginController {
             dashboardStage.setScene(scene);
             dashboardStage.show();
 
-            Stage loginStage = (Stage) messageLabel.getScene().getWindow();
-            loginStage.close();
-
+            ((Stage) messageLabel.getScene().getWindow()).close();
         } catch (IOException e) {
-            e.printStackTrace();
-            messageLabel.setText("Error loading dashboard.");
-            messageLabel.setTextFill(Color.RED);
+            showLoadError("Error loading dashboard.", e);
         }
     }
 
@@ -198,14 +232,14 @@ public class LoginController {
      * --- NEW METHOD FOR ADMIN DASHBOARD ---
      */
     private void openAdminDashboard(Administrator loggedInAdmin) {
-        try {
-            URL fxmlUrl = getClass().getResource("/com/eventsystem/view/admin-dashboard-view.fxml");
-            if (fxmlUrl == null) {
-                messageLabel.setText("Error: Cannot find admin-dashboard-view.fxml");
-                messageLabel.setTextFill(Color.RED);
-                return;
-            }
+        URL fxmlUrl = getClass().getResource("/com/eventsystem/view/admin-dashboard-view.fxml");
+        if (fxmlUrl == null) {
+            messageLabel.setText("Error: Cannot find admin-dashboard-view.fxml");
+            messageLabel.setTextFill(Color.RED);
+            return;
+        }
 
+        try {
             FXMLLoader fxmlLoader = new FXMLLoader(fxmlUrl);
             Scene scene = new Scene(fxmlLoader.load());
 
@@ -218,11 +252,14 @@ public class LoginController {
             dashboardStage.show();
 
             ((Stage) messageLabel.getScene().getWindow()).close();
-
         } catch (IOException e) {
-            e.printStackTrace();
-            messageLabel.setText("Error loading admin dashboard.");
-            messageLabel.setTextFill(Color.RED);
+            showLoadError("Error loading admin dashboard.", e);
         }
     }
-}
\ No newline at end of file
+
+    private void showLoadError(String message, Throwable error) {
+        error.printStackTrace();
+        messageLabel.setText(message);
+        messageLabel.setTextFill(Color.RED);
+    }
+}
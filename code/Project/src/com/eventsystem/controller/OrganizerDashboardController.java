@@ -2,10 +2,11 @@ package com.eventsystem.controller;
 
 import com.eventsystem.model.Event;
 import com.eventsystem.model.EventOrganizer;
+import com.eventsystem.model.EventStatus;
 import com.eventsystem.storage.DataStorageService;
 import com.eventsystem.storage.EventDatabase;
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
+import com.eventsystem.storage.JournalEntry;
+import com.eventsystem.storage.StorageConflictException;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
@@ -18,8 +19,8 @@ import javafx.stage.Stage;
 
 import java.io.IOException;
 import java.net.URL;
-import java.text.SimpleDateFormat;
-import java.util.stream.Collectors;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 
 /**
  * Controller for the Organizer Dashboard.
@@ -28,9 +29,13 @@ import java.util.stream.Collectors;
  */
 public class OrganizerDashboardController {
 
+    // Immutable, so one instance formats every row of both lists
+    private static final DateTimeFormatter ROW_DATE =
+            DateTimeFormatter.ofPattern("MMM dd h:mm a").withZone(ZoneId.systemDefault());
+
     @FXML private Label welcomeLabel;
-    @FXML private ListView<String> eventListView;   // My events
-    @FXML private ListView<String> pendingListView; // Pending requests (New)
+    @FXML private ListView<EventViewModel> eventListView;   // My events
+    @FXML private ListView<EventViewModel> pendingListView; // Pending requests (New)
     @FXML private Label messageLabel;
     @FXML private Button cancelButton;
     @FXML private Button viewRegButton;
@@ -41,8 +46,8 @@ public class OrganizerDashboardController {
     private EventOrganizer currentUser;
     private EventDatabase database;
     private DataStorageService storageService;
-    private ObservableList<Event> myEventsList;
-    private ObservableList<Event> pendingEventsList; // New list for pending
+    private EventListModel myEventsList;
+    private EventListModel pendingEventsList; // New list for pending
 
     /**
      * Initializes the controller with data passed from the LoginController.
@@ -53,6 +58,18 @@ public class OrganizerDashboardController {
         this.storageService = storage;
 
         welcomeLabel.setText("Welcome, " + currentUser.getName() + " (Event Organizer)");
+
+        // Only the organizer's own events are loaded up front; pending requests page in summaries
+        database.loadEventsOf(currentUser);
+
+        // Both lists patch their rows as changes are published on the database's bus
+        myEventsList = new EventListModel(database, e -> e.getOrganizer() == currentUser);
+        pendingEventsList = new EventListModel(database, e -> e.getEventStatus() == EventStatus.PENDING);
+        eventListView.setCellFactory(EventListModel.cells(this::formatEventString));
+        pendingListView.setCellFactory(EventListModel.cells(this::formatEventString));
+        eventListView.setItems(myEventsList.getRows());
+        pendingListView.setItems(pendingEventsList.getRows());
+
         refreshEventList();
     }
 
@@ -76,9 +93,9 @@ public class OrganizerDashboardController {
             return;
         }
 
-        Event selectedEvent = myEventsList.get(selectedIndex);
+        Event selectedEvent = database.findEvent(myEventsList.getRows().get(selectedIndex).getEventID());
 
-        if (selectedEvent.getStatus().equals("Cancelled")) {
+        if (selectedEvent.getEventStatus() == EventStatus.CANCELLED) {
             messageLabel.setText("This event is already cancelled.");
             messageLabel.setTextFill(Color.BLUE);
             return;
@@ -86,11 +103,16 @@ public class OrganizerDashboardController {
 
         // Cancel the event
         currentUser.cancelEvent(selectedEvent);
-        storageService.saveData(database);
+        try {
+            storageService.recordChange(database, JournalEntry.eventStatus(selectedEvent));
+        } catch (StorageConflictException e) {
+            messageLabel.setText(e.getMessage());
+            messageLabel.setTextFill(Color.RED);
+            return;
+        }
 
         messageLabel.setText("Event Cancelled: " + selectedEvent.getTitle());
         messageLabel.setTextFill(Color.GREEN);
-        refreshEventList();
     }
 
     /**
@@ -107,13 +129,13 @@ public class OrganizerDashboardController {
             return;
         }
 
-        try {
-            URL fxmlUrl = getClass().getResource("/com/eventsystem/view/view-registrations-view.fxml");
-            if (fxmlUrl == null) {
-                messageLabel.setText("Error: Cannot find view-registrations-view.fxml");
-                return;
-            }
+        URL fxmlUrl = getClass().getResource("/com/eventsystem/view/view-registrations-view.fxml");
+        if (fxmlUrl == null) {
+            messageLabel.setText("Error: Cannot find view-registrations-view.fxml");
+            return;
+        }
 
+        try {
             FXMLLoader fxmlLoader = new FXMLLoader(fxmlUrl);
             Scene scene = new Scene(fxmlLoader.load());
             ViewRegistrationsController controller = fxmlLoader.getController();
@@ -141,20 +163,29 @@ public class OrganizerDashboardController {
             return;
         }
 
-        Event eventToApprove = pendingEventsList.get(selectedIndex);
+        Event eventToApprove = database.findEvent(pendingEventsList.getRows().get(selectedIndex).getEventID());
 
-        // Change status to Active
-        eventToApprove.setStatus("Active");
+        // Pending -> Active
+        if (!eventToApprove.approve()) {
+            messageLabel.setText("Only pending requests can be approved.");
+            messageLabel.setTextFill(Color.RED);
+            return;
+        }
         // Assign this organizer as the "owner" / approver so they can manage it
+        EventOrganizer previousOrganizer = eventToApprove.getOrganizer();
         eventToApprove.setOrganizer(this.currentUser);
         this.currentUser.getCreatedEvents().add(eventToApprove);
 
-        storageService.saveData(database);
+        try {
+            storageService.recordChange(database, JournalEntry.eventStatus(eventToApprove, previousOrganizer));
+        } catch (StorageConflictException e) {
+            messageLabel.setText(e.getMessage());
+            messageLabel.setTextFill(Color.RED);
+            return;
+        }
 
         messageLabel.setText("Approved: " + eventToApprove.getTitle());
         messageLabel.setTextFill(Color.GREEN);
-
-        refreshEventList();
     }
 
     /**
@@ -169,20 +200,28 @@ public class OrganizerDashboardController {
             return;
         }
 
-        Event eventToReject = pendingEventsList.get(selectedIndex);
+        Event eventToReject = database.findEvent(pendingEventsList.getRows().get(selectedIndex).getEventID());
 
-        // Change status to Rejected (or Cancelled)
-        eventToReject.setStatus("Rejected");
+        // Pending -> Rejected
+        if (!eventToReject.reject()) {
+            messageLabel.setText("Only pending requests can be rejected.");
+            messageLabel.setTextFill(Color.RED);
+            return;
+        }
 
         // Release the room booking since it won't happen
         eventToReject.getRoom().releaseBooking(eventToReject);
 
-        storageService.saveData(database);
+        try {
+            storageService.recordChange(database, JournalEntry.eventStatus(eventToReject));
+        } catch (StorageConflictException e) {
+            messageLabel.setText(e.getMessage());
+            messageLabel.setTextFill(Color.RED);
+            return;
+        }
 
         messageLabel.setText("Rejected: " + eventToReject.getTitle());
         messageLabel.setTextFill(Color.RED); // Red to signify rejection
-
-        refreshEventList();
     }
 
     /**
@@ -190,14 +229,14 @@ public class OrganizerDashboardController {
      */
     @FXML
     protected void onLogoutButtonClick() {
-        try {
-            // Load the Login View
-            URL fxmlUrl = getClass().getResource("/com/eventsystem/view/login-view.fxml");
-            if (fxmlUrl == null) {
-                messageLabel.setText("Error: Cannot find login-view.fxml");
-                return;
-            }
+        // Load the Login View
+        URL fxmlUrl = getClass().getResource("/com/eventsystem/view/login-view.fxml");
+        if (fxmlUrl == null) {
+            messageLabel.setText("Error: Cannot find login-view.fxml");
+            return;
+        }
 
+        try {
             FXMLLoader fxmlLoader = new FXMLLoader(fxmlUrl);
             Scene scene = new Scene(fxmlLoader.load(), 320, 240);
 
@@ -210,8 +249,9 @@ public class OrganizerDashboardController {
 
             // Close the current dashboard window
             Stage currentStage = (Stage) welcomeLabel.getScene().getWindow();
+            myEventsList.close();
+            pendingEventsList.close();
             currentStage.close();
-
         } catch (IOException e) {
             e.printStackTrace();
             messageLabel.setText("Error logging out.");
@@ -219,34 +259,19 @@ public class OrganizerDashboardController {
     }
 
     /**
-     * Refreshes the data in both ListViews.
+     * Reloads both lists. Later changes patch single rows through the change bus,
+     * so this only runs on startup.
      */
     public void refreshEventList() {
         // 1. Populate "My Created Events"
-        this.myEventsList = FXCollections.observableArrayList(currentUser.getCreatedEvents());
-        eventListView.setItems(
-                myEventsList.stream()
-                        .map(this::formatEventString)
-                        .collect(Collectors.toCollection(FXCollections::observableArrayList))
-        );
-
-        // 2. Populate "Pending Requests" (All events with status "Pending")
-        this.pendingEventsList = FXCollections.observableArrayList(
-                database.getEvents().stream()
-                        .filter(e -> "Pending".equals(e.getStatus()))
-                        .collect(Collectors.toList())
-        );
-
-        pendingListView.setItems(
-                pendingEventsList.stream()
-                        .map(this::formatEventString)
-                        .collect(Collectors.toCollection(FXCollections::observableArrayList))
-        );
+        myEventsList.setEvents(currentUser.getCreatedEvents());
+
+        // 2. Populate "Pending Requests" (IDs of all Pending events, from the status index; nothing is loaded)
+        pendingEventsList.setEventIDs(database.getEventIDs(EventStatus.PENDING));
     }
 
-    private String formatEventString(Event event) {
-        SimpleDateFormat sdf = new SimpleDateFormat("MMM dd h:mm a");
-        String dateStr = (event.getStartTime() != null) ? sdf.format(event.getStartTime()) : "TBD";
+    private String formatEventString(EventViewModel event) {
+        String dateStr = (event.getStartTime() != null) ? ROW_DATE.format(event.getStartTime().toInstant()) : "TBD";
         return String.format("%s (%s) - %s", event.getTitle(), event.getStatus(), dateStr);
     }
 
@@ -256,10 +281,10 @@ public class OrganizerDashboardController {
      */
     private Event getSelectedEvent() {
         int idx1 = eventListView.getSelectionModel().getSelectedIndex();
-        if (idx1 != -1) return myEventsList.get(idx1);
+        if (idx1 != -1) return database.findEvent(myEventsList.getRows().get(idx1).getEventID());
 
         int idx2 = pendingListView.getSelectionModel().getSelectedIndex();
-        if (idx2 != -1) return pendingEventsList.get(idx2);
+        if (idx2 != -1) return database.findEvent(pendingEventsList.getRows().get(idx2).getEventID());
 
         return null;
     }
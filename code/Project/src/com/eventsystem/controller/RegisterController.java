@@ -3,6 +3,8 @@ package com.eventsystem.controller;
 import com.eventsystem.model.Student;
 import com.eventsystem.storage.DataStorageService;
 import com.eventsystem.storage.EventDatabase;
+import com.eventsystem.storage.JournalEntry;
+import com.eventsystem.storage.StorageConflictException;
 import javafx.fxml.FXML;
 import javafx.scene.control.Label;
 import javafx.scene.control.PasswordField;
@@ -58,7 +60,7 @@ public class RegisterController {
             return;
         }
 
-        if (database.getStudents().stream().anyMatch(s -> s.getEmail().equals(email))) {
+        if (database.isEmailTaken(email)) {
             messageLabel.setText("Email already registered.");
             messageLabel.setTextFill(Color.RED);
             return;
@@ -66,7 +68,13 @@ public class RegisterController {
 
         Student newStudent = new Student(studentID, studentID, name, email, password);
         database.addStudent(newStudent);
-        storageService.saveData(database);
+        try {
+            storageService.recordChange(database, JournalEntry.addUser(newStudent));
+        } catch (StorageConflictException e) {
+            messageLabel.setText(e.getMessage());
+            messageLabel.setTextFill(Color.RED);
+            return;
+        }
 
         messageLabel.setText("Registration successful! You can now login.");
         messageLabel.setTextFill(Color.GREEN);
@@ -1,12 +1,14 @@
 package com.eventsystem.controller;
 
 import com.eventsystem.model.Event;
+import com.eventsystem.model.EventStatus;
+import com.eventsystem.model.Notification;
 import com.eventsystem.model.Registration;
 import com.eventsystem.model.Student;
 import com.eventsystem.storage.DataStorageService;
 import com.eventsystem.storage.EventDatabase;
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
+import com.eventsystem.storage.JournalEntry;
+import com.eventsystem.storage.StorageConflictException;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
@@ -20,8 +22,8 @@ import javafx.stage.Stage;
 
 import java.io.IOException;
 import java.net.URL;
-import java.text.SimpleDateFormat;
-import java.util.stream.Collectors;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 
 /**
  * Controller for the Student Dashboard.
@@ -29,11 +31,15 @@ import java.util.stream.Collectors;
  */
 public class StudentDashboardController {
 
+    // Immutable, so one instance formats every row
+    private static final DateTimeFormatter ROW_DATE =
+            DateTimeFormatter.ofPattern("MMM dd 'at' h:mm a").withZone(ZoneId.systemDefault());
+
     @FXML
     private Label welcomeLabel;
 
     @FXML
-    private ListView<String> eventListView;
+    private ListView<EventViewModel> eventListView;
 
     @FXML
     private Label messageLabel;
@@ -48,7 +54,7 @@ public class StudentDashboardController {
     private Student currentUser;
     private EventDatabase database;
     private DataStorageService storageService;
-    private ObservableList<Event> allEventsList;
+    private EventListModel activeEvents;
 
     /**
      * Initializes the controller with data passed from the LoginController.
@@ -61,8 +67,13 @@ public class StudentDashboardController {
 
         welcomeLabel.setText("Welcome, " + currentUser.getName() + "!");
 
-        // Load events from the database into our observable list
-        this.allEventsList = FXCollections.observableArrayList(database.getEvents());
+        // Only the student's own events are loaded up front; the list pages in event summaries
+        database.loadRegistrationsOf(currentUser);
+
+        // Active events; rows are patched as changes are published on the database's bus
+        activeEvents = new EventListModel(database, e -> e.getEventStatus() == EventStatus.ACTIVE);
+        eventListView.setCellFactory(EventListModel.cells(this::formatEventRow));
+        eventListView.setItems(activeEvents.getRows());
 
         refreshEventList();
     }
@@ -80,12 +91,13 @@ public class StudentDashboardController {
             return;
         }
 
-        // Get the actual Event object from our list based on the selection
-        // Note: We filter the list first to ensure the index matches the visual list
-        Event selectedEvent = allEventsList.stream()
-                .filter(event -> event.getStatus().equals("Active"))
-                .collect(Collectors.toList())
-                .get(selectedIndex);
+        // Get the actual Event object for the selected summary (loads its segment if needed)
+        Event selectedEvent = database.findEvent(activeEvents.getRows().get(selectedIndex).getEventID());
+        if (selectedEvent == null) {
+            messageLabel.setText("This event no longer exists.");
+            messageLabel.setTextFill(Color.RED);
+            return;
+        }
 
         // Check if the student is already registered
         for (Registration reg : currentUser.getRegistrations()) {
@@ -96,24 +108,114 @@ public class StudentDashboardController {
             }
         }
 
-        // Check if the event is full
+        // A full event puts the student on its waitlist instead
         if (selectedEvent.isFull()) {
-            messageLabel.setText("Sorry, this event is full.");
-            messageLabel.setTextFill(Color.RED);
+            joinWaitlist(selectedEvent);
             return;
         }
 
-        // Perform registration
-        currentUser.registerForEvent(selectedEvent);
+        // Perform registration (a waiting student leaves the waitlist)
+        int waitlistPosition = selectedEvent.getWaitlist().positionOf(currentUser);
+        Registration newReg = currentUser.registerForEvent(selectedEvent);
+
+        // The last seat may have been taken since the check above (e.g. by another desk)
+        if (newReg == null) {
+            messageLabel.setText(selectedEvent.isFull() ? "Sorry, this event is full."
+                    : "This event is no longer open for registration.");
+            messageLabel.setTextFill(Color.RED);
+            return;
+        }
 
-        // Save changes to the XML file
-        storageService.saveData(database);
+        // Append the registration to the storage journal
+        try {
+            storageService.recordChange(database, JournalEntry.register(newReg, waitlistPosition));
+        } catch (StorageConflictException e) {
+            messageLabel.setText(e.getMessage());
+            messageLabel.setTextFill(Color.RED);
+            return;
+        }
 
+        // The row shows the new count on its own (RegistrationAdded)
         messageLabel.setText("Successfully registered for: " + selectedEvent.getTitle());
         messageLabel.setTextFill(Color.GREEN);
+    }
 
-        // Refresh the list to show the new capacity
-        refreshEventList();
+    /**
+     * Adds the student to the waitlist of a full event and shows the position in line.
+     */
+    private void joinWaitlist(Event event) {
+        boolean alreadyWaiting = event.getWaitlist().contains(currentUser);
+        int position = currentUser.joinWaitlist(event);
+        if (!alreadyWaiting) {
+            try {
+                storageService.recordChange(database, JournalEntry.joinWaitlist(currentUser, event));
+            } catch (StorageConflictException e) {
+                event.getWaitlist().leave(currentUser);
+                messageLabel.setText(e.getMessage());
+                messageLabel.setTextFill(Color.RED);
+                return;
+            }
+        }
+        messageLabel.setText("This event is full. You are #" + position + " on the waitlist.");
+        messageLabel.setTextFill(Color.BLUE);
+    }
+
+    /**
+     * Handles the "Cancel Registration" button click.
+     * The freed seat goes to the first student on the event's waitlist.
+     */
+    @FXML
+    protected void onCancelRegistrationClick() {
+        int selectedIndex = eventListView.getSelectionModel().getSelectedIndex();
+        if (selectedIndex == -1) {
+            messageLabel.setText("Please select an event to cancel.");
+            messageLabel.setTextFill(Color.RED);
+            return;
+        }
+
+        String eventID = activeEvents.getRows().get(selectedIndex).getEventID();
+        Registration registration = null;
+        for (Registration reg : currentUser.getRegistrations()) {
+            if (reg.getEvent().getEventID().equals(eventID)) {
+                registration = reg;
+                break;
+            }
+        }
+        if (registration == null) {
+            messageLabel.setText("You are not registered for this event.");
+            messageLabel.setTextFill(Color.RED);
+            return;
+        }
+
+        // The journal entry is built first, while the registration is still linked to the student
+        JournalEntry cancelEntry = JournalEntry.cancelRegistration(registration);
+        Registration promoted = currentUser.cancelRegistration(registration);
+        try {
+            storageService.recordChange(database, cancelEntry);
+        } catch (StorageConflictException e) {
+            if (currentUser.restoreRegistration(registration, promoted)) {
+                messageLabel.setText(e.getMessage());
+            } else {
+                messageLabel.setText(e.getMessage() + " Your seat was taken in the meantime.");
+            }
+            messageLabel.setTextFill(Color.RED);
+            return;
+        }
+
+        // The cancellation is saved; a promotion that loses to another desk is taken back
+        // (the student keeps the first place in line)
+        if (promoted != null) {
+            Notification note = promoted.getEvent().getLastNotificationFor(promoted.getStudent());
+            try {
+                storageService.recordChange(database, JournalEntry.promote(promoted, note));
+            } catch (StorageConflictException e) {
+                promoted.getEvent().undoPromotion(promoted);
+                System.out.println("!!! Promotion from the waitlist not saved: " + e.getMessage());
+            }
+        }
+
+        messageLabel.setText("Registration cancelled for: " + registration.getEvent().getTitle());
+        messageLabel.setTextFill(Color.GREEN);
     }
 
     /**
@@ -122,22 +224,22 @@ public class StudentDashboardController {
      */
     @FXML
     protected void onCreateEventButtonClick() {
-        try {
-            // Load the FXML for the popup
-            URL fxmlUrl = getClass().getResource("/com/eventsystem/view/event-creation-view.fxml");
-            if (fxmlUrl == null) {
-                messageLabel.setText("Error: Cannot find event-creation-view.fxml");
-                messageLabel.setTextFill(Color.RED);
-                return;
-            }
+        // Load the FXML for the popup
+        URL fxmlUrl = getClass().getResource("/com/eventsystem/view/event-creation-view.fxml");
+        if (fxmlUrl == null) {
+            messageLabel.setText("Error: Cannot find event-creation-view.fxml");
+            messageLabel.setTextFill(Color.RED);
+            return;
+        }
 
+        try {
             FXMLLoader fxmlLoader = new FXMLLoader(fxmlUrl);
             Scene scene = new Scene(fxmlLoader.load());
 
             // Pass data to the new controller
             EventCreationController controller = fxmlLoader.getController();
-            // We pass 'this' (the dashboard controller) so the popup can refresh our list when done
-            controller.initData(this.currentUser, this.database, this.storageService, this);
+            // New events reach our list through the database's change bus
+            controller.initData(this.currentUser, this.database, this.storageService);
 
             // Create and show the popup stage
             Stage formStage = new Stage();
@@ -148,7 +250,6 @@ public class StudentDashboardController {
             formStage.initModality(Modality.APPLICATION_MODAL);
 
             formStage.showAndWait();
-
         } catch (IOException e) {
             e.printStackTrace();
             messageLabel.setText("Error loading event creation form.");
@@ -170,12 +271,19 @@ public class StudentDashboardController {
         boolean hasNotifications = false;
 
         for (Registration reg : currentUser.getRegistrations()) {
-            if (reg.getEvent().getStatus().equals("Cancelled")) {
+            if (reg.getEvent().getEventStatus() == EventStatus.CANCELLED) {
                 notificationText.append("- ALERT: The event '")
                         .append(reg.getEvent().getTitle())
                         .append("' has been CANCELLED by the organizer.\n");
                 hasNotifications = true;
             }
+            // Personal messages, e.g. a promotion from the waitlist
+            for (Notification note : reg.getEvent().getNotifications()) {
+                if (note.getRecipientID() != null && note.isFor(currentUser)) {
+                    notificationText.append("- ").append(note.getMessage()).append("\n");
+                    hasNotifications = true;
+                }
+            }
         }
 
         if (!hasNotifications) {
@@ -195,13 +303,13 @@ public class StudentDashboardController {
      */
     @FXML
     protected void onLogoutButtonClick() {
-        try {
-            URL fxmlUrl = getClass().getResource("/com/eventsystem/view/login-view.fxml");
-            if (fxmlUrl == null) {
-                messageLabel.setText("Error: Cannot find login-view.fxml");
-                return;
-            }
+        URL fxmlUrl = getClass().getResource("/com/eventsystem/view/login-view.fxml");
+        if (fxmlUrl == null) {
+            messageLabel.setText("Error: Cannot find login-view.fxml");
+            return;
+        }
 
+        try {
             FXMLLoader fxmlLoader = new FXMLLoader(fxmlUrl);
             Scene scene = new Scene(fxmlLoader.load(), 320, 240);
 
@@ -212,8 +320,8 @@ public class StudentDashboardController {
             loginStage.show();
 
             Stage currentStage = (Stage) welcomeLabel.getScene().getWindow();
+            activeEvents.close();
             currentStage.close();
-
         } catch (IOException e) {
             e.printStackTrace();
             messageLabel.setText("Error logging out.");
@@ -221,27 +329,20 @@ public class StudentDashboardController {
     }
 
     /**
-     * Updates the visual list of events.
-     * Can be called from this class or external controllers (like EventCreationController).
+     * Reloads the IDs of all Active events (straight from the status index); rows are built
+     * page by page as they scroll into view. Later changes patch single rows through the
+     * change bus, so this only runs on startup.
      */
     public void refreshEventList() {
-        // Re-fetch the list to ensure we have the latest data (including new events)
-        this.allEventsList = FXCollections.observableArrayList(database.getEvents());
-
-        // Filter and format the list for display
-        eventListView.setItems(
-                allEventsList.stream()
-                        .filter(event -> event.getStatus().equals("Active")) // Only show Active events
-                        .map(event -> {
-                            SimpleDateFormat sdf = new SimpleDateFormat("MMM dd 'at' h:mm a");
-                            String dateStr = sdf.format(event.getStartTime());
-                            return String.format("%s (Registered: %d / %d) - %s",
-                                    event.getTitle(),
-                                    event.getRegistrations().size(),
-                                    event.getCapacity(),
-                                    dateStr);
-                        })
-                        .collect(Collectors.toCollection(FXCollections::observableArrayList))
-        );
+        activeEvents.setEventIDs(database.getEventIDs(EventStatus.ACTIVE));
+    }
+
+    private String formatEventRow(EventViewModel event) {
+        String dateStr = ROW_DATE.format(event.getStartTime().toInstant());
+        return String.format("%s (Registered: %d / %d) - %s",
+                event.getTitle(),
+                event.getRegisteredCount(),
+                event.getCapacity(),
+                dateStr);
     }
 }
\ No newline at end of file
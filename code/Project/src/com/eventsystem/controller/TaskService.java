@@ -0,0 +1,226 @@
+package com.eventsystem.controller;
+
+import javafx.application.Platform;
+import javafx.concurrent.Task;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.function.Consumer;
+
+/**
+ * Runs blocking controller work (exports, reports, searches, full event loads) off the
+ * JavaFX Application Thread.
+ *
+ * All controllers share one bounded pool of daemon threads ("ui-task-N") with a bounded
+ * queue. Work is wrapped in a JavaFX Task, so callers get progress, message and cancellation
+ * through the Task's properties, and the result and error callbacks run on the JavaFX thread.
+ * Queue depth and the waiting and running time of every task are tracked (see getMetrics()).
+ */
+public final class TaskService {
+
+    /**
+     * The work of a task. Runs on a pool thread; must not touch the scene graph.
+     */
+    public interface Work<T> {
+        T run(Progress progress) throws Exception;
+    }
+
+    /**
+     * Progress handle passed to the work. Long loops should check isCancelled().
+     */
+    public interface Progress {
+        void update(long done, long total);
+        void message(String message);
+        boolean isCancelled();
+    }
+
+    private static final int QUEUE_CAPACITY = 64;
+    private static final TaskService INSTANCE =
+            new TaskService(Math.max(2, Runtime.getRuntime().availableProcessors() / 2));
+
+    private final ThreadPoolExecutor executor;
+
+    // --- Metrics ---
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong succeeded = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong cancelled = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong totalRunNanos = new AtomicLong();
+    private final LongAccumulator maxWaitNanos = new LongAccumulator(Math::max, 0);
+    private final LongAccumulator maxRunNanos = new LongAccumulator(Math::max, 0);
+    private final AtomicLong started = new AtomicLong();
+
+    private TaskService(int threads) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY), r -> {
+                    Thread t = new Thread(r, "ui-task-" + threadNumber.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    public static TaskService getInstance() { return INSTANCE; }
+
+    /**
+     * Queues the work and returns its Task right away. onDone gets the result and onError
+     * the failure (also when the queue is full), both on the JavaFX thread. A cancelled task
+     * calls neither.
+     */
+    public <T> Task<T> submit(String name, Work<T> work, Consumer<T> onDone, Consumer<Throwable> onError) {
+        TrackedTask<T> task = new TrackedTask<>(name, work);
+        task.setOnSucceeded(e -> onDone.accept(task.getValue()));
+        task.setOnFailed(e -> onError.accept(task.getException()));
+        submitted.incrementAndGet();
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            System.out.println("!!! Task '" + name + "' rejected: " + executor.getQueue().size() + " tasks queued");
+            Platform.runLater(() -> onError.accept(e));
+        }
+        return task;
+    }
+
+    /**
+     * Stops taking new tasks and prints the metrics. Running tasks finish on their own
+     * (the pool threads are daemons).
+     */
+    public void shutdown() {
+        executor.shutdown();
+        System.out.println("--- Background tasks: " + getMetrics() + " ---");
+    }
+
+    // =================================================
+    // METRICS
+    // =================================================
+
+    public Metrics getMetrics() {
+        long starts = started.get();
+        return new Metrics(executor.getQueue().size(), executor.getActiveCount(), submitted.get(),
+                succeeded.get(), failed.get(), cancelled.get(), rejected.get(),
+                (starts == 0) ? 0 : totalWaitNanos.get() / starts / 1_000_000, maxWaitNanos.get() / 1_000_000,
+                (starts == 0) ? 0 : totalRunNanos.get() / starts / 1_000_000, maxRunNanos.get() / 1_000_000);
+    }
+
+    /**
+     * Snapshot of the task counters. Waiting is the time from submit() to the start on a
+     * pool thread, running the time the work itself took (all in milliseconds).
+     */
+    public static final class Metrics {
+        private final int queueDepth;
+        private final int running;
+        private final long submitted;
+        private final long succeeded;
+        private final long failed;
+        private final long cancelled;
+        private final long rejected;
+        private final long averageWaitMillis;
+        private final long maxWaitMillis;
+        private final long averageRunMillis;
+        private final long maxRunMillis;
+
+        Metrics(int queueDepth, int running, long submitted, long succeeded, long failed, long cancelled,
+                long rejected, long averageWaitMillis, long maxWaitMillis, long averageRunMillis, long maxRunMillis) {
+            this.queueDepth = queueDepth;
+            this.running = running;
+            this.submitted = submitted;
+            this.succeeded = succeeded;
+            this.failed = failed;
+            this.cancelled = cancelled;
+            this.rejected = rejected;
+            this.averageWaitMillis = averageWaitMillis;
+            this.maxWaitMillis = maxWaitMillis;
+            this.averageRunMillis = averageRunMillis;
+            this.maxRunMillis = maxRunMillis;
+        }
+
+        public int getQueueDepth() { return queueDepth; }
+        public int getRunning() { return running; }
+        public long getSubmitted() { return submitted; }
+        public long getSucceeded() { return succeeded; }
+        public long getFailed() { return failed; }
+        public long getCancelled() { return cancelled; }
+        public long getRejected() { return rejected; }
+        public long getAverageWaitMillis() { return averageWaitMillis; }
+        public long getMaxWaitMillis() { return maxWaitMillis; }
+        public long getAverageRunMillis() { return averageRunMillis; }
+        public long getMaxRunMillis() { return maxRunMillis; }
+
+        @Override
+        public String toString() {
+            return submitted + " submitted, " + succeeded + " succeeded, " + failed + " failed, "
+                    + cancelled + " cancelled, " + rejected + " rejected; queue " + queueDepth + ", running " + running
+                    + "; wait avg " + averageWaitMillis + " ms / max " + maxWaitMillis
+                    + " ms, run avg " + averageRunMillis + " ms / max " + maxRunMillis + " ms";
+        }
+    }
+
+    // =================================================
+    // TASK
+    // =================================================
+
+    private final class TrackedTask<T> extends Task<T> implements Progress {
+
+        private final String name;
+        private final Work<T> work;
+        private final long submittedAt = System.nanoTime();
+
+        TrackedTask(String name, Work<T> work) {
+            this.name = name;
+            this.work = work;
+            updateTitle(name);
+        }
+
+        @Override
+        protected T call() throws Exception {
+            long startedAt = System.nanoTime();
+            long waited = startedAt - submittedAt;
+            started.incrementAndGet();
+            totalWaitNanos.addAndGet(waited);
+            maxWaitNanos.accumulate(waited);
+            boolean ok = false;
+            try {
+                T result = work.run(this);
+                ok = true;
+                return result;
+            } finally {
+                long ran = System.nanoTime() - startedAt;
+                totalRunNanos.addAndGet(ran);
+                maxRunNanos.accumulate(ran);
+                if (isCancelled()) {
+                    System.out.println("--- Task '" + name + "' stopped after " + ran / 1_000_000 + " ms (cancelled) ---");
+                } else if (ok) {
+                    succeeded.incrementAndGet();
+                    System.out.println("--- Task '" + name + "' finished in " + ran / 1_000_000 + " ms (waited "
+                            + waited / 1_000_000 + " ms, " + executor.getQueue().size() + " queued) ---");
+                } else {
+                    failed.incrementAndGet();
+                    System.out.println("!!! Task '" + name + "' failed after " + ran / 1_000_000 + " ms");
+                }
+            }
+        }
+
+        /**
+         * Called on the JavaFX thread, also for tasks cancelled while still queued.
+         */
+        @Override
+        protected void cancelled() {
+            cancelled.incrementAndGet();
+        }
+
+        @Override
+        public void update(long done, long total) { updateProgress(done, total); }
+
+        @Override
+        public void message(String message) { updateMessage(message); }
+    }
+}
@@ -0,0 +1,26 @@
+package com.eventsystem.controller;
+
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.util.Callback;
+
+import java.util.function.Function;
+
+/**
+ * ListView cell factories that show each item as a line of text.
+ */
+final class TextCells {
+
+    private TextCells() {
+    }
+
+    static <T> Callback<ListView<T>, ListCell<T>> of(Function<T, String> text) {
+        return list -> new ListCell<T>() {
+            @Override
+            protected void updateItem(T item, boolean empty) {
+                super.updateItem(item, empty);
+                setText(empty || item == null ? null : text.apply(item));
+            }
+        };
+    }
+}
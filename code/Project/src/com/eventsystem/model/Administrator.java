@@ -1,6 +1,7 @@
 package com.eventsystem.model;
 
 import java.io.Serializable;
+import java.util.List;
 
 /**
  * Represents an Administrator. Extends User and is Serializable.
@@ -28,10 +29,12 @@ public class Administrator extends User implements Serializable {
         System.out.println(this.getName() + " changed " + user.getName() + "'s role to " + newRole);
     }
 
-    public Report generateReports() {
-        System.out.println(this.getName() + " is generating a report...");
-        String reportData = "Event Report:\n- Java Tech Talk: 100 Registrations\n- Code Jam: 2 Registrations";
-        Report newReport = new Report("R" + System.currentTimeMillis(), "Event Participation Report", reportData);
-        return newReport;
+    /**
+     * Generates the campus-wide reports (participation, room use, organizer activity,
+     * cancellations, time-of-day demand) with the given generator.
+     */
+    public List<Report> generateReports(ReportGenerator generator) {
+        System.out.println(this.getName() + " is generating reports...");
+        return generator.generate();
     }
 }
\ No newline at end of file
@@ -0,0 +1,217 @@
+package com.eventsystem.model;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.RandomAccess;
+import java.util.TreeMap;
+
+/**
+ * The bookings of a Room, kept in booking order like a normal list, plus a sorted
+ * interval index over the event start times.
+ *
+ * Every change to the list (including add/remove through getBookings() and the
+ * XMLDecoder/storage loaders) goes through add/remove/set here, so the index is always
+ * up to date. Because no booking is longer than maxDuration, the bookings overlapping
+ * [start, end) all start inside (start - maxDuration, end), which is one TreeMap range:
+ * overlap checks and range queries cost O(log n + k) instead of a scan of every booking.
+ *
+ * On top of that, an occupancy bitmap per day (48 half-hour slots in one long) answers
+ * "is this room free?" with a few bit operations when none of the slots are taken.
+ * Only partly free slots fall back to the interval index.
+ */
+public class BookingList extends AbstractList<Event> implements RandomAccess, Serializable {
+
+    private final ArrayList<Event> events = new ArrayList<>();
+
+    // --- Interval index (rebuilt after deserialization) ---
+    private transient TreeMap<Long, List<Event>> byStart = new TreeMap<>();
+    private transient long maxDuration;
+
+    // --- Occupancy bitmaps: epoch day (UTC) -> one bit per half-hour slot ---
+    private static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+    private static final long SLOT_MILLIS = 30L * 60 * 1000;
+    private transient Map<Long, Long> occupancy = new HashMap<>();
+
+    // Bookings whose end is not after their start; the bitmaps cannot represent them
+    private transient int irregular;
+
+    /**
+     * Public no-arg constructor (REQUIRED for XMLEncoder)
+     */
+    public BookingList() {
+    }
+
+    public BookingList(Collection<Event> bookings) {
+        for (Event e : bookings) {
+            add(e);
+        }
+    }
+
+    // --- List implementation ---
+
+    @Override
+    public Event get(int index) { return events.get(index); }
+
+    @Override
+    public int size() { return events.size(); }
+
+    @Override
+    public void add(int index, Event event) {
+        events.add(index, event);
+        index(event);
+        modCount++;
+    }
+
+    @Override
+    public Event remove(int index) {
+        Event removed = events.remove(index);
+        unindex(removed);
+        modCount++;
+        return removed;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        int index = events.indexOf(o);
+        if (index < 0) return false;
+        remove(index);
+        return true;
+    }
+
+    @Override
+    public Event set(int index, Event event) {
+        Event previous = events.set(index, event);
+        unindex(previous);
+        index(event);
+        return previous;
+    }
+
+    // --- Queries ---
+
+    /**
+     * True if no booking overlaps [start, end), i.e. none starts before end and ends after
+     * start. Checks the occupancy bitmaps first; empty or inverted ranges (of the window or
+     * of a booking) always take the exact check.
+     */
+    public boolean isFree(Date start, Date end) {
+        if (irregular == 0 && end.after(start) && slotsFree(start.getTime(), end.getTime())) return true;
+        return !overlaps(start, end);
+    }
+
+    /**
+     * True if any booking overlaps [start, end).
+     */
+    public boolean overlaps(Date start, Date end) {
+        for (List<Event> sameStart : candidates(start, end).values()) {
+            for (Event e : sameStart) {
+                if (e.getEndTime().getTime() > start.getTime()) return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Every booking overlapping [start, end), ordered by start time.
+     */
+    public List<Event> between(Date start, Date end) {
+        List<Event> result = new ArrayList<>();
+        for (List<Event> sameStart : candidates(start, end).values()) {
+            for (Event e : sameStart) {
+                if (e.getEndTime().getTime() > start.getTime()) result.add(e);
+            }
+        }
+        return result;
+    }
+
+    private NavigableMap<Long, List<Event>> candidates(Date start, Date end) {
+        long from = start.getTime() - maxDuration;
+        if (from >= end.getTime()) return Collections.emptyNavigableMap();
+        return byStart.subMap(from, false, end.getTime(), false);
+    }
+
+    // --- Index maintenance ---
+
+    private void index(Event e) {
+        if (e == null || e.getStartTime() == null || e.getEndTime() == null) return;
+        byStart.computeIfAbsent(e.getStartTime().getTime(), k -> new ArrayList<>(1)).add(e);
+        maxDuration = Math.max(maxDuration, e.getEndTime().getTime() - e.getStartTime().getTime());
+        if (!e.getEndTime().after(e.getStartTime())) irregular++;
+        markSlots(e.getStartTime().getTime(), e.getEndTime().getTime());
+    }
+
+    // maxDuration is not lowered on removal; a larger bound only widens the scanned range
+    private void unindex(Event e) {
+        if (e == null || e.getStartTime() == null || e.getEndTime() == null) return;
+        Long key = e.getStartTime().getTime();
+        List<Event> sameStart = byStart.get(key);
+        if (sameStart == null) return;
+        if (!sameStart.remove(e)) return;
+        if (sameStart.isEmpty()) byStart.remove(key);
+        if (!e.getEndTime().after(e.getStartTime())) irregular--;
+        rebuildSlots(e.getStartTime().getTime(), e.getEndTime().getTime());
+    }
+
+    // --- Occupancy bitmaps ---
+
+    /**
+     * Bits of the slots of the given day touched by [start, end).
+     */
+    private static long slotMask(long day, long start, long end) {
+        long dayStart = day * DAY_MILLIS;
+        int first = (int) ((Math.max(start, dayStart) - dayStart) / SLOT_MILLIS);
+        int last = (int) ((Math.min(end, dayStart + DAY_MILLIS) - 1 - dayStart) / SLOT_MILLIS);
+        long mask = (last == 63) ? -1L : (1L << (last + 1)) - 1;
+        return mask & ~((1L << first) - 1);
+    }
+
+    private boolean slotsFree(long start, long end) {
+        for (long day = Math.floorDiv(start, DAY_MILLIS); day <= Math.floorDiv(end - 1, DAY_MILLIS); day++) {
+            Long bits = occupancy.get(day);
+            if (bits != null && (bits & slotMask(day, start, end)) != 0) return false;
+        }
+        return true;
+    }
+
+    private void markSlots(long start, long end) {
+        if (end <= start) return;
+        for (long day = Math.floorDiv(start, DAY_MILLIS); day <= Math.floorDiv(end - 1, DAY_MILLIS); day++) {
+            occupancy.merge(day, slotMask(day, start, end), (a, b) -> a | b);
+        }
+    }
+
+    /**
+     * Recomputes the bitmaps of the days a removed booking covered from the remaining bookings.
+     */
+    private void rebuildSlots(long start, long end) {
+        if (end <= start) return;
+        for (long day = Math.floorDiv(start, DAY_MILLIS); day <= Math.floorDiv(end - 1, DAY_MILLIS); day++) {
+            long dayStart = day * DAY_MILLIS;
+            long dayEnd = dayStart + DAY_MILLIS;
+            long bits = 0;
+            for (Event other : between(new Date(dayStart), new Date(dayEnd))) {
+                bits |= slotMask(day, other.getStartTime().getTime(), other.getEndTime().getTime());
+            }
+            if (bits == 0) occupancy.remove(day); else occupancy.put(day, bits);
+        }
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        byStart = new TreeMap<>();
+        occupancy = new HashMap<>();
+        irregular = 0;
+        for (Event e : events) {
+            index(e);
+        }
+    }
+}
@@ -7,22 +7,53 @@ import java.util.List;
 
 public class Event implements Serializable {
 
+    /**
+     * Told about every change of the event, e.g. to keep indexes and views current.
+     * An event has at most one listener (the EventDatabase holding it).
+     */
+    public interface Listener {
+        /** The status changed (approve, reject, cancel, or set by loading/replay). */
+        default void statusChanged(Event event, EventStatus previous) {}
+
+        /** The start or end time changed. */
+        default void scheduleChanged(Event event, Date previousStart) {}
+
+        /** The title, description, capacity, organizer or room changed. */
+        default void detailsChanged(Event event) {}
+
+        /** A registration was added (may be called from any thread). */
+        default void registrationAdded(Event event, Registration reg) {}
+
+        /** A registration was removed (may be called from any thread). */
+        default void registrationRemoved(Event event, Registration reg) {}
+    }
+
     private String eventID;
     private String title;
     private String description;
     private Date startTime;
     private Date endTime;
     private int capacity;
-    private String status;
+    private EventStatus status;
+
+    // Number of committed changes, used to detect concurrent edits from other app instances
+    private int version;
+
+    // When the event last changed inside a database (ms, 0 = not since it was stored; see DataExporter)
+    private long lastModified;
 
     private EventOrganizer organizer;
     private Room room;
-    private List<Registration> registrations;
+    private RegistrationList registrations;
     private List<Notification> notifications;
+    private Waitlist waitlist;
+
+    private transient Listener listener;
 
     public Event() {
-        this.registrations = new ArrayList<>();
+        this.registrations = new RegistrationList(this);
         this.notifications = new ArrayList<>();
+        this.waitlist = new Waitlist();
     }
 
     public Event(String eventID, String title, String description, Date startTime, Date endTime, int capacity, EventOrganizer organizer, Room room) {
@@ -34,59 +65,247 @@ public class Event implements Serializable {
         this.capacity = capacity;
         this.organizer = organizer;
         this.room = room;
-        this.status = "Active";
-        this.registrations = new ArrayList<>();
+        this.status = EventStatus.ACTIVE;
+        this.registrations = new RegistrationList(this);
         this.notifications = new ArrayList<>();
+        this.waitlist = new Waitlist();
     }
 
     public boolean isFull() {
-        return this.registrations.size() >= this.capacity;
+        return this.registrations.getSeatsTaken() >= this.capacity;
     }
 
-    public void addRegistration(Registration reg) {
-        if (!isFull()) {
-            this.registrations.add(reg);
-        }
+    /**
+     * Gives the registration a seat. Returns the registration that holds the student's seat
+     * (an existing one if the student is already registered), or null if the event is full.
+     */
+    public Registration addRegistration(Registration reg) {
+        return this.registrations.register(reg, this.capacity);
     }
 
     public void removeRegistration(Registration reg) {
         this.registrations.remove(reg);
     }
 
-    public void cancel() {
-        this.status = "Cancelled";
+    /**
+     * Claims a seat for the student without locking (see RegistrationList). Idempotent:
+     * returns the student's existing registration if there is one, or null if the event is full.
+     */
+    public Registration register(Student student) {
+        return this.registrations.register(new Registration(student, this), this.capacity);
+    }
+
+    /**
+     * Releases the student's seat. Returns the cancelled registration, or null if there was none.
+     */
+    public Registration cancelRegistration(Student student) {
+        return this.registrations.cancel(student);
+    }
+
+    /**
+     * Gives a free seat to the student at the head of the waitlist and notifies them.
+     * Returns the new registration, or null if nobody is waiting or no seat is free.
+     */
+    public Registration promoteFromWaitlist() {
+        Student next;
+        while ((next = this.waitlist.poll()) != null) {
+            Registration reg = this.registrations.register(new Registration(next, this), this.capacity);
+            if (reg == null) {
+                // The seat was taken in the meantime; the student keeps the first place in line
+                this.waitlist.restore(next);
+                return null;
+            }
+            if (next.getRegistrations().contains(reg)) {
+                continue; // already registered directly, try the next student
+            }
+            next.addRegistration(reg);
+
+            Notification note = new Notification(IdService.nextId("N"),
+                    "A seat opened up: you are now registered for '" + this.title + "'.", this, next.getUserID());
+            this.notifications.add(note);
+            note.send();
+            return reg;
+        }
+        return null;
+    }
+
+    /**
+     * Takes back a promotion that could not be saved: the student loses the seat and the
+     * notification and goes back to the head of the waitlist. Safe to call more than once.
+     */
+    public void undoPromotion(Registration promoted) {
+        Student student = promoted.getStudent();
+        this.registrations.remove(promoted);
+        student.removeRegistration(promoted);
+        Notification note = getLastNotificationFor(student);
+        if (note != null) this.notifications.remove(note);
+        this.waitlist.restore(student);
+    }
+
+    /**
+     * Moves the event to a new time. A booked room stays booked if it is free at the new
+     * time; otherwise nothing changes and false is returned.
+     */
+    public boolean reschedule(Date newStart, Date newEnd) {
+        boolean booked = this.room != null && this.room.getBookings().contains(this);
+        if (booked) {
+            this.room.releaseBooking(this);
+            if (!this.room.isAvailable(newStart, newEnd)) {
+                this.room.getBookings().add(this);
+                System.out.println("!!! Room " + this.room.getName() + " is not free for the new time of '" + this.title + "'");
+                return false;
+            }
+        }
+        Date previousStart = this.startTime;
+        this.startTime = newStart;
+        this.endTime = newEnd;
+        fireScheduleChanged(previousStart);
+        if (booked) {
+            this.room.getBookings().add(this);
+        }
+        return true;
+    }
+
+    // --- Status transitions ---
+
+    /**
+     * Pending -> Active. Returns false if the event is not pending.
+     */
+    public boolean approve() { return transitionTo(EventStatus.ACTIVE); }
+
+    /**
+     * Pending -> Rejected. Returns false if the event is not pending.
+     */
+    public boolean reject() { return transitionTo(EventStatus.REJECTED); }
+
+    /**
+     * Pending or Active -> Cancelled. Returns false if the event is already rejected or cancelled.
+     */
+    public boolean cancel() { return transitionTo(EventStatus.CANCELLED); }
+
+    private boolean transitionTo(EventStatus next) {
+        if (this.status != null && !this.status.canTransitionTo(next)) {
+            System.out.println("!!! Event '" + this.title + "' cannot go from " + this.status + " to " + next);
+            return false;
+        }
+        setEventStatus(next);
+        return true;
+    }
+
+    /**
+     * The most recent notification addressed personally to the user, or null.
+     */
+    public Notification getLastNotificationFor(User user) {
+        for (int i = this.notifications.size() - 1; i >= 0; i--) {
+            Notification note = this.notifications.get(i);
+            if (note.getRecipientID() != null && note.isFor(user)) return note;
+        }
+        return null;
     }
 
     public String getEventID() { return eventID; }
     public void setEventID(String eventID) { this.eventID = eventID; }
 
     public String getTitle() { return title; }
-    public void setTitle(String title) { this.title = title; }
+    public void setTitle(String title) {
+        this.title = title;
+        fireDetailsChanged();
+    }
 
     public String getDescription() { return description; }
-    public void setDescription(String description) { this.description = description; }
+    public void setDescription(String description) {
+        this.description = description;
+        fireDetailsChanged();
+    }
 
     public Date getStartTime() { return this.startTime; }
-    public void setStartTime(Date startTime) { this.startTime = startTime; }
+    public void setStartTime(Date startTime) {
+        Date previous = this.startTime;
+        this.startTime = startTime;
+        fireScheduleChanged(previous);
+    }
 
     public Date getEndTime() { return this.endTime; }
-    public void setEndTime(Date endTime) { this.endTime = endTime; }
+    public void setEndTime(Date endTime) {
+        this.endTime = endTime;
+        fireScheduleChanged(this.startTime);
+    }
+
+    private void fireScheduleChanged(Date previousStart) {
+        Listener l = this.listener;
+        if (l != null) l.scheduleChanged(this, previousStart);
+    }
 
     public int getCapacity() { return capacity; }
-    public void setCapacity(int capacity) { this.capacity = capacity; }
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
+        fireDetailsChanged();
+    }
+
+    /**
+     * The status label ("Active", "Pending", ...), as stored in snapshots and the journal.
+     */
+    public String getStatus() { return (status != null) ? status.getLabel() : null; }
+    public void setStatus(String status) { setEventStatus(EventStatus.fromLabel(status)); }
 
-    public String getStatus() { return status; }
-    public void setStatus(String status) { this.status = status; }
+    public EventStatus getEventStatus() { return status; }
+
+    /**
+     * Sets the status without checking the transition (loading, journal replay).
+     */
+    public void setEventStatus(EventStatus status) {
+        EventStatus previous = this.status;
+        this.status = status;
+        Listener l = this.listener;
+        if (l != null && previous != status) l.statusChanged(this, previous);
+    }
+
+    public void setListener(Listener listener) { this.listener = listener; }
+
+    public int getVersion() { return version; }
+    public void setVersion(int version) { this.version = version; }
+
+    public long getLastModified() { return lastModified; }
+    public void setLastModified(long lastModified) { this.lastModified = lastModified; }
 
     public EventOrganizer getOrganizer() { return organizer; }
-    public void setOrganizer(EventOrganizer organizer) { this.organizer = organizer; }
+    public void setOrganizer(EventOrganizer organizer) {
+        this.organizer = organizer;
+        fireDetailsChanged();
+    }
 
     public Room getRoom() { return room; }
-    public void setRoom(Room room) { this.room = room; }
+    public void setRoom(Room room) {
+        this.room = room;
+        fireDetailsChanged();
+    }
+
+    private void fireDetailsChanged() {
+        Listener l = this.listener;
+        if (l != null) l.detailsChanged(this);
+    }
+
+    // Called by RegistrationList for every change of the registrations
+    void fireRegistrationAdded(Registration reg) {
+        Listener l = this.listener;
+        if (l != null) l.registrationAdded(this, reg);
+    }
+
+    void fireRegistrationRemoved(Registration reg) {
+        Listener l = this.listener;
+        if (l != null) l.registrationRemoved(this, reg);
+    }
 
     public List<Registration> getRegistrations() { return registrations; }
-    public void setRegistrations(List<Registration> registrations) { this.registrations = registrations; }
+    public void setRegistrations(List<Registration> registrations) {
+        RegistrationList list = new RegistrationList(registrations);
+        list.setOwner(this);
+        this.registrations = list;
+    }
 
     public List<Notification> getNotifications() { return notifications; }
     public void setNotifications(List<Notification> notifications) { this.notifications = notifications; }
+
+    public Waitlist getWaitlist() { return waitlist; }
+    public void setWaitlist(Waitlist waitlist) { this.waitlist = waitlist; }
 }
\ No newline at end of file
@@ -30,7 +30,7 @@ public class EventOrganizer extends User implements Serializable {
             System.out.println("Event creation failed: Room '" + room.getName() + "' is not available.");
             return null;
         }
-        Event newEvent = new Event("E" + System.currentTimeMillis(), title, description, startTime, endTime, capacity, this, room);
+        Event newEvent = new Event(IdService.nextId("E"), title, description, startTime, endTime, capacity, this, room);
         room.bookRoom(newEvent);
         this.createdEvents.add(newEvent);
         System.out.println(this.getName() + " created event: " + title);
@@ -41,15 +41,15 @@ public class EventOrganizer extends User implements Serializable {
      * Cancels an event and notifies all registered students.
      */
     public void cancelEvent(Event event) {
-        event.cancel();
-        event.getRoom().releaseBooking(event);
+        if (!event.cancel()) return;
+        if (event.getRoom() != null) event.getRoom().releaseBooking(event);
         System.out.println(this.getName() + " cancelled event: " + event.getTitle());
 
         // --- NEW NOTIFICATION LOGIC ---
         String message = "Event '" + event.getTitle() + "' has been CANCELLED by the organizer.";
 
         // Create a general notification attached to the event
-        Notification note = new Notification("N" + System.currentTimeMillis(), message, event);
+        Notification note = new Notification(IdService.nextId("N"), message, event);
         note.send(); // This prints to console for now
 
 
@@ -0,0 +1,56 @@
+package com.eventsystem.model;
+
+/**
+ * Lifecycle states of an Event.
+ *
+ * Student-created events start PENDING and are approved (ACTIVE) or rejected by an organizer;
+ * pending and active events can be cancelled. REJECTED and CANCELLED are final.
+ * The label is the text stored in snapshots and the journal.
+ */
+public enum EventStatus {
+
+    ACTIVE("Active"),
+    PENDING("Pending"),
+    CANCELLED("Cancelled"),
+    REJECTED("Rejected");
+
+    private final String label;
+
+    EventStatus(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() { return label; }
+
+    /**
+     * True if an event in this state may move to the given state.
+     */
+    public boolean canTransitionTo(EventStatus next) {
+        switch (this) {
+            case PENDING: return next == ACTIVE || next == REJECTED || next == CANCELLED;
+            case ACTIVE: return next == CANCELLED;
+            default: return false;
+        }
+    }
+
+    /**
+     * Events in this state keep their room booked.
+     */
+    public boolean holdsRoom() {
+        return this == ACTIVE || this == PENDING;
+    }
+
+    /**
+     * The status with this label, or null for a null label.
+     */
+    public static EventStatus fromLabel(String label) {
+        if (label == null) return null;
+        for (EventStatus status : values()) {
+            if (status.label.equals(label)) return status;
+        }
+        throw new IllegalArgumentException("Unknown event status: " + label);
+    }
+
+    @Override
+    public String toString() { return label; }
+}
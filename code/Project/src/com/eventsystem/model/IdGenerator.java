@@ -0,0 +1,12 @@
+package com.eventsystem.model;
+
+/**
+ * Source of unique IDs for new entities. Implementations must be thread-safe.
+ */
+public interface IdGenerator {
+
+    /**
+     * Returns a new ID, unique for the generator's node and increasing over time.
+     */
+    long nextId();
+}
@@ -0,0 +1,30 @@
+package com.eventsystem.model;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Hands out the IDs of new events, registrations, notifications, rooms and reports.
+ *
+ * IDs are the entity's prefix followed by a number from the installed IdGenerator, e.g.
+ * "E" + nextId(). By default a SnowflakeIdGenerator with a random node number is used;
+ * the storage service replaces it with one whose node number is reserved in the shared
+ * store, so several app instances never hand out the same ID.
+ */
+public final class IdService {
+
+    private static volatile IdGenerator generator =
+            new SnowflakeIdGenerator(ThreadLocalRandom.current().nextInt(SnowflakeIdGenerator.MAX_NODE + 1));
+
+    private IdService() {
+    }
+
+    /**
+     * A new ID with the given prefix. Safe to call from any number of threads at once.
+     */
+    public static String nextId(String prefix) {
+        return prefix + generator.nextId();
+    }
+
+    public static IdGenerator getGenerator() { return generator; }
+    public static void setGenerator(IdGenerator generator) { IdService.generator = generator; }
+}
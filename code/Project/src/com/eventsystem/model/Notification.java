@@ -11,6 +11,9 @@ public class Notification implements Serializable {
     private String message;
     private Event event;
 
+    // userID of the student this notification is for (null = everyone registered for the event)
+    private String recipientID;
+
     /**
      * Public no-arg constructor (REQUIRED for XMLDecoder)
      */
@@ -23,6 +26,18 @@ public class Notification implements Serializable {
         this.event = event;
     }
 
+    public Notification(String notificationID, String message, Event event, String recipientID) {
+        this(notificationID, message, event);
+        this.recipientID = recipientID;
+    }
+
+    /**
+     * True if this notification is addressed to the given user (or to everyone).
+     */
+    public boolean isFor(User user) {
+        return recipientID == null || (user != null && recipientID.equals(user.getUserID()));
+    }
+
     public void send() {
         System.out.println("--- NOTIFICATION ---");
         System.out.println("For Event: " + event.getTitle());
@@ -40,4 +55,7 @@ public class Notification implements Serializable {
 
     public Event getEvent() { return event; }
     public void setEvent(Event event) { this.event = event; }
+
+    public String getRecipientID() { return recipientID; }
+    public void setRecipientID(String recipientID) { this.recipientID = recipientID; }
 }
\ No newline at end of file
@@ -20,7 +20,7 @@ public class Registration implements Serializable {
     }
 
     public Registration(Student student, Event event) {
-        this.registrationID = "R-" + System.currentTimeMillis();
+        this.registrationID = IdService.nextId("R-");
         this.timestamp = new Date();
         this.student = student;
         this.event = event;
@@ -0,0 +1,189 @@
+package com.eventsystem.model;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.RandomAccess;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+/**
+ * The registrations of an Event, usable as a normal list, plus a lock-free seat allocator.
+ *
+ * Seats are claimed with a compare-and-set on an atomic counter, so concurrent registrations
+ * for the same event never take more seats than the capacity, and registrations for different
+ * events never contend. A concurrent map of student -> registration makes register/cancel
+ * idempotent: registering twice returns the existing registration, cancelling twice is a no-op.
+ *
+ * Plain add/remove (storage loaders, journal replay) bypass the capacity check but keep the
+ * counter and the map in sync, like BookingList does for its index. Every change is reported
+ * to the owning Event's listener.
+ */
+public class RegistrationList extends AbstractList<Registration> implements RandomAccess, Serializable {
+
+    private final CopyOnWriteArrayList<Registration> registrations = new CopyOnWriteArrayList<>();
+
+    // --- Seat allocation (rebuilt after deserialization) ---
+    private transient AtomicInteger seatsTaken = new AtomicInteger();
+    private transient ConcurrentHashMap<Student, Registration> byStudent = new ConcurrentHashMap<>();
+
+    // The event whose listener is told about changes (null while the list is being built)
+    private transient Event owner;
+
+    /**
+     * Public no-arg constructor (REQUIRED for XMLEncoder)
+     */
+    public RegistrationList() {
+    }
+
+    public RegistrationList(Collection<Registration> registrations) {
+        for (Registration reg : registrations) {
+            add(reg);
+        }
+    }
+
+    RegistrationList(Event owner) {
+        this.owner = owner;
+    }
+
+    void setOwner(Event owner) { this.owner = owner; }
+
+    // --- List implementation ---
+
+    @Override
+    public Registration get(int index) { return registrations.get(index); }
+
+    @Override
+    public int size() { return registrations.size(); }
+
+    @Override
+    public void add(int index, Registration reg) {
+        registrations.add(index, reg);
+        seatsTaken.incrementAndGet();
+        if (reg != null && reg.getStudent() != null) byStudent.putIfAbsent(reg.getStudent(), reg);
+        modCount++;
+        fireAdded(reg);
+    }
+
+    @Override
+    public Registration remove(int index) {
+        Registration removed = registrations.remove(index);
+        release(removed);
+        modCount++;
+        return removed;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        if (!registrations.remove(o)) return false;
+        release((Registration) o);
+        modCount++;
+        return true;
+    }
+
+    @Override
+    public boolean removeIf(Predicate<? super Registration> filter) {
+        boolean changed = false;
+        for (Registration reg : registrations) {
+            if (filter.test(reg) && remove(reg)) changed = true;
+        }
+        return changed;
+    }
+
+    @Override
+    public Registration set(int index, Registration reg) {
+        Registration previous = registrations.set(index, reg);
+        if (previous != null && previous.getStudent() != null) byStudent.remove(previous.getStudent(), previous);
+        if (reg != null && reg.getStudent() != null) byStudent.putIfAbsent(reg.getStudent(), reg);
+        fireRemoved(previous);
+        fireAdded(reg);
+        return previous;
+    }
+
+    // --- Seat allocation ---
+
+    /**
+     * Claims a seat for the registration's student. Returns the registration that holds the
+     * seat (the existing one if the student is already registered), or null if no seat is left.
+     * Safe to call from any number of threads at once.
+     */
+    public Registration register(Registration reg, int capacity) {
+        Student student = reg.getStudent();
+        Registration existing = byStudent.get(student);
+        if (existing != null) return existing;
+
+        int taken;
+        do {
+            taken = seatsTaken.get();
+            if (taken >= capacity) return null;
+        } while (!seatsTaken.compareAndSet(taken, taken + 1));
+
+        existing = byStudent.putIfAbsent(student, reg);
+        if (existing != null) {
+            // The same student won the race on another thread; give the seat back
+            seatsTaken.decrementAndGet();
+            return existing;
+        }
+        registrations.add(reg);
+        // A cancel that ran before the add could not remove it from the list; finish it here
+        if (byStudent.get(student) != reg && registrations.remove(reg)) {
+            seatsTaken.decrementAndGet();
+        } else {
+            fireAdded(reg);
+        }
+        return reg;
+    }
+
+    /**
+     * Releases the student's seat. Returns the cancelled registration, or null if the
+     * student was not registered (so cancelling twice does nothing).
+     */
+    public Registration cancel(Student student) {
+        Registration reg = byStudent.get(student);
+        if (reg == null || !byStudent.remove(student, reg)) return null;
+        if (registrations.remove(reg)) {
+            seatsTaken.decrementAndGet();
+            fireRemoved(reg);
+        }
+        return reg;
+    }
+
+    /**
+     * The number of seats currently claimed. Can run ahead of size() while a registration
+     * is being added on another thread.
+     */
+    public int getSeatsTaken() { return seatsTaken.get(); }
+
+    public Registration findByStudent(Student student) {
+        return (student == null) ? null : byStudent.get(student);
+    }
+
+    private void release(Registration reg) {
+        seatsTaken.decrementAndGet();
+        if (reg != null && reg.getStudent() != null) byStudent.remove(reg.getStudent(), reg);
+        fireRemoved(reg);
+    }
+
+    private void fireAdded(Registration reg) {
+        Event e = owner;
+        if (e != null && reg != null) e.fireRegistrationAdded(reg);
+    }
+
+    private void fireRemoved(Registration reg) {
+        Event e = owner;
+        if (e != null && reg != null) e.fireRegistrationRemoved(reg);
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        seatsTaken = new AtomicInteger(registrations.size());
+        byStudent = new ConcurrentHashMap<>();
+        for (Registration reg : registrations) {
+            if (reg != null && reg.getStudent() != null) byStudent.putIfAbsent(reg.getStudent(), reg);
+        }
+    }
+}
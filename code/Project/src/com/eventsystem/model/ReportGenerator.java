@@ -0,0 +1,15 @@
+package com.eventsystem.model;
+
+import java.util.List;
+
+/**
+ * Source of the campus-wide reports an Administrator generates. Implementations may cache
+ * the reports and must be safe to call from a background thread.
+ */
+public interface ReportGenerator {
+
+    /**
+     * Returns reports over the current data.
+     */
+    List<Report> generate();
+}
@@ -1,7 +1,6 @@
 package com.eventsystem.model;
 
 import java.io.Serializable;
-import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 
@@ -11,10 +10,10 @@ public class Room implements Serializable {
     private String name;
     private String location;
     private int capacity;
-    private List<Event> bookings;
+    private BookingList bookings;
 
     public Room() {
-        this.bookings = new ArrayList<>();
+        this.bookings = new BookingList();
     }
 
     public Room(String roomID, String name, String location, int capacity) {
@@ -22,16 +21,22 @@ public class Room implements Serializable {
         this.name = name;
         this.location = location;
         this.capacity = capacity;
-        this.bookings = new ArrayList<>();
+        this.bookings = new BookingList();
     }
 
+    /**
+     * True if no booking overlaps [newStart, newEnd). Uses the occupancy bitmaps and
+     * interval index of BookingList instead of scanning the bookings.
+     */
     public boolean isAvailable(Date newStart, Date newEnd) {
-        for (Event existingBooking : bookings) {
-            if (newStart.before(existingBooking.getEndTime()) && newEnd.after(existingBooking.getStartTime())) {
-                return false;
-            }
-        }
-        return true;
+        return bookings.isFree(newStart, newEnd);
+    }
+
+    /**
+     * All bookings overlapping [start, end), ordered by start time.
+     */
+    public List<Event> getBookingsBetween(Date start, Date end) {
+        return bookings.between(start, end);
     }
 
     public void bookRoom(Event event) {
@@ -57,5 +62,5 @@ public class Room implements Serializable {
     public void setCapacity(int capacity) { this.capacity = capacity; }
 
     public List<Event> getBookings() { return bookings; }
-    public void setBookings(List<Event> bookings) { this.bookings = bookings; }
+    public void setBookings(List<Event> bookings) { this.bookings = new BookingList(bookings); }
 }
\ No newline at end of file
@@ -0,0 +1,51 @@
+package com.eventsystem.model;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Snowflake-style ID generator: 41 bits of milliseconds since 2024-01-01, 10 bits of node
+ * number and 12 bits of sequence within the millisecond.
+ *
+ * IDs of one generator strictly increase, and IDs of generators with different node numbers
+ * never collide, so each app instance sharing a data store needs its own node number (see
+ * DataStorageService.setShared). The state is a single atomic long (time and sequence), so
+ * nextId() never blocks: when the 4096 IDs of a millisecond are used up, or the clock goes
+ * backwards, the generator simply continues in the next millisecond and lets the clock catch up.
+ */
+public class SnowflakeIdGenerator implements IdGenerator {
+
+    public static final long EPOCH = 1704067200000L; // 2024-01-01T00:00:00Z
+
+    public static final int NODE_BITS = 10;
+    public static final int SEQUENCE_BITS = 12;
+    public static final int MAX_NODE = (1 << NODE_BITS) - 1;
+
+    private final long node;
+
+    // (milliseconds since EPOCH << SEQUENCE_BITS) | sequence of the last issued ID
+    private final AtomicLong last = new AtomicLong();
+
+    public SnowflakeIdGenerator(int node) {
+        if (node < 0 || node > MAX_NODE) {
+            throw new IllegalArgumentException("Node number must be between 0 and " + MAX_NODE + ": " + node);
+        }
+        this.node = node;
+    }
+
+    @Override
+    public long nextId() {
+        long now = (System.currentTimeMillis() - EPOCH) << SEQUENCE_BITS;
+        long prev;
+        long next;
+        do {
+            prev = last.get();
+            next = Math.max(prev + 1, now);
+        } while (!last.compareAndSet(prev, next));
+
+        long millis = next >>> SEQUENCE_BITS;
+        long sequence = next & ((1L << SEQUENCE_BITS) - 1);
+        return (millis << (NODE_BITS + SEQUENCE_BITS)) | (node << SEQUENCE_BITS) | sequence;
+    }
+
+    public int getNode() { return (int) node; }
+}
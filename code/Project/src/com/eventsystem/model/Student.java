@@ -27,29 +27,87 @@ public class Student extends User implements Serializable {
         this.registrations = new ArrayList<>();
     }
 
+    /**
+     * Registers for the event if it is active and a seat is left. The seat is claimed
+     * atomically, so concurrent registrations never overbook the event. Registering
+     * again returns the existing registration.
+     */
     public Registration registerForEvent(Event event) {
-        if (event.isFull()) {
-            System.out.println("Registration failed: Event '" + event.getTitle() + "' is full.");
-            return null;
-        }
         // Check if event is active before registering
-        if (!event.getStatus().equals("Active")) {
+        if (event.getEventStatus() != EventStatus.ACTIVE) {
             System.out.println("Registration failed: Event is not active.");
             return null;
         }
 
-        Registration newReg = new Registration(this, event);
-        this.registrations.add(newReg);
-        event.addRegistration(newReg);
+        Registration newReg = event.register(this);
+        if (newReg == null) {
+            System.out.println("Registration failed: Event '" + event.getTitle() + "' is full.");
+            return null;
+        }
+        addRegistration(newReg);
+        event.getWaitlist().leave(this);
         System.out.println(this.getName() + " successfully registered for " + event.getTitle());
         return newReg;
     }
 
-    public void cancelRegistration(Registration reg) {
-        if (reg == null) return;
-        this.registrations.remove(reg);
+    /**
+     * Joins the waitlist of a full event. Returns the position in line (1 = next).
+     */
+    public int joinWaitlist(Event event) {
+        int position = event.getWaitlist().join(this);
+        System.out.println(this.getName() + " is #" + position + " on the waitlist for " + event.getTitle());
+        return position;
+    }
+
+    /**
+     * Cancels the registration. The freed seat goes to the next student on the event's
+     * waitlist; that student's new registration is returned (null if nobody was promoted).
+     */
+    public Registration cancelRegistration(Registration reg) {
+        if (reg == null) return null;
+        synchronized (this.registrations) {
+            this.registrations.remove(reg);
+        }
         reg.getEvent().removeRegistration(reg);
         System.out.println(this.getName() + " cancelled registration for " + reg.getEvent().getTitle());
+        return reg.getEvent().promoteFromWaitlist();
+    }
+
+    /**
+     * Undoes cancelRegistration when the cancellation could not be saved: the promoted
+     * student (if any) loses the seat again and goes back to the head of the waitlist,
+     * and the seat returns to this student. Returns false if the seat was taken in the
+     * meantime and could not be returned.
+     */
+    public boolean restoreRegistration(Registration reg, Registration promoted) {
+        if (promoted != null) {
+            reg.getEvent().undoPromotion(promoted);
+        }
+        Registration held = reg.getEvent().addRegistration(reg);
+        if (held == null) {
+            System.out.println("!!! Seat of " + this.getName() + " for " + reg.getEvent().getTitle() + " could not be restored: event is full");
+            return false;
+        }
+        addRegistration(held);
+        return true;
+    }
+
+    /**
+     * Adds a registration to this student's list unless it is already there.
+     */
+    void addRegistration(Registration reg) {
+        synchronized (this.registrations) {
+            if (!this.registrations.contains(reg)) this.registrations.add(reg);
+        }
+    }
+
+    /**
+     * Removes a registration from this student's list.
+     */
+    void removeRegistration(Registration reg) {
+        synchronized (this.registrations) {
+            this.registrations.remove(reg);
+        }
     }
 
     /**
@@ -64,8 +122,8 @@ public class Student extends User implements Serializable {
         // Note: We pass 'null' for the organizer because this is a student-created event
         // In a real app, we might want to make 'User' hold the relationship instead of 'EventOrganizer'
         // or create a new constructor. For now, this works.
-        Event newEvent = new Event("E" + System.currentTimeMillis(), title, description, startTime, endTime, capacity, null, room);
-        newEvent.setStatus("Pending"); // Default status for student events is Pending
+        Event newEvent = new Event(IdService.nextId("E"), title, description, startTime, endTime, capacity, null, room);
+        newEvent.setEventStatus(EventStatus.PENDING); // Default status for student events is Pending
 
         room.bookRoom(newEvent);
 
@@ -0,0 +1,144 @@
+package com.eventsystem.model;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * FIFO waitlist of an Event, backed by a concurrent deque.
+ *
+ * Every student who joins gets a ticket number; the position in line is the ticket minus
+ * the ticket at the head of the line, minus the students ahead who have left the line early.
+ * Querying it is O(k) in the number of those early leavers (O(1) while nobody has left out
+ * of turn), not in the length of the line. Reads never block. Changes take the
+ * waitlist's own monitor, so tickets and queue order always agree; different events never
+ * contend. Only the order of the students is persisted, tickets are rebuilt on load.
+ */
+public class Waitlist implements Serializable {
+
+    private final ConcurrentLinkedDeque<Student> queue = new ConcurrentLinkedDeque<>();
+
+    // --- Positions (rebuilt after deserialization) ---
+    private transient ConcurrentHashMap<Student, Long> tickets = new ConcurrentHashMap<>();
+    private transient ConcurrentSkipListSet<Long> left = new ConcurrentSkipListSet<>();
+    private transient long nextTicket;
+    private transient volatile long headTicket;
+
+    public Waitlist() {
+    }
+
+    /**
+     * Adds the student to the end of the line. Returns the student's position (1 = next);
+     * joining again keeps the current place.
+     */
+    public synchronized int join(Student student) {
+        if (!tickets.containsKey(student)) {
+            tickets.put(student, nextTicket++);
+            queue.addLast(student);
+        }
+        return positionOf(student);
+    }
+
+    /**
+     * Removes the student from the line. Returns false if the student was not waiting.
+     */
+    public synchronized boolean leave(Student student) {
+        Long ticket = tickets.remove(student);
+        if (ticket == null) return false;
+        queue.remove(student);
+        if (ticket == headTicket) {
+            advanceHead();
+        } else {
+            left.add(ticket);
+        }
+        return true;
+    }
+
+    /**
+     * Takes the student at the head of the line, or null if nobody is waiting.
+     */
+    public synchronized Student poll() {
+        Student next = queue.pollFirst();
+        if (next == null) return null;
+        tickets.remove(next);
+        advanceHead();
+        return next;
+    }
+
+    /**
+     * Puts a student taken with poll() back at the head of the line (e.g. the freed seat was
+     * taken by someone else before the promotion went through).
+     */
+    public synchronized void restore(Student student) {
+        if (tickets.containsKey(student)) return;
+        headTicket--;
+        tickets.put(student, headTicket);
+        queue.addFirst(student);
+    }
+
+    /**
+     * Puts a student who left the line back at the given position (e.g. the registration that
+     * replaced the student's place in line could not be saved). Renumbers the line, so O(n).
+     */
+    public synchronized void rejoin(Student student, int position) {
+        if (tickets.containsKey(student)) return;
+        List<Student> order = new ArrayList<>(queue);
+        order.add(Math.max(0, Math.min(position - 1, order.size())), student);
+        queue.clear();
+        queue.addAll(order);
+        tickets.clear();
+        left.clear();
+        nextTicket = 0;
+        for (Student s : order) {
+            tickets.put(s, nextTicket++);
+        }
+        headTicket = 0;
+    }
+
+    /**
+     * 1-based position in line, or 0 if the student is not waiting. O(k) in the number of
+     * students ahead who left the line early.
+     */
+    public int positionOf(Student student) {
+        Long ticket = tickets.get(student);
+        if (ticket == null) return 0;
+        long ahead = ticket - headTicket;
+        if (!left.isEmpty()) {
+            ahead -= left.headSet(ticket).size();
+        }
+        return (int) ahead + 1;
+    }
+
+    public boolean contains(Student student) { return tickets.containsKey(student); }
+
+    public int size() { return tickets.size(); }
+
+    public boolean isEmpty() { return tickets.isEmpty(); }
+
+    /**
+     * The waiting students in order (a snapshot).
+     */
+    public List<Student> getStudents() { return new ArrayList<>(queue); }
+
+    private void advanceHead() {
+        Student head = queue.peekFirst();
+        headTicket = (head != null) ? tickets.get(head) : nextTicket;
+        // Tickets of students who left before the new head no longer count
+        left.headSet(headTicket).clear();
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        tickets = new ConcurrentHashMap<>();
+        left = new ConcurrentSkipListSet<>();
+        for (Student s : queue) {
+            tickets.put(s, nextTicket++);
+        }
+        headTicket = 0;
+    }
+}
@@ -0,0 +1,75 @@
+package com.eventsystem.programs;
+
+import com.eventsystem.storage.DataExporter;
+import com.eventsystem.storage.DataStorageService;
+import com.eventsystem.storage.EventDatabase;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+/**
+ * Console export for scheduled (e.g. nightly) runs.
+ *
+ * Usage: ExportData <directory> [--jsonl] [--gzip] [--full]
+ *
+ * Every run writes into a new timestamped folder inside the directory. Unless --full is
+ * given, only what changed since the previous run is exported; the watermark of the last
+ * successful run is kept in export.watermark in the directory.
+ *
+ * The data is read in shared mode, i.e. under the store lock, so a desk compacting the
+ * journal at the same time is never seen half-written.
+ */
+public class ExportData {
+
+    private static final String WATERMARK_FILE = "export.watermark";
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.out.println("Usage: ExportData <directory> [--jsonl] [--gzip] [--full]");
+            return;
+        }
+        Path directory = Paths.get(args[0]);
+        DataExporter.Format format = DataExporter.Format.CSV;
+        boolean compressed = false;
+        boolean full = false;
+        for (int i = 1; i < args.length; i++) {
+            switch (args[i]) {
+                case "--jsonl": format = DataExporter.Format.JSON_LINES; break;
+                case "--gzip": compressed = true; break;
+                case "--full": full = true; break;
+                default:
+                    System.out.println("!!! Unknown option: " + args[i]);
+                    return;
+            }
+        }
+
+        DataStorageService storage = new DataStorageService();
+        storage.setShared(true);
+        try {
+            EventDatabase db = storage.loadData();
+
+            Path watermarkFile = directory.resolve(WATERMARK_FILE);
+            long since = (!full && Files.exists(watermarkFile))
+                    ? Long.parseLong(new String(Files.readAllBytes(watermarkFile), StandardCharsets.UTF_8).trim())
+                    : 0;
+
+            DataExporter exporter = new DataExporter(db);
+            exporter.setFormat(format);
+            exporter.setCompressed(compressed);
+            exporter.setChangedSince(since);
+            Path target = directory.resolve(new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date()));
+            DataExporter.Result result = exporter.exportTo(target);
+
+            // Only a finished export moves the watermark on
+            Files.write(watermarkFile, String.valueOf(result.getWatermark()).getBytes(StandardCharsets.UTF_8));
+        } finally {
+            // Also releases the lease taken in shared mode
+            storage.shutdown();
+        }
+    }
+}
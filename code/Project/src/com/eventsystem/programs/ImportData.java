@@ -0,0 +1,71 @@
+package com.eventsystem.programs;
+
+import com.eventsystem.storage.DataImporter;
+import com.eventsystem.storage.DataStorageService;
+import com.eventsystem.storage.EventDatabase;
+import com.eventsystem.storage.StorageConflictException;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Console bulk import, e.g. of the students and rooms at the start of a semester.
+ *
+ * Usage: ImportData <students|rooms|events> <file.csv[.gz]> [--dry-run]
+ *
+ * See DataImporter for the columns. Valid rows are saved in one go; rejected rows are
+ * listed with their line number. With --dry-run the file is only checked.
+ *
+ * The import runs in shared mode, so it is committed under the store lock like a change
+ * made at a desk, and desks running on the same data store merge it in.
+ */
+public class ImportData {
+
+    private static final int MAX_ERRORS_SHOWN = 100;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Usage: ImportData <students|rooms|events> <file.csv[.gz]> [--dry-run]");
+            return;
+        }
+        DataImporter.Table table;
+        try {
+            table = DataImporter.Table.valueOf(args[0].toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            System.out.println("!!! Unknown table: " + args[0]);
+            return;
+        }
+        boolean dryRun = false;
+        for (int i = 2; i < args.length; i++) {
+            if (args[i].equals("--dry-run")) {
+                dryRun = true;
+            } else {
+                System.out.println("!!! Unknown option: " + args[i]);
+                return;
+            }
+        }
+
+        DataStorageService storage = new DataStorageService();
+        storage.setShared(true);
+        EventDatabase db = storage.loadData();
+
+        DataImporter importer = new DataImporter(db, storage);
+        importer.setDryRun(dryRun);
+        try {
+            DataImporter.Result result = importer.importFrom(table, Paths.get(args[1]));
+            List<DataImporter.RowError> errors = result.getErrors();
+            for (int i = 0; i < errors.size() && i < MAX_ERRORS_SHOWN; i++) {
+                System.out.println("!!! " + errors.get(i));
+            }
+            if (errors.size() > MAX_ERRORS_SHOWN) {
+                System.out.println("!!! ... and " + (errors.size() - MAX_ERRORS_SHOWN) + " more rejected rows");
+            }
+        } catch (StorageConflictException e) {
+            System.out.println("!!! Import not saved: " + e.getMessage());
+        } finally {
+            storage.shutdown();
+        }
+    }
+}
@@ -20,7 +20,7 @@ public class Main {
             populateInitialData(db);
             storage.saveData(db);
         } else {
-            System.out.println("Loaded data from event_data.xml");
+            System.out.println("Loaded data from " + storage.getFormat().getFilename());
         }
     }
 
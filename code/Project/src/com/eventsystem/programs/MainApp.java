@@ -1,17 +1,21 @@
 package com.eventsystem.programs;
 
+import com.eventsystem.controller.TaskService;
+import com.eventsystem.storage.DataStorageService;
 import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
 
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
 import java.net.URL;
 
 public class MainApp extends Application {
 
     @Override
     public void start(Stage primaryStage) throws IOException {
+        long startNanos = System.nanoTime();
         URL fxmlUrl = getClass().getResource("/com/eventsystem/view/login-view.fxml");
 
         if (fxmlUrl == null) {
@@ -25,9 +29,35 @@ public class MainApp extends Application {
         primaryStage.setTitle("Campus Event System - Login");
         primaryStage.setScene(scene);
         primaryStage.setResizable(false);
+        reportFirstFrame(scene, startNanos);
         primaryStage.show();
     }
 
+    /**
+     * Prints the time to the first pulse of the login scene, measured from JVM start and from start().
+     * The data is still loading in the background at this point (see StartupPipeline).
+     */
+    private static void reportFirstFrame(Scene scene, long startNanos) {
+        scene.addPostLayoutPulseListener(new Runnable() {
+            @Override
+            public void run() {
+                scene.removePostLayoutPulseListener(this);
+                System.out.println("--- First frame after " + ManagementFactory.getRuntimeMXBean().getUptime()
+                        + " ms (JVM start), " + (System.nanoTime() - startNanos) / 1_000_000 + " ms (start()) ---");
+            }
+        });
+    }
+
+    /**
+     * Called by JavaFX when the last window closes. Makes sure queued writes reach disk
+     * and prints the background task metrics.
+     */
+    @Override
+    public void stop() {
+        TaskService.getInstance().shutdown();
+        DataStorageService.getInstance().shutdown();
+    }
+
     public static void main(String[] args) {
         launch(args);
     }
@@ -0,0 +1,94 @@
+package com.eventsystem.programs;
+
+import com.eventsystem.storage.DataStorageService;
+import com.eventsystem.storage.EventDatabase;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Loads the database in the background so the login window can be shown immediately.
+ *
+ * The stages run on a daemon thread in order: load the snapshot (and replay the journal),
+ * seed the initial data if the database is empty, then build the event summaries used by
+ * the dashboards. Each stage is reported to the ProgressListener together with its timing.
+ */
+public class StartupPipeline {
+
+    /**
+     * Receives progress updates on the loader thread. progress is between 0.0 and 1.0.
+     */
+    public interface ProgressListener {
+        void onProgress(String stage, double progress);
+    }
+
+    private final DataStorageService storage;
+    private final ProgressListener listener;
+    private volatile boolean seeded;
+
+    public StartupPipeline(DataStorageService storage, ProgressListener listener) {
+        this.storage = storage;
+        this.listener = listener;
+    }
+
+    /**
+     * Starts the pipeline and returns immediately. The future completes with the loaded database.
+     */
+    public CompletableFuture<EventDatabase> start() {
+        CompletableFuture<EventDatabase> result = new CompletableFuture<>();
+        Thread loader = new Thread(() -> {
+            try {
+                result.complete(run());
+            } catch (Throwable t) {
+                System.out.println("!!! ERROR during startup: " + t.getMessage());
+                result.completeExceptionally(t);
+            }
+        }, "startup-loader");
+        loader.setDaemon(true);
+        loader.start();
+        return result;
+    }
+
+    private EventDatabase run() {
+        long pipelineStart = System.nanoTime();
+
+        // --- Stage 1: load snapshot and journal ---
+        listener.onProgress("Loading data", 0.0);
+        long stageStart = System.nanoTime();
+        EventDatabase database = storage.loadData();
+        report("Loading data", stageStart);
+
+        // --- Stage 2: seed an empty database ---
+        if (database.getAdministrators().isEmpty()) {
+            listener.onProgress("Populating initial data", 0.5);
+            stageStart = System.nanoTime();
+            System.out.println("Database is empty. Populating with initial data...");
+            Main.populateInitialData(database);
+            storage.saveData(database);
+            seeded = true;
+            report("Populating initial data", stageStart);
+        }
+
+        // --- Stage 3: build the event summaries (index only, no segments on a lazy database) ---
+        listener.onProgress("Building event index", 0.8);
+        stageStart = System.nanoTime();
+        database.getEventSummaries();
+        report("Building event index", stageStart);
+
+        listener.onProgress("Ready", 1.0);
+        System.out.println("--- Startup pipeline finished in " + millisSince(pipelineStart) + " ms ---");
+        return database;
+    }
+
+    private static void report(String stage, long stageStart) {
+        System.out.println("--- " + stage + " took " + millisSince(stageStart) + " ms ---");
+    }
+
+    private static long millisSince(long nanos) {
+        return (System.nanoTime() - nanos) / 1_000_000;
+    }
+
+    /**
+     * True if the database was empty and has been populated with the initial data.
+     */
+    public boolean wasSeeded() { return seeded; }
+}
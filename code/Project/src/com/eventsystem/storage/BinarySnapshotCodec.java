@@ -0,0 +1,262 @@
+package com.eventsystem.storage;
+
+import com.eventsystem.storage.SnapshotTables.*;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Reads and writes EventDatabase snapshots in a compact binary format.
+ *
+ * Layout: MAGIC (int), schema VERSION (short), flags (byte), then the payload,
+ * gzip-compressed when FLAG_COMPRESSED is set.
+ *
+ * The payload is the SnapshotTables written table by table: every entity appears once
+ * and links are IDs, so encoding and decoding are linear in the number of entities.
+ * Data saved as XML by earlier releases is migrated by DataStorageService.
+ */
+public class BinarySnapshotCodec {
+
+    public static final int MAGIC = 0x43455653; // "CEVS"
+    public static final short VERSION = 1;
+
+    private static final byte FLAG_COMPRESSED = 0x01;
+    private static final long NO_DATE = Long.MIN_VALUE;
+
+    private final boolean compressed;
+
+    public BinarySnapshotCodec(boolean compressed) {
+        this.compressed = compressed;
+    }
+
+    // =================================================
+    // WRITING
+    // =================================================
+
+    public void write(EventDatabase db, OutputStream rawOut) throws IOException {
+        write(SnapshotTables.fromDatabase(db), rawOut);
+    }
+
+    public void write(SnapshotTables t, OutputStream rawOut) throws IOException {
+        DataOutputStream header = new DataOutputStream(rawOut);
+        header.writeInt(MAGIC);
+        header.writeShort(VERSION);
+        header.writeByte(compressed ? FLAG_COMPRESSED : 0);
+        header.flush();
+
+        OutputStream payload = compressed ? new GZIPOutputStream(rawOut, 64 * 1024) : rawOut;
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(payload, 64 * 1024));
+
+        out.writeInt(t.getRooms().size());
+        for (RoomRecord r : t.getRooms()) {
+            writeString(out, r.getRoomID());
+            writeString(out, r.getName());
+            writeString(out, r.getLocation());
+            out.writeInt(r.getCapacity());
+            out.writeBoolean(r.isListed());
+        }
+
+        writeUsers(out, t.getAdministrators());
+        writeUsers(out, t.getOrganizers());
+        writeUsers(out, t.getStudents());
+
+        out.writeInt(t.getEvents().size());
+        for (EventRecord e : t.getEvents()) {
+            writeString(out, e.getEventID());
+            writeString(out, e.getTitle());
+            writeString(out, e.getDescription());
+            writeDate(out, e.getStartTime());
+            writeDate(out, e.getEndTime());
+            out.writeInt(e.getCapacity());
+            writeString(out, e.getStatus());
+            writeString(out, e.getOrganizerID());
+            writeString(out, e.getRoomID());
+            out.writeInt(e.getVersion());
+            out.writeLong(e.getLastModified());
+        }
+
+        out.writeInt(t.getRegistrations().size());
+        for (RegistrationRecord r : t.getRegistrations()) {
+            writeString(out, r.getRegistrationID());
+            writeDate(out, r.getTimestamp());
+            writeString(out, r.getStudentID());
+            writeString(out, r.getEventID());
+        }
+
+        out.writeInt(t.getNotifications().size());
+        for (NotificationRecord n : t.getNotifications()) {
+            writeString(out, n.getNotificationID());
+            writeString(out, n.getMessage());
+            writeString(out, n.getEventID());
+            writeString(out, n.getRecipientID());
+        }
+
+        writeLinks(out, t.getBookings());
+        writeLinks(out, t.getCreatedEvents());
+        writeLinks(out, t.getWaitlist());
+
+        out.flush();
+        if (payload instanceof GZIPOutputStream) {
+            ((GZIPOutputStream) payload).finish();
+        }
+        rawOut.flush();
+    }
+
+    private void writeUsers(DataOutputStream out, List<UserRecord> users) throws IOException {
+        out.writeInt(users.size());
+        for (UserRecord u : users) {
+            writeString(out, u.getUserID());
+            writeString(out, u.getName());
+            writeString(out, u.getEmail());
+            writeString(out, u.getPasswordHash());
+            writeString(out, u.getStudentID());
+            out.writeBoolean(u.isListed());
+        }
+    }
+
+    private void writeLinks(DataOutputStream out, List<LinkRecord> links) throws IOException {
+        out.writeInt(links.size());
+        for (LinkRecord link : links) {
+            writeString(out, link.getOwnerID());
+            writeString(out, link.getEventID());
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static void writeDate(DataOutputStream out, Date date) throws IOException {
+        out.writeLong(date != null ? date.getTime() : NO_DATE);
+    }
+
+    // =================================================
+    // READING
+    // =================================================
+
+    public EventDatabase read(InputStream rawIn) throws IOException {
+        return readTables(rawIn).toDatabase();
+    }
+
+    /**
+     * Reads a snapshot (or a single partition) as tables without building the object graph.
+     */
+    public SnapshotTables readTables(InputStream rawIn) throws IOException {
+        DataInputStream header = new DataInputStream(rawIn);
+        if (header.readInt() != MAGIC) {
+            throw new IOException("Not an event snapshot file");
+        }
+        short version = header.readShort();
+        if (version != VERSION) {
+            throw new IOException("Unsupported snapshot version " + version + " (expected " + VERSION + ")");
+        }
+        boolean isCompressed = (header.readByte() & FLAG_COMPRESSED) != 0;
+
+        InputStream payload = isCompressed ? new GZIPInputStream(rawIn, 64 * 1024) : rawIn;
+        DataInputStream in = new DataInputStream(new BufferedInputStream(payload, 64 * 1024));
+
+        return readTables(in);
+    }
+
+    private SnapshotTables readTables(DataInputStream in) throws IOException {
+        SnapshotTables t = new SnapshotTables();
+
+        int roomCount = in.readInt();
+        for (int i = 0; i < roomCount; i++) {
+            t.getRooms().add(new RoomRecord(readString(in), readString(in), readString(in), in.readInt(), in.readBoolean()));
+        }
+
+        readUsers(in, t.getAdministrators());
+        readUsers(in, t.getOrganizers());
+        readUsers(in, t.getStudents());
+
+        int eventCount = in.readInt();
+        for (int i = 0; i < eventCount; i++) {
+            EventRecord e = new EventRecord();
+            e.setEventID(readString(in));
+            e.setTitle(readString(in));
+            e.setDescription(readString(in));
+            e.setStartTime(readDate(in));
+            e.setEndTime(readDate(in));
+            e.setCapacity(in.readInt());
+            e.setStatus(readString(in));
+            e.setOrganizerID(readString(in));
+            e.setRoomID(readString(in));
+            e.setVersion(in.readInt());
+            e.setLastModified(in.readLong());
+            t.getEvents().add(e);
+        }
+
+        int regCount = in.readInt();
+        for (int i = 0; i < regCount; i++) {
+            RegistrationRecord r = new RegistrationRecord();
+            r.setRegistrationID(readString(in));
+            r.setTimestamp(readDate(in));
+            r.setStudentID(readString(in));
+            r.setEventID(readString(in));
+            t.getRegistrations().add(r);
+        }
+
+        int noteCount = in.readInt();
+        for (int i = 0; i < noteCount; i++) {
+            NotificationRecord n = new NotificationRecord(readString(in), readString(in), readString(in));
+            n.setRecipientID(readString(in));
+            t.getNotifications().add(n);
+        }
+
+        readLinks(in, t.getBookings());
+        readLinks(in, t.getCreatedEvents());
+        readLinks(in, t.getWaitlist());
+        return t;
+    }
+
+    private void readUsers(DataInputStream in, List<UserRecord> target) throws IOException {
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            UserRecord u = new UserRecord();
+            u.setUserID(readString(in));
+            u.setName(readString(in));
+            u.setEmail(readString(in));
+            u.setPasswordHash(readString(in));
+            u.setStudentID(readString(in));
+            u.setListed(in.readBoolean());
+            target.add(u);
+        }
+    }
+
+    private void readLinks(DataInputStream in, List<LinkRecord> target) throws IOException {
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            target.add(new LinkRecord(readString(in), readString(in)));
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) return null;
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static Date readDate(DataInputStream in) throws IOException {
+        long millis = in.readLong();
+        return millis == NO_DATE ? null : new Date(millis);
+    }
+}
@@ -0,0 +1,146 @@
+package com.eventsystem.storage;
+
+import com.eventsystem.model.Event;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+
+/**
+ * The in-memory events of an EventDatabase sorted by start time, for calendar range queries.
+ *
+ * Events are bucketed by start millisecond in a TreeMap. The database forwards every change
+ * of an event's times (see EventDatabase.Watcher), so a reschedule moves the event to its new
+ * bucket right away. Like BookingList, it tracks the longest event seen: the events running
+ * during [start, end) all start inside (start - maxDuration, end), so every query is one
+ * TreeMap range and costs O(log n + k). Undated events are not indexed.
+ *
+ * Cancelled and rejected events stay in the index (their status can still change through
+ * journal replay) and are filtered out of the results, so queries only return events
+ * that are on the calendar.
+ */
+class CalendarIndex {
+
+    private final TreeMap<Long, List<Event>> byStart = new TreeMap<>();
+    private long maxDuration;
+    private int size;
+
+    CalendarIndex(Collection<Event> events) {
+        for (Event e : events) {
+            add(e);
+        }
+    }
+
+    synchronized void add(Event event) {
+        insert(event, event.getStartTime());
+    }
+
+    synchronized void remove(Event event) {
+        delete(event, event.getStartTime());
+    }
+
+    synchronized void scheduleChanged(Event event, Date previousStart) {
+        delete(event, previousStart);
+        insert(event, event.getStartTime());
+    }
+
+    // --- Queries ---
+
+    /**
+     * Scheduled events starting in [from, to), ordered by start time.
+     */
+    synchronized List<Event> startingBetween(Date from, Date to) {
+        List<Event> result = new ArrayList<>();
+        for (List<Event> bucket : byStart.subMap(from.getTime(), true, to.getTime(), false).values()) {
+            for (Event e : bucket) {
+                if (isScheduled(e)) result.add(e);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Scheduled events running at any time during [from, to), ordered by start time.
+     */
+    synchronized List<Event> runningBetween(Date from, Date to) {
+        long start = from.getTime();
+        List<Event> result = new ArrayList<>();
+        for (List<Event> bucket : byStart.subMap(start - maxDuration, false, to.getTime(), false).values()) {
+            for (Event e : bucket) {
+                if (isScheduled(e) && (e.getEndTime() == null || e.getEndTime().getTime() > start)) result.add(e);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Iterates over the scheduled events starting at or after the given time, in start order.
+     * The iterator walks a snapshot of each bucket and picks up later changes to the index
+     * (the TreeMap is read under the index lock one bucket at a time).
+     */
+    Iterator<Event> iteratorFrom(Date from) {
+        return new Iterator<Event>() {
+            private long nextKey = from.getTime();
+            private Iterator<Event> bucket = Collections.emptyIterator();
+            private Event next;
+
+            @Override
+            public boolean hasNext() {
+                while (next == null) {
+                    if (bucket.hasNext()) {
+                        Event e = bucket.next();
+                        if (isScheduled(e)) next = e;
+                        continue;
+                    }
+                    synchronized (CalendarIndex.this) {
+                        NavigableMap.Entry<Long, List<Event>> entry = byStart.ceilingEntry(nextKey);
+                        if (entry == null) return false;
+                        nextKey = entry.getKey() + 1;
+                        bucket = new ArrayList<>(entry.getValue()).iterator();
+                    }
+                }
+                return true;
+            }
+
+            @Override
+            public Event next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                Event e = next;
+                next = null;
+                return e;
+            }
+        };
+    }
+
+    synchronized int size() { return size; }
+
+    // --- Helpers ---
+
+    private void insert(Event event, Date start) {
+        if (start == null) return;
+        byStart.computeIfAbsent(start.getTime(), k -> new ArrayList<>(1)).add(event);
+        if (event.getEndTime() != null) {
+            maxDuration = Math.max(maxDuration, event.getEndTime().getTime() - start.getTime());
+        }
+        size++;
+    }
+
+    private void delete(Event event, Date start) {
+        if (start == null) return;
+        List<Event> bucket = byStart.get(start.getTime());
+        if (bucket != null && bucket.remove(event)) {
+            if (bucket.isEmpty()) byStart.remove(start.getTime());
+            size--;
+        }
+    }
+
+    private static boolean isScheduled(Event e) {
+        return e.getEventStatus() == null || e.getEventStatus().holdsRoom();
+    }
+}
@@ -0,0 +1,60 @@
+package com.eventsystem.storage;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * In-process publish/subscribe bus for the DatabaseChanges of one EventDatabase.
+ *
+ * Handlers run synchronously on the thread that made the change (usually the JavaFX thread;
+ * registrations and cancellations may come from any thread), so UI subscribers must hop to
+ * the JavaFX thread themselves. A failing handler is reported and does not stop the others.
+ * Subscribing and publishing never block each other.
+ */
+public class ChangeBus {
+
+    /**
+     * Handle of a subscription; close it when the subscriber goes away.
+     */
+    public interface Subscription extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    private static final class Subscriber<T extends DatabaseChange> {
+        final Class<T> type;
+        final Consumer<? super T> handler;
+
+        Subscriber(Class<T> type, Consumer<? super T> handler) {
+            this.type = type;
+            this.handler = handler;
+        }
+
+        void deliver(DatabaseChange change) {
+            if (type.isInstance(change)) handler.accept(type.cast(change));
+        }
+    }
+
+    private final CopyOnWriteArrayList<Subscriber<?>> subscribers = new CopyOnWriteArrayList<>();
+
+    /**
+     * Calls the handler for every published change of the given type (or a subtype).
+     */
+    public <T extends DatabaseChange> Subscription subscribe(Class<T> type, Consumer<? super T> handler) {
+        Subscriber<T> subscriber = new Subscriber<>(type, handler);
+        subscribers.add(subscriber);
+        return () -> subscribers.remove(subscriber);
+    }
+
+    public void publish(DatabaseChange change) {
+        for (Subscriber<?> subscriber : subscribers) {
+            try {
+                subscriber.deliver(change);
+            } catch (RuntimeException e) {
+                System.out.println("!!! ERROR in change handler for " + change.getClass().getSimpleName() + ": " + e);
+            }
+        }
+    }
+
+    public boolean hasSubscribers() { return !subscribers.isEmpty(); }
+}
@@ -0,0 +1,398 @@
+package com.eventsystem.storage;
+
+import com.eventsystem.model.Administrator;
+import com.eventsystem.model.Event;
+import com.eventsystem.model.EventOrganizer;
+import com.eventsystem.model.Registration;
+import com.eventsystem.model.Room;
+import com.eventsystem.model.Student;
+import com.eventsystem.model.User;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Exports the database to CSV or JSON-lines files for reporting and nightly exports.
+ *
+ * Output is one file per partition: rooms, users, and events and registrations per monthly
+ * event segment (the same split as PartitionedStore). Partitions are written in parallel,
+ * each streamed row by row through a buffered writer on a FileChannel (optionally gzipped),
+ * so memory use does not grow with the size of the export. Each file is written to a
+ * temporary name and moved into place when complete.
+ *
+ * An incremental export (setChangedSince) only writes events modified and registrations
+ * made at or after the watermark; rooms and users are always written in full. Event changes
+ * replayed from the journal are stamped when they are applied, so an incremental export may
+ * repeat an event, but never misses one. Deletions are not exported.
+ */
+public class DataExporter {
+
+    public enum Format {
+        CSV(".csv"),
+        JSON_LINES(".jsonl");
+
+        private final String extension;
+
+        Format(String extension) { this.extension = extension; }
+
+        public String getExtension() { return extension; }
+    }
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ISO_INSTANT;
+
+    private final EventDatabase database;
+    private Format format = Format.CSV;
+    private boolean compressed;
+    private long changedSince;
+    private BooleanSupplier cancelled = () -> false;
+
+    public DataExporter(EventDatabase database) {
+        this.database = database;
+    }
+
+    public void setFormat(Format format) { this.format = format; }
+    public void setCompressed(boolean compressed) { this.compressed = compressed; }
+
+    /**
+     * Only exports events changed and registrations made at or after this time (ms since
+     * the epoch; 0 exports everything). Use the watermark of the previous Result.
+     */
+    public void setChangedSince(long watermark) { this.changedSince = watermark; }
+
+    /**
+     * Checked between rows; once it returns true the export stops and its files are removed.
+     */
+    public void setCancelled(BooleanSupplier cancelled) { this.cancelled = cancelled; }
+
+    /**
+     * Writes every partition into the directory (created if needed) and returns the files,
+     * their row counts and the watermark for the next incremental export.
+     */
+    public Result exportTo(Path directory) throws IOException {
+        long watermark = System.currentTimeMillis();
+        long startNanos = System.nanoTime();
+        Files.createDirectories(directory);
+
+        // Every event is needed for the grouping; on a lazy database this loads all segments
+        Map<String, List<Event>> eventsBySegment = database.snapshotEvents().stream()
+                .collect(Collectors.groupingBy(PartitionedStore::eventSegment, TreeMap::new, Collectors.toList()));
+
+        List<Partition> partitions = new ArrayList<>();
+        partitions.add(new Partition("rooms", this::writeRooms));
+        partitions.add(new Partition("users", this::writeUsers));
+        for (Map.Entry<String, List<Event>> segment : eventsBySegment.entrySet()) {
+            // "events-2025-09" -> "2025-09"
+            String month = segment.getKey().substring(segment.getKey().indexOf('-') + 1);
+            List<Event> events = segment.getValue();
+            partitions.add(new Partition("events-" + month, out -> writeEvents(out, events)));
+            partitions.add(new Partition("registrations-" + month, out -> writeRegistrations(out, events)));
+        }
+
+        List<ExportedFile> files;
+        try {
+            files = partitions.parallelStream()
+                    .map(p -> p.writeTo(directory))
+                    .collect(Collectors.toList());
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        if (cancelled.getAsBoolean()) {
+            for (ExportedFile f : files) Files.deleteIfExists(f.getPath());
+            System.out.println("--- Export to " + directory + " cancelled ---");
+            return new Result(directory, new ArrayList<>(), changedSince);
+        }
+
+        Result result = new Result(directory, files, watermark);
+        System.out.println("--- Exported " + result.getRowCount() + " rows in " + files.size() + " files to "
+                + directory + " in " + (System.nanoTime() - startNanos) / 1_000_000 + " ms"
+                + (changedSince > 0 ? " (changed since " + TIMESTAMP.format(Instant.ofEpochMilli(changedSince)) + ")" : "")
+                + " ---");
+        return result;
+    }
+
+    // =================================================
+    // TABLES
+    // =================================================
+
+    private long writeRooms(RowWriter out) throws IOException {
+        out.header("Room ID", "Name", "Location", "Capacity");
+        long rows = 0;
+        for (Room r : new ArrayList<>(database.getRooms())) {
+            if (cancelled.getAsBoolean()) break;
+            out.row(r.getRoomID(), r.getName(), r.getLocation(), r.getCapacity());
+            rows++;
+        }
+        return rows;
+    }
+
+    private long writeUsers(RowWriter out) throws IOException {
+        out.header("User ID", "Role", "Name", "Email", "Student ID");
+        List<User> users = new ArrayList<>(database.getAdministrators());
+        users.addAll(database.getOrganizers());
+        users.addAll(database.getStudents());
+        long rows = 0;
+        for (User u : users) {
+            if (cancelled.getAsBoolean()) break;
+            String role = (u instanceof Administrator) ? "Administrator" : (u instanceof EventOrganizer) ? "Organizer" : "Student";
+            String studentID = (u instanceof Student) ? ((Student) u).getStudentID() : null;
+            out.row(u.getUserID(), role, u.getName(), u.getEmail(), studentID);
+            rows++;
+        }
+        return rows;
+    }
+
+    private long writeEvents(RowWriter out, List<Event> events) throws IOException {
+        out.header("Event ID", "Title", "Status", "Organizer", "Capacity", "Registered",
+                "Start", "End", "Room", "Last Modified");
+        long rows = 0;
+        for (Event e : events) {
+            if (cancelled.getAsBoolean()) break;
+            if (e.getLastModified() < changedSince) continue;
+            out.row(e.getEventID(), e.getTitle(), e.getStatus(),
+                    (e.getOrganizer() != null) ? e.getOrganizer().getName() : null,
+                    e.getCapacity(), e.getRegistrations().size(),
+                    timestamp(e.getStartTime()), timestamp(e.getEndTime()),
+                    (e.getRoom() != null) ? e.getRoom().getRoomID() : null,
+                    (e.getLastModified() > 0) ? timestamp(new Date(e.getLastModified())) : null);
+            rows++;
+        }
+        return rows;
+    }
+
+    private long writeRegistrations(RowWriter out, List<Event> events) throws IOException {
+        out.header("Registration ID", "Event ID", "Student ID", "Student", "Registered At");
+        long rows = 0;
+        for (Event e : events) {
+            if (cancelled.getAsBoolean()) break;
+            for (Registration reg : e.getRegistrations()) {
+                Date at = reg.getTimestamp();
+                if (changedSince > 0 && (at == null || at.getTime() < changedSince)) continue;
+                Student s = reg.getStudent();
+                out.row(reg.getRegistrationID(), e.getEventID(),
+                        (s != null) ? s.getUserID() : null, (s != null) ? s.getName() : null, timestamp(at));
+                rows++;
+            }
+        }
+        return rows;
+    }
+
+    private static String timestamp(Date date) {
+        return (date != null) ? TIMESTAMP.format(date.toInstant()) : null;
+    }
+
+    // =================================================
+    // FILES
+    // =================================================
+
+    private interface TableWriter {
+        long write(RowWriter out) throws IOException;
+    }
+
+    private final class Partition {
+        private final String name;
+        private final TableWriter table;
+
+        Partition(String name, TableWriter table) {
+            this.name = name;
+            this.table = table;
+        }
+
+        ExportedFile writeTo(Path directory) {
+            Path target = directory.resolve(name + format.getExtension() + (compressed ? ".gz" : ""));
+            Path temp = directory.resolve(target.getFileName() + ".tmp");
+            try {
+                long rows;
+                try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                    OutputStream stream = Channels.newOutputStream(channel);
+                    if (compressed) stream = new GZIPOutputStream(stream, BUFFER_SIZE);
+                    try (Writer writer = new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8), BUFFER_SIZE)) {
+                        rows = table.write(format == Format.CSV ? new CsvWriter(writer) : new JsonLinesWriter(writer));
+                    }
+                }
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                return new ExportedFile(target, rows);
+            } catch (IOException e) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException ignored) {
+                    // the original error is the one worth reporting
+                }
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Writes the rows of one table; values are Strings, Numbers or null.
+     */
+    private abstract static class RowWriter {
+        final Writer out;
+
+        RowWriter(Writer out) { this.out = out; }
+
+        abstract void header(String... columns) throws IOException;
+        abstract void row(Object... values) throws IOException;
+    }
+
+    /**
+     * RFC 4180: fields with a comma, quote or line break are quoted, quotes are doubled.
+     * Null is written as an empty field.
+     */
+    private static final class CsvWriter extends RowWriter {
+        CsvWriter(Writer out) { super(out); }
+
+        @Override
+        void header(String... columns) throws IOException {
+            row((Object[]) columns);
+        }
+
+        @Override
+        void row(Object... values) throws IOException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) out.write(',');
+                if (values[i] != null) writeField(values[i].toString());
+            }
+            out.write('\n');
+        }
+
+        private void writeField(String value) throws IOException {
+            boolean quote = false;
+            for (int i = 0; i < value.length() && !quote; i++) {
+                char c = value.charAt(i);
+                quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+            }
+            if (!quote) {
+                out.write(value);
+                return;
+            }
+            out.write('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"') out.write('"');
+                out.write(c);
+            }
+            out.write('"');
+        }
+    }
+
+    /**
+     * One JSON object per line, keyed by the column names.
+     */
+    private static final class JsonLinesWriter extends RowWriter {
+        private String[] columns;
+
+        JsonLinesWriter(Writer out) { super(out); }
+
+        @Override
+        void header(String... columns) {
+            this.columns = columns;
+        }
+
+        @Override
+        void row(Object... values) throws IOException {
+            out.write('{');
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) out.write(',');
+                writeString(columns[i]);
+                out.write(':');
+                Object value = values[i];
+                if (value == null) {
+                    out.write("null");
+                } else if (value instanceof Number) {
+                    out.write(value.toString());
+                } else {
+                    writeString(value.toString());
+                }
+            }
+            out.write("}\n");
+        }
+
+        private void writeString(String value) throws IOException {
+            out.write('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                switch (c) {
+                    case '"': out.write("\\\""); break;
+                    case '\\': out.write("\\\\"); break;
+                    case '\n': out.write("\\n"); break;
+                    case '\r': out.write("\\r"); break;
+                    case '\t': out.write("\\t"); break;
+                    default:
+                        if (c < 0x20) {
+                            out.write(String.format("\\u%04x", (int) c));
+                        } else {
+                            out.write(c);
+                        }
+                }
+            }
+            out.write('"');
+        }
+    }
+
+    // =================================================
+    // RESULT
+    // =================================================
+
+    public static final class ExportedFile {
+        private final Path path;
+        private final long rows;
+
+        ExportedFile(Path path, long rows) {
+            this.path = path;
+            this.rows = rows;
+        }
+
+        public Path getPath() { return path; }
+        public long getRows() { return rows; }
+    }
+
+    public static final class Result {
+        private final Path directory;
+        private final List<ExportedFile> files;
+        private final long watermark;
+
+        Result(Path directory, List<ExportedFile> files, long watermark) {
+            this.directory = directory;
+            this.files = files;
+            this.watermark = watermark;
+        }
+
+        public Path getDirectory() { return directory; }
+        public List<ExportedFile> getFiles() { return files; }
+
+        /**
+         * The time the export started; pass it to setChangedSince for the next incremental export.
+         */
+        public long getWatermark() { return watermark; }
+
+        public long getRowCount() {
+            long rows = 0;
+            for (ExportedFile f : files) rows += f.getRows();
+            return rows;
+        }
+    }
+}
@@ -0,0 +1,664 @@
+package com.eventsystem.storage;
+
+import com.eventsystem.model.Event;
+import com.eventsystem.model.EventOrganizer;
+import com.eventsystem.model.EventStatus;
+import com.eventsystem.model.IdService;
+import com.eventsystem.model.Room;
+import com.eventsystem.model.Student;
+import com.eventsystem.model.User;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Bulk import of students, rooms or events from CSV (e.g. at the start of a semester).
+ *
+ * The file is streamed in chunks of CHUNK_SIZE rows. The rows of a chunk are parsed and
+ * checked against the database in parallel (required fields, numbers and dates, emails and
+ * student IDs already in use, rooms already booked via Room.isAvailable); duplicates within
+ * the file itself (the same email twice, two events in one room at the same time) are then
+ * resolved in file order, so the first row wins. Rows that fail are reported with their line
+ * number and skipped. The valid rows are added to the database at the end and persisted with
+ * one DataStorageService.recordChanges call instead of one save per row.
+ *
+ * The first line must name the columns (case, spaces and underscores are ignored; the order
+ * is free). The format is RFC 4180 CSV, as written by DataExporter; a ".gz" file is
+ * decompressed on the fly.
+ *
+ *   STUDENTS: Name, Email, Student ID, Password
+ *   ROOMS:    Name, Location, Capacity [, Room ID]
+ *   EVENTS:   Title, Start, End, Capacity, Room ID, Organizer Email [, Description, Status]
+ *
+ * Times are ISO instants (2025-09-01T08:00:00Z) or local "yyyy-MM-dd HH:mm". Events default
+ * to Active.
+ */
+public class DataImporter {
+
+    public enum Table { STUDENTS, ROOMS, EVENTS }
+
+    private static final int CHUNK_SIZE = 5_000;
+    private static final DateTimeFormatter LOCAL_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    private final EventDatabase database;
+    private final DataStorageService storage;
+    private boolean dryRun;
+    private BooleanSupplier cancelled = () -> false;
+
+    public DataImporter(EventDatabase database, DataStorageService storage) {
+        this.database = database;
+        this.storage = storage;
+    }
+
+    /**
+     * Only validate: errors are reported, but nothing is added or saved.
+     */
+    public void setDryRun(boolean dryRun) { this.dryRun = dryRun; }
+
+    /**
+     * Checked between chunks; once it returns true the import stops without changing anything.
+     */
+    public void setCancelled(BooleanSupplier cancelled) { this.cancelled = cancelled; }
+
+    /**
+     * Imports the rows of the file into the given table and returns what was imported
+     * and which rows were rejected. Must not run concurrently with other changes to the database.
+     *
+     * @throws StorageConflictException in shared mode, if another instance registered one of
+     *         the imported emails first; nothing has been imported then
+     */
+    public Result importFrom(Table table, Path file) throws IOException {
+        try (InputStream in = open(file)) {
+            return importFrom(table, new InputStreamReader(in, StandardCharsets.UTF_8));
+        }
+    }
+
+    public Result importFrom(Table table, Reader input) throws IOException {
+        long startNanos = System.nanoTime();
+        CsvReader csv = new CsvReader(input);
+        List<RowError> errors = new ArrayList<>();
+
+        List<String> header = csv.next();
+        if (header == null) {
+            return new Result(table, 0, 0, errors, false);
+        }
+        TableImport<?> rows = tableImport(table, new Columns(header));
+        String missing = rows.columns.missing(rows.required());
+        if (missing != null) {
+            errors.add(new RowError(1, "Missing column: " + missing));
+            return new Result(table, 0, 0, errors, false);
+        }
+
+        // The lookups build their hash indexes on first use; build them before going parallel
+        database.isEmailTaken("");
+        database.findRoom("");
+
+        long read = 0;
+        List<CsvRow> chunk = new ArrayList<>(CHUNK_SIZE);
+        List<String> record;
+        while (true) {
+            int line = csv.getLine();
+            record = csv.next();
+            if (record != null && !isBlank(record)) {
+                chunk.add(new CsvRow(line, record));
+            }
+            if (chunk.size() == CHUNK_SIZE || (record == null && !chunk.isEmpty())) {
+                if (cancelled.getAsBoolean()) {
+                    System.out.println("--- Import of " + table + " cancelled ---");
+                    return new Result(table, read, 0, errors, false);
+                }
+                read += chunk.size();
+                rows.validate(chunk, errors);
+                chunk.clear();
+            }
+            if (record == null) break;
+        }
+        errors.sort((a, b) -> Integer.compare(a.getLine(), b.getLine()));
+
+        int accepted = rows.size();
+        boolean committed = false;
+        if (!dryRun && accepted > 0) {
+            rows.commit();
+            committed = true;
+        }
+
+        Result result = new Result(table, read, dryRun ? 0 : accepted, errors, committed);
+        System.out.println("--- " + (dryRun ? "Checked " : "Imported ") + accepted + " of " + read + " "
+                + table.name().toLowerCase(Locale.ROOT) + " rows (" + errors.size() + " rejected) in "
+                + (System.nanoTime() - startNanos) / 1_000_000 + " ms ---");
+        return result;
+    }
+
+    private static InputStream open(Path file) throws IOException {
+        InputStream in = Files.newInputStream(file);
+        return file.getFileName().toString().endsWith(".gz") ? new GZIPInputStream(in, 64 * 1024) : in;
+    }
+
+    private static boolean isBlank(List<String> record) {
+        return record.size() == 1 && record.get(0).trim().isEmpty();
+    }
+
+    private TableImport<?> tableImport(Table table, Columns columns) {
+        switch (table) {
+            case STUDENTS: return new StudentImport(columns);
+            case ROOMS: return new RoomImport(columns);
+            default: return new EventImport(columns);
+        }
+    }
+
+    // =================================================
+    // TABLES
+    // =================================================
+
+    /**
+     * The steps of importing one table. parse and check run in parallel and must only read
+     * the database; prepare, claim and add run on the importing thread.
+     */
+    private abstract class TableImport<T> {
+        final Columns columns;
+        private final List<T> accepted = new ArrayList<>();
+
+        TableImport(Columns columns) { this.columns = columns; }
+
+        abstract String[] required();
+
+        /**
+         * Builds the row's value; throws for a malformed row.
+         */
+        abstract T parse(CsvRow row) throws InvalidRow;
+
+        /**
+         * Called with the parsed rows of a chunk before they are checked.
+         */
+        void prepare(List<T> parsed) {
+        }
+
+        /**
+         * Checks the value against the database (not against other rows).
+         */
+        abstract void check(T value) throws InvalidRow;
+
+        /**
+         * Checks the value against the rows accepted before it and reserves what it uses.
+         */
+        abstract void claim(T value) throws InvalidRow;
+
+        /**
+         * Adds the accepted value to the database and returns its journal entry.
+         */
+        abstract JournalEntry add(T value);
+
+        int size() { return accepted.size(); }
+
+        void validate(List<CsvRow> chunk, List<RowError> errors) {
+            List<Parsed<T>> parsed = chunk.parallelStream().map(row -> {
+                try {
+                    return new Parsed<>(row, parse(row), null);
+                } catch (InvalidRow e) {
+                    return new Parsed<T>(row, null, e.getMessage());
+                }
+            }).collect(Collectors.toList());
+
+            List<T> values = new ArrayList<>(parsed.size());
+            for (Parsed<T> p : parsed) {
+                if (p.value != null) values.add(p.value);
+            }
+            prepare(values);
+
+            List<Parsed<T>> checked = parsed.parallelStream().map(p -> {
+                if (p.value == null) return p;
+                try {
+                    check(p.value);
+                    return p;
+                } catch (InvalidRow e) {
+                    return new Parsed<T>(p.row, null, e.getMessage());
+                }
+            }).collect(Collectors.toList());
+
+            // File order: of two clashing rows the first one is kept
+            for (Parsed<T> p : checked) {
+                if (p.value == null) {
+                    errors.add(new RowError(p.row.line, p.error));
+                    continue;
+                }
+                try {
+                    claim(p.value);
+                    accepted.add(p.value);
+                } catch (InvalidRow e) {
+                    errors.add(new RowError(p.row.line, e.getMessage()));
+                }
+            }
+        }
+
+        void commit() {
+            List<JournalEntry> entries = new ArrayList<>(accepted.size());
+            for (T value : accepted) {
+                entries.add(add(value));
+            }
+            storage.recordChanges(database, entries).join();
+        }
+    }
+
+    private final class StudentImport extends TableImport<Student> {
+        private final Set<String> emails = new HashSet<>();
+        private final Set<String> studentIDs = new HashSet<>();
+
+        StudentImport(Columns columns) { super(columns); }
+
+        @Override
+        String[] required() { return new String[]{"Name", "Email", "Student ID", "Password"}; }
+
+        @Override
+        Student parse(CsvRow row) throws InvalidRow {
+            String email = columns.required(row, "Email");
+            if (email.indexOf('@') <= 0) throw new InvalidRow("Not an email address: " + email);
+            String studentID = columns.required(row, "Student ID");
+            // Same as RegisterController: the student ID is also the user ID
+            return new Student(studentID, studentID, columns.required(row, "Name"), email,
+                    columns.required(row, "Password"));
+        }
+
+        @Override
+        void check(Student s) throws InvalidRow {
+            if (database.isEmailTaken(s.getEmail())) throw new InvalidRow("Email already registered: " + s.getEmail());
+            if (database.findUser(s.getUserID()) != null) throw new InvalidRow("Student ID already in use: " + s.getStudentID());
+        }
+
+        @Override
+        void claim(Student s) throws InvalidRow {
+            if (!emails.add(DatabaseIndex.normalize(s.getEmail()))) {
+                throw new InvalidRow("Duplicate email in file: " + s.getEmail());
+            }
+            if (!studentIDs.add(s.getStudentID())) {
+                emails.remove(DatabaseIndex.normalize(s.getEmail()));
+                throw new InvalidRow("Duplicate student ID in file: " + s.getStudentID());
+            }
+        }
+
+        @Override
+        JournalEntry add(Student s) {
+            database.addStudent(s);
+            return JournalEntry.addUser(s);
+        }
+    }
+
+    private final class RoomImport extends TableImport<Room> {
+        private final Set<String> roomIDs = new HashSet<>();
+        private final Set<String> names = new HashSet<>();
+        private Set<String> existingNames;
+
+        RoomImport(Columns columns) { super(columns); }
+
+        @Override
+        String[] required() { return new String[]{"Name", "Location", "Capacity"}; }
+
+        @Override
+        Room parse(CsvRow row) throws InvalidRow {
+            String roomID = columns.optional(row, "Room ID");
+            return new Room(roomID.isEmpty() ? IdService.nextId("R-") : roomID,
+                    columns.required(row, "Name"), columns.required(row, "Location"),
+                    positive(columns.required(row, "Capacity"), "Capacity"));
+        }
+
+        @Override
+        void prepare(List<Room> parsed) {
+            if (existingNames == null) {
+                existingNames = new HashSet<>();
+                for (Room r : database.getRooms()) existingNames.add(roomKey(r));
+            }
+        }
+
+        @Override
+        void check(Room r) throws InvalidRow {
+            if (database.findRoom(r.getRoomID()) != null) throw new InvalidRow("Room ID already in use: " + r.getRoomID());
+            if (existingNames.contains(roomKey(r))) {
+                throw new InvalidRow("Room already exists: " + r.getName() + " (" + r.getLocation() + ")");
+            }
+        }
+
+        @Override
+        void claim(Room r) throws InvalidRow {
+            if (!names.add(roomKey(r))) {
+                throw new InvalidRow("Duplicate room in file: " + r.getName() + " (" + r.getLocation() + ")");
+            }
+            if (!roomIDs.add(r.getRoomID())) {
+                names.remove(roomKey(r));
+                throw new InvalidRow("Duplicate room ID in file: " + r.getRoomID());
+            }
+        }
+
+        @Override
+        JournalEntry add(Room r) {
+            database.addRoom(r);
+            return JournalEntry.addRoom(r);
+        }
+
+        private String roomKey(Room r) {
+            return r.getName().trim().toLowerCase(Locale.ROOT) + "\n" + r.getLocation().trim().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private final class EventImport extends TableImport<Event> {
+        // Bookings accepted from this file per room: start -> end (they never overlap)
+        private final Map<Room, TreeMap<Long, Long>> booked = new HashMap<>();
+
+        EventImport(Columns columns) { super(columns); }
+
+        @Override
+        String[] required() { return new String[]{"Title", "Start", "End", "Capacity", "Room ID", "Organizer Email"}; }
+
+        @Override
+        Event parse(CsvRow row) throws InvalidRow {
+            String title = columns.required(row, "Title");
+            Date start = time(columns.required(row, "Start"));
+            Date end = time(columns.required(row, "End"));
+            if (!end.after(start)) throw new InvalidRow("End is not after start");
+            int capacity = positive(columns.required(row, "Capacity"), "Capacity");
+
+            String roomID = columns.required(row, "Room ID");
+            Room room = database.findRoom(roomID);
+            if (room == null) throw new InvalidRow("Unknown room: " + roomID);
+            if (capacity > room.getCapacity()) {
+                throw new InvalidRow("Capacity " + capacity + " exceeds room capacity " + room.getCapacity());
+            }
+
+            String email = columns.required(row, "Organizer Email");
+            EventOrganizer organizer = null;
+            for (User u : database.findUsersByEmail(email)) {
+                if (u instanceof EventOrganizer) organizer = (EventOrganizer) u;
+            }
+            if (organizer == null) throw new InvalidRow("Unknown organizer: " + email);
+
+            Event event = new Event(IdService.nextId("E"), title, columns.optional(row, "Description"),
+                    start, end, capacity, organizer, room);
+            String status = columns.optional(row, "Status");
+            if (!status.isEmpty()) event.setEventStatus(status(status));
+            return event;
+        }
+
+        /**
+         * A lazily loaded database only holds some months, and loading more may evict others;
+         * there the room is checked in claim(), right after the row's months are loaded.
+         */
+        @Override
+        void check(Event e) throws InvalidRow {
+            if (database.isFullyLoaded()) checkRoom(e);
+        }
+
+        @Override
+        void claim(Event e) throws InvalidRow {
+            if (!holdsRoom(e)) return;
+            if (!database.isFullyLoaded()) {
+                database.loadEventsBetween(e.getStartTime(), e.getEndTime());
+                checkRoom(e);
+            }
+            TreeMap<Long, Long> bookings = booked.computeIfAbsent(e.getRoom(), r -> new TreeMap<>());
+            long start = e.getStartTime().getTime();
+            long end = e.getEndTime().getTime();
+            Map.Entry<Long, Long> before = bookings.lowerEntry(end);
+            if (before != null && before.getValue() > start) {
+                throw new InvalidRow("Room " + e.getRoom().getName() + " is booked by an earlier row at this time");
+            }
+            bookings.put(start, end);
+        }
+
+        private void checkRoom(Event e) throws InvalidRow {
+            if (holdsRoom(e) && !e.getRoom().isAvailable(e.getStartTime(), e.getEndTime())) {
+                throw new InvalidRow("Room " + e.getRoom().getName() + " is already booked at this time");
+            }
+        }
+
+        @Override
+        JournalEntry add(Event e) {
+            if (holdsRoom(e)) e.getRoom().bookRoom(e);
+            e.getOrganizer().getCreatedEvents().add(e);
+            database.addEvent(e);
+            return JournalEntry.addEvent(e);
+        }
+
+        private boolean holdsRoom(Event e) {
+            return e.getEventStatus() != null && e.getEventStatus().holdsRoom();
+        }
+
+        private Date time(String value) throws InvalidRow {
+            try {
+                if (value.indexOf('T') > 0) return Date.from(Instant.parse(value));
+                return Date.from(LocalDateTime.parse(value, LOCAL_TIME).atZone(ZoneId.systemDefault()).toInstant());
+            } catch (DateTimeParseException e) {
+                throw new InvalidRow("Not a time: " + value);
+            }
+        }
+
+        private EventStatus status(String value) throws InvalidRow {
+            for (EventStatus s : EventStatus.values()) {
+                if (s.getLabel().equalsIgnoreCase(value)) return s;
+            }
+            throw new InvalidRow("Unknown status: " + value);
+        }
+    }
+
+    private static int positive(String value, String column) throws InvalidRow {
+        try {
+            int n = Integer.parseInt(value);
+            if (n > 0) return n;
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+        throw new InvalidRow(column + " must be a positive number: " + value);
+    }
+
+    // =================================================
+    // CSV
+    // =================================================
+
+    private static final class CsvRow {
+        final int line;
+        final List<String> fields;
+
+        CsvRow(int line, List<String> fields) {
+            this.line = line;
+            this.fields = fields;
+        }
+    }
+
+    private static final class Parsed<T> {
+        final CsvRow row;
+        final T value;
+        final String error;
+
+        Parsed(CsvRow row, T value, String error) {
+            this.row = row;
+            this.value = value;
+            this.error = error;
+        }
+    }
+
+    /**
+     * Column positions by header name; names are compared without case, spaces and underscores.
+     */
+    private static final class Columns {
+        private final Map<String, Integer> positions = new HashMap<>();
+
+        Columns(List<String> header) {
+            for (int i = 0; i < header.size(); i++) {
+                positions.putIfAbsent(key(header.get(i)), i);
+            }
+        }
+
+        String missing(String[] names) {
+            for (String name : names) {
+                if (!positions.containsKey(key(name))) return name;
+            }
+            return null;
+        }
+
+        String required(CsvRow row, String name) throws InvalidRow {
+            String value = optional(row, name);
+            if (value.isEmpty()) throw new InvalidRow("Missing " + name);
+            return value;
+        }
+
+        String optional(CsvRow row, String name) {
+            Integer i = positions.get(key(name));
+            return (i != null && i < row.fields.size()) ? row.fields.get(i).trim() : "";
+        }
+
+        private static String key(String name) {
+            return name.replace(" ", "").replace("_", "").toLowerCase(Locale.ROOT);
+        }
+    }
+
+    /**
+     * Streaming RFC 4180 reader: quoted fields may contain commas, doubled quotes and line
+     * breaks. Lines may end in \n or \r\n.
+     */
+    private static final class CsvReader {
+        private final Reader in;
+        private int line = 1;
+        private int peeked = -2;
+
+        CsvReader(Reader in) {
+            this.in = (in instanceof BufferedReader) ? in : new BufferedReader(in, 64 * 1024);
+        }
+
+        /**
+         * The line the next record starts on.
+         */
+        int getLine() { return line; }
+
+        /**
+         * The next record, or null at the end of the input.
+         */
+        List<String> next() throws IOException {
+            int c = read();
+            if (c == -1) return null;
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            while (true) {
+                if (quoted) {
+                    if (c == -1) break;
+                    if (c == '"') {
+                        if (peek() == '"') {
+                            read();
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                        }
+                    } else {
+                        if (c == '\n') line++;
+                        field.append((char) c);
+                    }
+                } else if (c == '"' && field.length() == 0) {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\r' && peek() == '\n') {
+                    // the \n ends the record
+                } else if (c == '\n' || c == -1) {
+                    break;
+                } else {
+                    field.append((char) c);
+                }
+                c = read();
+            }
+            if (c == '\n') line++;
+            fields.add(field.toString());
+            return fields;
+        }
+
+        private int read() throws IOException {
+            if (peeked != -2) {
+                int c = peeked;
+                peeked = -2;
+                return c;
+            }
+            return in.read();
+        }
+
+        private int peek() throws IOException {
+            if (peeked == -2) peeked = in.read();
+            return peeked;
+        }
+    }
+
+    private static final class InvalidRow extends Exception {
+        InvalidRow(String message) {
+            super(message, null, false, false);
+        }
+    }
+
+    // =================================================
+    // RESULT
+    // =================================================
+
+    public static final class RowError {
+        private final int line;
+        private final String message;
+
+        RowError(int line, String message) {
+            this.line = line;
+            this.message = message;
+        }
+
+        public int getLine() { return line; }
+        public String getMessage() { return message; }
+
+        @Override
+        public String toString() { return "line " + line + ": " + message; }
+    }
+
+    public static final class Result {
+        private final Table table;
+        private final long rowsRead;
+        private final int imported;
+        private final List<RowError> errors;
+        private final boolean committed;
+
+        Result(Table table, long rowsRead, int imported, List<RowError> errors, boolean committed) {
+            this.table = table;
+            this.rowsRead = rowsRead;
+            this.imported = imported;
+            this.errors = errors;
+            this.committed = committed;
+        }
+
+        public Table getTable() { return table; }
+        public long getRowsRead() { return rowsRead; }
+        public int getImported() { return imported; }
+
+        /**
+         * The rejected rows, by line number.
+         */
+        public List<RowError> getErrors() { return errors; }
+
+        /**
+         * True if rows were added and saved (false for a dry run or when nothing was valid).
+         */
+        public boolean isCommitted() { return committed; }
+    }
+}
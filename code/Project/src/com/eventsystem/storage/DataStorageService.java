@@ -1,42 +1,731 @@
 package com.eventsystem.storage;
 
+import com.eventsystem.model.IdService;
+import com.eventsystem.model.SnowflakeIdGenerator;
+
 import java.beans.XMLEncoder;
 import java.beans.XMLDecoder;
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 public class DataStorageService {
 
-    private static final String FILENAME = "event_data.xml";
+    private static final String JOURNAL_FILENAME = "event_data.journal";
 
-    public void saveData(EventDatabase database) {
-        try (XMLEncoder encoder = new XMLEncoder(
-                new BufferedOutputStream(
-                        new FileOutputStream(FILENAME)))) {
+    /**
+     * Number of journal entries after which the journal is folded into a new snapshot.
+     */
+    private static final int COMPACTION_THRESHOLD = 500;
+
+    /**
+     * Number of event segments (months) kept in memory by a lazily loaded database.
+     */
+    private static final int LAZY_CACHE_SEGMENTS = 12;
+
+    /**
+     * Shared mode: generation counter of the journal and lease files of the running instances.
+     */
+    private static final Path GENERATION_FILE = Paths.get(JOURNAL_FILENAME + ".generation");
+    private static final Path LEASE_DIRECTORY = Paths.get("event_data.leases");
+
+    /**
+     * An instance whose lease is older than this is considered gone when archived journals are cleaned up.
+     */
+    private static final long LEASE_TIMEOUT_MILLIS = 30 * 60 * 1000L;
+
+    /**
+     * System property that turns on shared mode for the GUI (see getInstance()).
+     */
+    public static final String SHARED_PROPERTY = "eventsystem.shared";
+
+    private static DataStorageService sharedInstance;
+
+    private final StorageJournal journal = new StorageJournal(JOURNAL_FILENAME);
+    private final Object ioLock = new Object();
+    private boolean journaled = true;
+
+    private StorageFormat format;
+    private boolean compressed;
+    private boolean lazy;
+    private WriteBehindSaver writeBehind;
 
-            encoder.writeObject(database);
-            System.out.println("--- Data successfully saved to " + FILENAME + " ---");
+    // --- Shared mode (several app instances on one data store) ---
+    private boolean shared;
+    private final String instanceID = UUID.randomUUID().toString();
+    private long consumedGeneration;  // journal generation this instance has read up to
+    private long journalOffset;       // byte offset read up to within that generation
+    private boolean stale;
+    private NodeLease nodeLease;      // node number of this instance's ID generator
 
+    public DataStorageService() {
+        this(StorageFormat.PARTITIONED);
+    }
+
+    public DataStorageService(StorageFormat format) {
+        this.format = format;
+    }
+
+    /**
+     * Returns the service shared by all windows of the GUI, with write-behind and lazy loading
+     * enabled. Every login/dashboard window must use the same instance so that queued writes
+     * are visible when the login screen reloads the data after a logout.
+     *
+     * Shared mode (several desks on one data store) is opt-in with -D{@value #SHARED_PROPERTY}=true:
+     * it commits every change and compacts the journal under the store lock on the calling
+     * thread, i.e. on the JavaFX thread, instead of in the background.
+     */
+    public static synchronized DataStorageService getInstance() {
+        if (sharedInstance == null) {
+            sharedInstance = new DataStorageService();
+            sharedInstance.setWriteBehind(true);
+            sharedInstance.setLazy(true);
+            sharedInstance.setShared(Boolean.getBoolean(SHARED_PROPERTY));
+        }
+        return sharedInstance;
+    }
+
+    /**
+     * Writes a snapshot of the database and clears the journal.
+     * Blocks until the snapshot is on disk, also in write-behind mode.
+     */
+    public void saveData(EventDatabase database) {
+        try {
+            saveDataAsync(database).join();
         } catch (Exception e) {
             System.out.println("!!! ERROR saving data: " + e.getMessage());
-            e.printStackTrace();
         }
     }
 
-    public EventDatabase loadData() {
-        try (XMLDecoder decoder = new XMLDecoder(
-                new BufferedInputStream(
-                        new FileInputStream(FILENAME)))) {
+    /**
+     * Captures the database as SnapshotTables on the calling thread and writes them out.
+     * With the partitioned format only the partitions marked dirty are captured.
+     * In write-behind mode the write happens in the background and the returned future
+     * completes once it is durable. In shared mode the snapshot is always written on the
+     * calling thread (see saveShared).
+     */
+    public CompletableFuture<Void> saveDataAsync(EventDatabase database) {
+        if (shared) {
+            return saveShared(database);
+        }
+
+        Map<Path, SnapshotTables> files = capture(database);
+        long save = database.startSave();
+        CompletableFuture<Void> done;
+        if (writeBehind != null) {
+            done = writeBehind.submitSnapshot(files);
+        } else {
+            try {
+                writeSnapshotFiles(files);
+                done = CompletableFuture.completedFuture(null);
+            } catch (IOException e) {
+                e.printStackTrace();
+                done = CompletableFuture.failedFuture(e);
+            }
+        }
+
+        // startSave cleared the dirty flags; a failed write must not lose them
+        done.whenComplete((ignored, error) -> {
+            if (error != null) database.markAllDirty();
+            database.saveFinished(save);
+        });
+        return done;
+    }
+
+    /**
+     * Shared mode: merges the changes of other instances, then captures and writes the snapshot
+     * while still holding the store lock, so no commit (of this instance or another) can slip in
+     * between capture and write and leave the snapshot behind the journal. The journal is then
+     * archived instead of deleted so that other instances can still read the entries they have
+     * not seen yet.
+     */
+    private CompletableFuture<Void> saveShared(EventDatabase database) {
+        synchronized (ioLock) {
+            try {
+                StoreLock lock = StoreLock.acquire();
+                try {
+                    catchUp(database);
+                    Map<Path, SnapshotTables> files = capture(database);
+                    long save = database.startSave();
+                    try {
+                        writeFiles(files);
+                    } catch (IOException | RuntimeException e) {
+                        // startSave cleared the dirty flags; a failed write must not lose them
+                        database.markAllDirty();
+                        throw e;
+                    } finally {
+                        database.saveFinished(save);
+                    }
+
+                    // Start a new journal generation; the old journal stays readable as an archive
+                    journal.rotate(archiveFor(consumedGeneration));
+                    consumedGeneration++;
+                    journalOffset = 0;
+                    writeGeneration(consumedGeneration);
+                    writeLease();
+                    deleteUnusedArchives();
+                    return CompletableFuture.completedFuture(null);
+                } finally {
+                    lock.close();
+                }
+            } catch (IOException | StorageConflictException e) {
+                System.out.println("!!! ERROR saving data: " + e.getMessage());
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+    }
+
+    private Map<Path, SnapshotTables> capture(EventDatabase database) {
+        if (format == StorageFormat.PARTITIONED) {
+            return new PartitionedStore(compressed).captureDirty(database);
+        }
+        return Collections.singletonMap(Paths.get(format.getFilename()), SnapshotTables.fromDatabase(database));
+    }
+
+    /**
+     * Records a single mutation.
+     * In journaled mode only the entry is appended; the snapshot is rewritten
+     * once the journal grows past COMPACTION_THRESHOLD entries.
+     * Without journaling this falls back to a snapshot save.
+     *
+     * In write-behind mode this returns immediately; callers that need durability
+     * can wait on the returned future.
+     *
+     * In shared mode the entry is committed synchronously under the store lock, after the
+     * changes of other instances have been merged in.
+     *
+     * @throws StorageConflictException in shared mode, if another instance changed the same
+     *         data first; the local change has been undone
+     */
+    public CompletableFuture<Void> recordChange(EventDatabase database, JournalEntry entry) {
+        database.markDirty(entry.getPartitions());
+
+        if (shared) {
+            return commitShared(database, entry);
+        }
+
+        entry.commitVersion(database);
+        if (!journaled) {
+            return saveDataAsync(database);
+        }
+
+        if (writeBehind != null) {
+            CompletableFuture<Void> done = writeBehind.submit(entry);
+            if (!writeBehind.isSnapshotPending()
+                    && journal.size() + writeBehind.getPendingCount() >= COMPACTION_THRESHOLD) {
+                System.out.println("--- Compacting journal ---");
+                return saveDataAsync(database);
+            }
+            return done;
+        }
+
+        try {
+            appendToJournal(Collections.singletonList(entry));
+        } catch (IOException e) {
+            System.out.println("!!! ERROR writing journal, saving full snapshot instead: " + e.getMessage());
+            return saveDataAsync(database);
+        }
+
+        if (journal.size() >= COMPACTION_THRESHOLD) {
+            System.out.println("--- Compacting journal (" + journal.size() + " entries) ---");
+            return saveDataAsync(database);
+        }
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Records many mutations (e.g. a bulk import) as one operation: the entries are appended
+     * to the journal with a single write and flush. A batch that would push the journal past
+     * COMPACTION_THRESHOLD is saved as one snapshot right away instead of being journaled
+     * and compacted afterwards.
+     *
+     * In shared mode the whole batch is committed under one store lock; if any entry conflicts
+     * with a change of another instance, every entry of the batch is undone.
+     *
+     * @throws StorageConflictException in shared mode, if another instance changed the same data first
+     */
+    public CompletableFuture<Void> recordChanges(EventDatabase database, List<JournalEntry> entries) {
+        if (entries.isEmpty()) return CompletableFuture.completedFuture(null);
+        for (JournalEntry entry : entries) {
+            database.markDirty(entry.getPartitions());
+        }
+
+        if (shared) {
+            return commitShared(database, entries);
+        }
+
+        for (JournalEntry entry : entries) {
+            entry.commitVersion(database);
+        }
+        int pending = journal.size() + (writeBehind != null ? writeBehind.getPendingCount() : 0);
+        if (!journaled || pending + entries.size() >= COMPACTION_THRESHOLD) {
+            System.out.println("--- Saving batch of " + entries.size() + " change(s) as a snapshot ---");
+            return saveDataAsync(database);
+        }
+
+        if (writeBehind != null) {
+            return writeBehind.submitAll(entries);
+        }
+
+        try {
+            appendToJournal(entries);
+        } catch (IOException e) {
+            System.out.println("!!! ERROR writing journal, saving full snapshot instead: " + e.getMessage());
+            return saveDataAsync(database);
+        }
+        return CompletableFuture.completedFuture(null);
+    }
+
+    private CompletableFuture<Void> commitShared(EventDatabase database, JournalEntry entry) {
+        return commitShared(database, Collections.singletonList(entry));
+    }
+
+    private CompletableFuture<Void> commitShared(EventDatabase database, List<JournalEntry> entries) {
+        synchronized (ioLock) {
+            try {
+                StoreLock lock = StoreLock.acquire();
+                try {
+                    List<JournalEntry> committed = catchUp(database);
+                    String conflict = null;
+                    for (int i = 0; i < entries.size() && conflict == null && !committed.isEmpty(); i++) {
+                        conflict = entries.get(i).conflictWith(committed, database);
+                    }
+                    if (conflict != null) {
+                        for (int i = entries.size() - 1; i >= 0; i--) {
+                            entries.get(i).revert(database);
+                        }
+                        System.out.println("!!! Conflict with another instance: " + conflict);
+                        throw new StorageConflictException(conflict);
+                    }
+
+                    for (JournalEntry entry : entries) {
+                        entry.commitVersion(database);
+                    }
+                    journal.appendAll(entries);
+                    journalOffset = journal.length();
+                } finally {
+                    lock.close();
+                }
+            } catch (IOException e) {
+                System.out.println("!!! ERROR writing journal: " + e.getMessage());
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+
+        if (!journaled || journal.size() >= COMPACTION_THRESHOLD) {
+            if (writeBehind == null || !writeBehind.isSnapshotPending()) {
+                System.out.println("--- Compacting journal (" + journal.size() + " entries) ---");
+                return saveDataAsync(database);
+            }
+        }
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Shared mode: applies every journal entry other instances committed since this instance
+     * last read the journal, including entries in journals archived by their compactions.
+     * Must be called with the store lock held. Returns the applied entries.
+     */
+    private List<JournalEntry> catchUp(EventDatabase database) throws IOException {
+        if (stale) {
+            throw new StorageConflictException("Changes from another desk were missed. Please restart the application.");
+        }
+
+        long generation = readGeneration();
+        List<JournalEntry> committed = new ArrayList<>();
+        while (consumedGeneration < generation) {
+            Path archive = archiveFor(consumedGeneration);
+            if (!Files.exists(archive)) {
+                stale = true;
+                throw new StorageConflictException("Changes from another desk were missed. Please restart the application.");
+            }
+            committed.addAll(StorageJournal.readFrom(archive, journalOffset));
+            consumedGeneration++;
+            journalOffset = 0;
+            journal.resetCount();
+        }
+        committed.addAll(journal.readFrom(journalOffset));
+        journalOffset = journal.length();
+        int read = committed.size();
+
+        for (Iterator<JournalEntry> it = committed.iterator(); it.hasNext(); ) {
+            JournalEntry entry = it.next();
+            try {
+                entry.apply(database);
+                database.markDirty(entry.partitionsIn(database));
+            } catch (RuntimeException e) {
+                System.out.println("!!! Skipping journal entry " + entry.getType() + " that could not be applied: " + e);
+                it.remove();
+            }
+        }
+        if (read > 0) {
+            journal.countExternal(read);
+            System.out.println("--- Merged " + committed.size() + " change(s) from other instances ---");
+        }
+        writeLease();
+        return committed;
+    }
+
+    /**
+     * Blocks until all queued background writes are on disk. No-op without write-behind.
+     */
+    public void flush() {
+        if (writeBehind != null) {
+            writeBehind.flush();
+        }
+    }
+
+    /**
+     * Flushes pending writes and stops the background writer. Called when the application exits.
+     */
+    public void shutdown() {
+        if (writeBehind != null) {
+            writeBehind.close();
+            writeBehind = null;
+        }
+        synchronized (ioLock) {
+            try {
+                journal.close();
+                if (shared) {
+                    Files.deleteIfExists(leaseFile());
+                }
+                if (nodeLease != null) {
+                    nodeLease.close();
+                    nodeLease = null;
+                }
+            } catch (IOException e) {
+                System.out.println("!!! ERROR closing journal: " + e.getMessage());
+            }
+        }
+    }
+
+    // --- File writes (called directly or from the WriteBehindSaver thread) ---
+
+    /**
+     * Writes each snapshot file to a temporary file first and then moves it into place,
+     * so a crash mid-save never leaves a half-written file behind. The journal is only
+     * cleared once every file is written; replaying it over newer files is harmless.
+     * Shared mode writes its snapshots through saveShared instead.
+     */
+    void writeSnapshotFiles(Map<Path, SnapshotTables> files) throws IOException {
+        synchronized (ioLock) {
+            writeFiles(files);
+            journal.clear();
+        }
+    }
+
+    private void writeFiles(Map<Path, SnapshotTables> files) throws IOException {
+        for (Map.Entry<Path, SnapshotTables> file : files.entrySet()) {
+            Path target = file.getKey();
+            Path temp = Paths.get(target + ".tmp");
+            if (target.getParent() != null) {
+                Files.createDirectories(target.getParent());
+            }
+
+            try (OutputStream out = new BufferedOutputStream(new FileOutputStream(temp.toFile()))) {
+                if (format == StorageFormat.XML) {
+                    // Flat ID tables keep the XML shallow instead of nesting the whole object graph
+                    try (XMLEncoder encoder = new XMLEncoder(out)) {
+                        encoder.writeObject(file.getValue());
+                    }
+                } else {
+                    new BinarySnapshotCodec(compressed).write(file.getValue(), out);
+                }
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+
+        System.out.println("--- Data successfully saved to " + format.getFilename()
+                + " (" + files.size() + " file(s) written) ---");
+    }
+
+    void appendToJournal(List<JournalEntry> entries) throws IOException {
+        synchronized (ioLock) {
+            journal.appendAll(entries);
+        }
+    }
+
+    // =================================================
+    // LOADING
+    // =================================================
+
+    public synchronized EventDatabase loadData() {
+        // Queued writes must reach disk before the files are read back
+        flush();
 
-            EventDatabase database = (EventDatabase) decoder.readObject();
-            System.out.println("--- Data successfully loaded from " + FILENAME + " ---");
-            return database;
+        if (!snapshotExists(format)) {
+            for (StorageFormat legacy : new StorageFormat[]{StorageFormat.BINARY, StorageFormat.XML}) {
+                if (legacy != format && snapshotExists(legacy)) {
+                    return migrateFrom(legacy);
+                }
+            }
+        }
+
+        if (!shared) {
+            return loadCurrent();
+        }
+
+        // Other instances must not compact or append while the snapshot and journal are read
+        synchronized (ioLock) {
+            try {
+                StoreLock lock = StoreLock.acquire();
+                try {
+                    EventDatabase database = loadCurrent();
+                    consumedGeneration = readGeneration();
+                    journalOffset = journal.length();
+                    stale = false;
+                    writeLease();
+                    return database;
+                } finally {
+                    lock.close();
+                }
+            } catch (IOException e) {
+                System.out.println("!!! ERROR locking the data store: " + e.getMessage());
+                return loadCurrent();
+            }
+        }
+    }
+
+    private EventDatabase loadCurrent() {
+        EventDatabase database;
+        try {
+            database = readSnapshot(format);
+            database.clearDirty();
+            if (format == StorageFormat.PARTITIONED && !Files.exists(PartitionedStore.INDEX_FILE)) {
+                // Written before the event index existed: rewrite once so the index is created
+                database.markAllDirty();
+            }
+            System.out.println("--- Data successfully loaded from " + format.getFilename() + " ---");
 
         } catch (Exception e) {
             System.out.println("!!! No save file found or error loading data. Creating new database... !!!");
+            database = new EventDatabase();
+        }
+
+        replayJournal(database);
+        return database;
+    }
+
+    private static boolean snapshotExists(StorageFormat source) {
+        if (source == StorageFormat.PARTITIONED) {
+            return PartitionedStore.exists();
+        }
+        return Files.exists(Paths.get(source.getFilename()));
+    }
+
+    private EventDatabase readSnapshot(StorageFormat source) throws IOException {
+        if (source == StorageFormat.PARTITIONED) {
+            PartitionedStore store = new PartitionedStore(compressed);
+            if (lazy && Files.exists(PartitionedStore.INDEX_FILE)) {
+                return LazyEventLoader.open(store, LAZY_CACHE_SEGMENTS);
+            }
+            return store.readAll().toDatabase();
+        }
+
+        try (InputStream in = new BufferedInputStream(new FileInputStream(source.getFilename()))) {
+            if (source == StorageFormat.BINARY) {
+                return new BinarySnapshotCodec(compressed).read(in);
+            }
+            try (XMLDecoder decoder = new XMLDecoder(in)) {
+                Object root = decoder.readObject();
+                if (root instanceof SnapshotTables) {
+                    return ((SnapshotTables) root).toDatabase();
+                }
+                // Files written before the tables existed hold the object graph directly
+                return (EventDatabase) root;
+            }
+        }
+    }
+
+    /**
+     * One-time migration: loads an older snapshot (event_data.bin or event_data.xml) and
+     * writes it out in the current format. The old file is left untouched; once the new
+     * snapshot exists it is no longer read.
+     */
+    private EventDatabase migrateFrom(StorageFormat legacy) {
+        EventDatabase database;
+        try {
+            database = readSnapshot(legacy);
+        } catch (Exception e) {
+            System.out.println("!!! ERROR migrating " + legacy.getFilename() + ": " + e.getMessage());
             return new EventDatabase();
         }
+
+        // Pending journal entries belong on top of the old snapshot, so replay before re-saving
+        replayJournal(database);
+        if (shared) {
+            try {
+                StoreLock lock = StoreLock.acquire();
+                try {
+                    consumedGeneration = readGeneration();
+                    journalOffset = journal.length();
+                } finally {
+                    lock.close();
+                }
+            } catch (IOException e) {
+                System.out.println("!!! ERROR locking the data store: " + e.getMessage());
+            }
+        }
+        database.markAllDirty();
+        saveData(database);
+        System.out.println("--- Migrated " + legacy.getFilename() + " to " + format.getFilename() + " ---");
+        return database;
+    }
+
+    /**
+     * Applies any journal entries written since the last snapshot.
+     * Replayed changes are not in any snapshot file yet, so the partitions they touch
+     * are marked dirty for the next save.
+     */
+    private void replayJournal(EventDatabase database) {
+        try {
+            List<JournalEntry> entries = journal.readAll();
+            if (entries.isEmpty()) return;
+
+            int skipped = 0;
+            for (JournalEntry entry : entries) {
+                try {
+                    entry.apply(database);
+                    database.markDirty(entry.partitionsIn(database));
+                } catch (RuntimeException e) {
+                    System.out.println("!!! Skipping journal entry " + entry.getType() + " that could not be applied: " + e);
+                    skipped++;
+                }
+            }
+            System.out.println("--- Replayed " + (entries.size() - skipped) + " journal entries from " + JOURNAL_FILENAME + " ---");
+        } catch (IOException e) {
+            System.out.println("!!! ERROR reading journal: " + e.getMessage());
+        }
+    }
+
+    // =================================================
+    // SHARED MODE FILES
+    // =================================================
+
+    private static long readGeneration() throws IOException {
+        if (!Files.exists(GENERATION_FILE)) return 0;
+        return Long.parseLong(new String(Files.readAllBytes(GENERATION_FILE), StandardCharsets.UTF_8).trim());
+    }
+
+    private static void writeGeneration(long generation) throws IOException {
+        Path temp = Paths.get(GENERATION_FILE + ".tmp");
+        Files.write(temp, String.valueOf(generation).getBytes(StandardCharsets.UTF_8));
+        Files.move(temp, GENERATION_FILE, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static Path archiveFor(long generation) {
+        return Paths.get(JOURNAL_FILENAME + "." + generation);
+    }
+
+    private Path leaseFile() {
+        return LEASE_DIRECTORY.resolve(instanceID + ".lease");
+    }
+
+    /**
+     * Records which journal generation this instance still needs. The file's modification
+     * time doubles as a heartbeat.
+     */
+    private void writeLease() throws IOException {
+        Files.createDirectories(LEASE_DIRECTORY);
+        Files.write(leaseFile(), String.valueOf(consumedGeneration).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Deletes archived journals that no live instance still has to read.
+     */
+    private void deleteUnusedArchives() throws IOException {
+        long oldestNeeded = consumedGeneration;
+        long now = System.currentTimeMillis();
+        try (DirectoryStream<Path> leases = Files.newDirectoryStream(LEASE_DIRECTORY, "*.lease")) {
+            for (Path lease : leases) {
+                if (now - Files.getLastModifiedTime(lease).toMillis() > LEASE_TIMEOUT_MILLIS) {
+                    Files.deleteIfExists(lease);
+                    continue;
+                }
+                try {
+                    long needed = Long.parseLong(new String(Files.readAllBytes(lease), StandardCharsets.UTF_8).trim());
+                    oldestNeeded = Math.min(oldestNeeded, needed);
+                } catch (NumberFormatException e) {
+                    // Lease being written by another instance; it is rewritten on its next commit
+                }
+            }
+        }
+        for (long generation = oldestNeeded - 1; generation >= 0; generation--) {
+            if (!Files.deleteIfExists(archiveFor(generation))) break;
+        }
+    }
+
+    public boolean isJournaled() { return journaled; }
+    public void setJournaled(boolean journaled) { this.journaled = journaled; }
+
+    /**
+     * Switches between synchronous writes and the background WriteBehindSaver.
+     */
+    public boolean isWriteBehind() { return writeBehind != null; }
+    public void setWriteBehind(boolean enabled) {
+        if (enabled && writeBehind == null) {
+            writeBehind = new WriteBehindSaver(this);
+        } else if (!enabled && writeBehind != null) {
+            writeBehind.close();
+            writeBehind = null;
+        }
     }
-}
\ No newline at end of file
+
+    /**
+     * With the partitioned format, loads only users, rooms and the event index at startup
+     * and reads event segments on demand (see LazyEventLoader).
+     */
+    public boolean isLazy() { return lazy; }
+    public void setLazy(boolean lazy) { this.lazy = lazy; }
+
+    /**
+     * Shared mode lets several app instances use the same data store: every change is committed
+     * under a file lock after merging the changes of the other instances (see recordChange).
+     * Each instance also reserves its own ID generator node, so new IDs never collide.
+     */
+    public boolean isShared() { return shared; }
+    public void setShared(boolean shared) {
+        this.shared = shared;
+        journal.setKeepOpen(!shared);
+        if (shared) {
+            reserveIdNode();
+        }
+    }
+
+    private void reserveIdNode() {
+        if (nodeLease != null) return;
+        try {
+            nodeLease = NodeLease.claim(LEASE_DIRECTORY);
+            IdService.setGenerator(new SnowflakeIdGenerator(nodeLease.getNode()));
+            System.out.println("--- Reserved ID generator node " + nodeLease.getNode() + " ---");
+        } catch (IOException e) {
+            System.out.println("!!! ERROR reserving an ID generator node, using a random one: " + e.getMessage());
+        }
+    }
+
+    public StorageFormat getFormat() { return format; }
+    public void setFormat(StorageFormat format) { this.format = format; }
+
+    /**
+     * Enables gzip compression of binary snapshots. Readers detect compression from the header.
+     */
+    public boolean isCompressed() { return compressed; }
+    public void setCompressed(boolean compressed) { this.compressed = compressed; }
+}
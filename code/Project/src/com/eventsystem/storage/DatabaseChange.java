@@ -0,0 +1,124 @@
+package com.eventsystem.storage;
+
+import com.eventsystem.model.Event;
+import com.eventsystem.model.EventStatus;
+import com.eventsystem.model.Registration;
+import com.eventsystem.model.Room;
+import com.eventsystem.model.User;
+
+/**
+ * A change of the data in an EventDatabase, published on its ChangeBus.
+ *
+ * Subscribers pick the kinds they care about by class, e.g. EventChange for everything that
+ * affects how an event is listed, or UserAdded alone. Changes made by loading a database
+ * are not published; changes replayed from the journal of another app instance are.
+ */
+public abstract class DatabaseChange {
+
+    private DatabaseChange() {
+    }
+
+    // =================================================
+    // EVENTS
+    // =================================================
+
+    /**
+     * Any change of one event (added, updated, status, registrations, removed).
+     */
+    public abstract static class EventChange extends DatabaseChange {
+        private final Event event;
+
+        private EventChange(Event event) {
+            this.event = event;
+        }
+
+        public Event getEvent() { return event; }
+    }
+
+    public static final class EventAdded extends EventChange {
+        public EventAdded(Event event) { super(event); }
+    }
+
+    /**
+     * The event was taken out of the database again (an addition that could not be committed).
+     */
+    public static final class EventRemoved extends EventChange {
+        public EventRemoved(Event event) { super(event); }
+    }
+
+    /**
+     * Title, description, capacity, organizer, room or times changed.
+     */
+    public static final class EventUpdated extends EventChange {
+        public EventUpdated(Event event) { super(event); }
+    }
+
+    public static final class StatusChanged extends EventChange {
+        private final EventStatus previous;
+
+        public StatusChanged(Event event, EventStatus previous) {
+            super(event);
+            this.previous = previous;
+        }
+
+        public EventStatus getPrevious() { return previous; }
+    }
+
+    public static final class RegistrationAdded extends EventChange {
+        private final Registration registration;
+
+        public RegistrationAdded(Event event, Registration registration) {
+            super(event);
+            this.registration = registration;
+        }
+
+        public Registration getRegistration() { return registration; }
+    }
+
+    public static final class RegistrationRemoved extends EventChange {
+        private final Registration registration;
+
+        public RegistrationRemoved(Event event, Registration registration) {
+            super(event);
+            this.registration = registration;
+        }
+
+        public Registration getRegistration() { return registration; }
+    }
+
+    // =================================================
+    // USERS AND ROOMS
+    // =================================================
+
+    public static final class UserAdded extends DatabaseChange {
+        private final User user;
+
+        public UserAdded(User user) { this.user = user; }
+
+        public User getUser() { return user; }
+    }
+
+    public static final class UserRemoved extends DatabaseChange {
+        private final User user;
+
+        public UserRemoved(User user) { this.user = user; }
+
+        public User getUser() { return user; }
+    }
+
+    public static final class RoomAdded extends DatabaseChange {
+        private final Room room;
+
+        public RoomAdded(Room room) { this.room = room; }
+
+        public Room getRoom() { return room; }
+    }
+
+    public static final class RoomRemoved extends DatabaseChange {
+        private final Room room;
+
+        public RoomRemoved(Room room) { this.room = room; }
+
+        public Room getRoom() { return room; }
+    }
+}
@@ -0,0 +1,78 @@
+package com.eventsystem.storage;
+
+import com.eventsystem.model.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Hash indexes over the lists of an EventDatabase: users by normalized email and by userID,
+ * events by eventID and rooms by roomID.
+ *
+ * The data may contain duplicate emails and userIDs, so users are indexed as small lists;
+ * callers pick the user they need from the few candidates. The database keeps the indexes
+ * in sync through its add/remove methods and rebuilds them when a list is replaced.
+ */
+class DatabaseIndex {
+
+    private final Map<String, List<User>> usersByEmail = new HashMap<>();
+    private final Map<String, List<User>> usersByID = new HashMap<>();
+    private final Map<String, Event> eventsByID = new HashMap<>();
+    private final Map<String, Room> roomsByID = new HashMap<>();
+
+    DatabaseIndex(EventDatabase db) {
+        for (User u : db.getStudents()) addUser(u);
+        for (User u : db.getOrganizers()) addUser(u);
+        for (User u : db.getAdministrators()) addUser(u);
+        for (Event e : db.loadedEvents()) addEvent(e);
+        for (Room r : db.getRooms()) addRoom(r);
+    }
+
+    /**
+     * Emails are compared trimmed and case-insensitively.
+     */
+    static String normalize(String email) {
+        return (email == null) ? "" : email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // --- Users ---
+
+    void addUser(User user) {
+        usersByEmail.computeIfAbsent(normalize(user.getEmail()), k -> new ArrayList<>(1)).add(user);
+        usersByID.computeIfAbsent(user.getUserID(), k -> new ArrayList<>(1)).add(user);
+    }
+
+    void removeUser(User user) {
+        removeFrom(usersByEmail, normalize(user.getEmail()), user);
+        removeFrom(usersByID, user.getUserID(), user);
+    }
+
+    List<User> usersWithEmail(String email) {
+        return usersByEmail.getOrDefault(normalize(email), Collections.emptyList());
+    }
+
+    List<User> usersWithID(String userID) {
+        return usersByID.getOrDefault(userID, Collections.emptyList());
+    }
+
+    private static void removeFrom(Map<String, List<User>> map, String key, User user) {
+        List<User> users = map.get(key);
+        if (users == null) return;
+        users.removeIf(u -> u == user);
+        if (users.isEmpty()) map.remove(key);
+    }
+
+    // --- Events and rooms (the first one with an ID wins, like a scan of the list) ---
+
+    void addEvent(Event event) { eventsByID.putIfAbsent(event.getEventID(), event); }
+    void removeEvent(Event event) { eventsByID.remove(event.getEventID(), event); }
+    Event event(String eventID) { return eventsByID.get(eventID); }
+
+    void addRoom(Room room) { roomsByID.putIfAbsent(room.getRoomID(), room); }
+    void removeRoom(Room room) { roomsByID.remove(room.getRoomID(), room); }
+    Room room(String roomID) { return roomsByID.get(roomID); }
+}
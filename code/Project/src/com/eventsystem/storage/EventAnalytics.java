@@ -0,0 +1,220 @@
+package com.eventsystem.storage;
+
+import com.eventsystem.model.Administrator;
+import com.eventsystem.model.Event;
+import com.eventsystem.model.EventOrganizer;
+import com.eventsystem.model.EventStatus;
+import com.eventsystem.model.Registration;
+import com.eventsystem.model.Room;
+import com.eventsystem.model.Student;
+import com.eventsystem.model.User;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Dashboard statistics of an EventDatabase, kept current from its ChangeBus instead of being
+ * recomputed: events per status, registrations per event, room and organizer, a histogram of
+ * how full the active events are, registrations per day, and the number of users and rooms.
+ *
+ * Each event's share of the counters is remembered, so any change of an event takes its old
+ * share out and adds the new one (O(1)); the getters only read counters. Built once from every
+ * event by EventDatabase.getAnalytics(). Changes may arrive on any thread.
+ */
+public class EventAnalytics {
+
+    /**
+     * Buckets of the fill histogram: 0-9%, 10-19%, ..., 90-99% and full.
+     */
+    public static final int FILL_BUCKETS = 11;
+
+    private final Map<String, Share> shares = new HashMap<>();
+    private final Map<EventStatus, Integer> eventsByStatus = new EnumMap<>(EventStatus.class);
+    private final Map<String, Integer> registrationsByRoom = new HashMap<>();
+    private final Map<String, Integer> registrationsByOrganizer = new HashMap<>();
+    private final int[] fillHistogram = new int[FILL_BUCKETS];
+    private final TreeMap<LocalDate, Integer> registrationsByDay = new TreeMap<>();
+    private long registrations;
+    private int students;
+    private int organizers;
+    private int administrators;
+    private int rooms;
+
+    private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+    private ChangeBus.Subscription subscription;
+
+    EventAnalytics() {
+        for (EventStatus status : EventStatus.values()) {
+            eventsByStatus.put(status, 0);
+        }
+    }
+
+    /**
+     * Counts the database's current contents and starts following its changes.
+     */
+    synchronized void attach(EventDatabase db) {
+        subscription = db.getChangeBus().subscribe(DatabaseChange.class, this::apply);
+        for (Event e : new ArrayList<>(db.getEvents())) {
+            eventChanged(e);
+            for (Registration reg : e.getRegistrations()) countDay(reg, 1);
+        }
+        students = db.getStudents().size();
+        organizers = db.getOrganizers().size();
+        administrators = db.getAdministrators().size();
+        rooms = db.getRooms().size();
+    }
+
+    /**
+     * Stops following the database (called when its lists are replaced wholesale).
+     */
+    synchronized void detach() {
+        if (subscription != null) subscription.close();
+        subscription = null;
+    }
+
+    /**
+     * Calls the listener after every change of the counters, on the thread that made the change.
+     */
+    public ChangeBus.Subscription subscribe(Runnable listener) {
+        listeners.add(listener);
+        return () -> listeners.remove(listener);
+    }
+
+    // =================================================
+    // UPDATES
+    // =================================================
+
+    private void apply(DatabaseChange change) {
+        synchronized (this) {
+            if (change instanceof DatabaseChange.RegistrationAdded) {
+                countDay(((DatabaseChange.RegistrationAdded) change).getRegistration(), 1);
+            } else if (change instanceof DatabaseChange.RegistrationRemoved) {
+                countDay(((DatabaseChange.RegistrationRemoved) change).getRegistration(), -1);
+            } else if (change instanceof DatabaseChange.EventAdded) {
+                for (Registration reg : ((DatabaseChange.EventAdded) change).getEvent().getRegistrations()) countDay(reg, 1);
+            }
+
+            if (change instanceof DatabaseChange.EventRemoved) {
+                eventRemoved(((DatabaseChange.EventRemoved) change).getEvent());
+            } else if (change instanceof DatabaseChange.EventChange) {
+                eventChanged(((DatabaseChange.EventChange) change).getEvent());
+            } else if (change instanceof DatabaseChange.UserAdded) {
+                countUser(((DatabaseChange.UserAdded) change).getUser(), 1);
+            } else if (change instanceof DatabaseChange.UserRemoved) {
+                countUser(((DatabaseChange.UserRemoved) change).getUser(), -1);
+            } else if (change instanceof DatabaseChange.RoomAdded) {
+                rooms++;
+            } else if (change instanceof DatabaseChange.RoomRemoved) {
+                rooms--;
+            }
+        }
+        for (Runnable listener : listeners) listener.run();
+    }
+
+    private void eventChanged(Event e) {
+        Share previous = shares.put(e.getEventID(), new Share(e));
+        if (previous != null) count(previous, -1);
+        count(shares.get(e.getEventID()), 1);
+    }
+
+    private void eventRemoved(Event e) {
+        Share previous = shares.remove(e.getEventID());
+        if (previous != null) count(previous, -1);
+        for (Registration reg : e.getRegistrations()) countDay(reg, -1);
+    }
+
+    private void count(Share share, int sign) {
+        if (share.status != null) eventsByStatus.merge(share.status, sign, Integer::sum);
+        registrations += sign * share.registered;
+        if (share.roomID != null) registrationsByRoom.merge(share.roomID, sign * share.registered, Integer::sum);
+        if (share.organizerID != null) {
+            registrationsByOrganizer.merge(share.organizerID, sign * share.registered, Integer::sum);
+        }
+        if (share.fillBucket >= 0) fillHistogram[share.fillBucket] += sign;
+    }
+
+    private void countDay(Registration reg, int sign) {
+        Date at = reg.getTimestamp();
+        if (at == null) return;
+        LocalDate day = at.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+        if (registrationsByDay.merge(day, sign, Integer::sum) == 0) registrationsByDay.remove(day);
+    }
+
+    private void countUser(User u, int sign) {
+        if (u instanceof Administrator) {
+            administrators += sign;
+        } else if (u instanceof EventOrganizer) {
+            organizers += sign;
+        } else if (u instanceof Student) {
+            students += sign;
+        }
+    }
+
+    /**
+     * What one event adds to the counters.
+     */
+    private static final class Share {
+        final EventStatus status;
+        final String roomID;
+        final String organizerID;
+        final int registered;
+        final int fillBucket;
+
+        Share(Event e) {
+            Room room = e.getRoom();
+            this.status = e.getEventStatus();
+            this.roomID = (room != null) ? room.getRoomID() : null;
+            this.organizerID = (e.getOrganizer() != null) ? e.getOrganizer().getUserID() : null;
+            this.registered = e.getRegistrations().size();
+            this.fillBucket = (status == EventStatus.ACTIVE && e.getCapacity() > 0)
+                    ? Math.min(FILL_BUCKETS - 1, registered * (FILL_BUCKETS - 1) / e.getCapacity())
+                    : -1;
+        }
+    }
+
+    // =================================================
+    // READING
+    // =================================================
+
+    public synchronized int getEventCount(EventStatus status) { return eventsByStatus.get(status); }
+    public synchronized int getEventCount() { return shares.size(); }
+    public synchronized long getRegistrationCount() { return registrations; }
+
+    public synchronized int getRegistrationsForEvent(String eventID) {
+        Share share = shares.get(eventID);
+        return (share != null) ? share.registered : 0;
+    }
+
+    public synchronized int getRegistrationsForRoom(String roomID) {
+        return registrationsByRoom.getOrDefault(roomID, 0);
+    }
+
+    public synchronized int getRegistrationsForOrganizer(String organizerID) {
+        return registrationsByOrganizer.getOrDefault(organizerID, 0);
+    }
+
+    /**
+     * Number of active events per fill bucket (see FILL_BUCKETS).
+     */
+    public synchronized int[] getFillHistogram() { return fillHistogram.clone(); }
+
+    public synchronized int getRegistrationsOn(LocalDate day) { return registrationsByDay.getOrDefault(day, 0); }
+
+    /**
+     * Registrations per day (days without registrations are left out), oldest first.
+     */
+    public synchronized TreeMap<LocalDate, Integer> getRegistrationsByDay() { return new TreeMap<>(registrationsByDay); }
+
+    public synchronized int getStudentCount() { return students; }
+    public synchronized int getOrganizerCount() { return organizers; }
+    public synchronized int getAdministratorCount() { return administrators; }
+    public synchronized int getRoomCount() { return rooms; }
+}
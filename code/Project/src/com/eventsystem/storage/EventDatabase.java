@@ -3,7 +3,15 @@ package com.eventsystem.storage;
 import com.eventsystem.model.*;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public class EventDatabase implements Serializable {
 
@@ -13,6 +21,43 @@ public class EventDatabase implements Serializable {
     private List<Event> events;
     private List<Room> rooms;
 
+    // --- Dirty tracking for partitioned storage (not persisted) ---
+    private transient Set<String> dirtyPartitions = new HashSet<>();
+    private transient boolean allDirty = true;
+
+    // Partitions captured by a snapshot that is not on disk yet, with the number of that save
+    private transient Map<String, Long> savingPartitions = new HashMap<>();
+    private transient long allSavingUntil;
+    private transient long saveCount;
+
+    // --- On-demand loading of event segments (null once every event is in memory) ---
+    private transient LazyEventLoader loader;
+
+    // --- Hash indexes by email, userID, eventID and roomID (built on first use) ---
+    private transient DatabaseIndex index;
+
+    // --- In-memory events by status, kept current on every transition (built on first use) ---
+    private transient StatusIndex statusIndex;
+
+    // --- In-memory events by start time for calendar queries (built on first use) ---
+    private transient CalendarIndex calendarIndex;
+
+    // --- Full-text index over the in-memory events for the admin search (built on first use) ---
+    private transient volatile SearchIndex searchIndex;
+
+    // --- Rooms by capacity for the free-room search (built on first use) ---
+    private transient RoomSearchIndex roomIndex;
+
+    // --- Dashboard statistics, kept current from the change bus (built on first use) ---
+    private transient volatile EventAnalytics analytics;
+
+    // --- Campus reports, cached per event segment (built on first use) ---
+    private transient volatile ReportEngine reportEngine;
+
+    // --- Change notification: the listener of every in-memory event, and the bus it feeds ---
+    private transient Watcher watcher;
+    private transient volatile ChangeBus changeBus;
+
     public EventDatabase() {
         this.students = new ArrayList<>();
         this.organizers = new ArrayList<>();
@@ -22,23 +67,694 @@ public class EventDatabase implements Serializable {
     }
 
     public List<Student> getStudents() { return students; }
-    public void setStudents(List<Student> students) { this.students = students; }
+    public void setStudents(List<Student> students) {
+        this.students = students;
+        this.index = null;
+        resetStatistics();
+    }
 
     public List<EventOrganizer> getOrganizers() { return organizers; }
-    public void setOrganizers(List<EventOrganizer> organizers) { this.organizers = organizers; }
+    public void setOrganizers(List<EventOrganizer> organizers) {
+        this.organizers = organizers;
+        this.index = null;
+        resetStatistics();
+    }
 
     public List<Administrator> getAdministrators() { return administrators; }
-    public void setAdministrators(List<Administrator> administrators) { this.administrators = administrators; }
+    public void setAdministrators(List<Administrator> administrators) {
+        this.administrators = administrators;
+        this.index = null;
+        resetStatistics();
+    }
 
-    public List<Event> getEvents() { return events; }
-    public void setEvents(List<Event> events) { this.events = events; }
+    /**
+     * Every event. On a lazily loaded database this first loads all remaining event segments.
+     */
+    public List<Event> getEvents() {
+        loadAllEvents();
+        return events;
+    }
+    public void setEvents(List<Event> events) {
+        if (this.events != null) {
+            for (Event e : this.events) e.setListener(null);
+        }
+        synchronized (this) {
+            this.loader = null;
+            this.events = events;
+            this.index = null;
+            this.statusIndex = null;
+            this.calendarIndex = null;
+            this.searchIndex = null;
+        }
+        resetStatistics();
+        for (Event e : events) e.setListener(watcher());
+    }
 
     public List<Room> getRooms() { return rooms; }
-    public void setRooms(List<Room> rooms) { this.rooms = rooms; }
+    public void setRooms(List<Room> rooms) {
+        this.rooms = rooms;
+        this.roomIndex = null;
+        this.index = null;
+        resetStatistics();
+    }
+
+    public void addStudent(Student s) {
+        this.students.add(s);
+        if (index != null) index.addUser(s);
+        markDirty(PartitionedStore.STUDENTS);
+        publish(new DatabaseChange.UserAdded(s));
+    }
+
+    public void addOrganizer(EventOrganizer o) {
+        this.organizers.add(o);
+        if (index != null) index.addUser(o);
+        markDirty(PartitionedStore.ORGANIZERS);
+        publish(new DatabaseChange.UserAdded(o));
+    }
+
+    public void addAdministrator(Administrator a) {
+        this.administrators.add(a);
+        if (index != null) index.addUser(a);
+        markDirty(PartitionedStore.ADMINISTRATORS);
+        publish(new DatabaseChange.UserAdded(a));
+    }
+
+    public void addEvent(Event e) {
+        if (e.getLastModified() == 0) e.setLastModified(System.currentTimeMillis());
+        synchronized (this) {
+            this.events.add(e);
+            track(e);
+        }
+        markDirty(PartitionedStore.eventSegment(e));
+        publish(new DatabaseChange.EventAdded(e));
+    }
+
+    /**
+     * Undoes addEvent for an event that could not be committed. Room bookings and
+     * registrations are left to the caller.
+     */
+    public void removeEvent(Event e) {
+        boolean removed;
+        synchronized (this) {
+            removed = this.events.remove(e);
+            if (removed) {
+                e.setListener(null);
+                if (index != null) index.removeEvent(e);
+                if (statusIndex != null) statusIndex.remove(e);
+                if (calendarIndex != null) calendarIndex.remove(e);
+                if (searchIndex != null) searchIndex.remove(e);
+            }
+        }
+        markDirty(PartitionedStore.eventSegment(e));
+        if (removed) publish(new DatabaseChange.EventRemoved(e));
+    }
+
+    /**
+     * Moves an event to a new time (see Event.reschedule). Both the old and the new
+     * segment are marked dirty, since the event may move to another month.
+     */
+    public boolean rescheduleEvent(Event e, Date newStart, Date newEnd) {
+        String previousSegment = PartitionedStore.eventSegment(e);
+        if (!e.reschedule(newStart, newEnd)) return false;
+        markDirty(previousSegment);
+        markDirty(PartitionedStore.eventSegment(e));
+        return true;
+    }
+
+    public void addRoom(Room r) {
+        this.rooms.add(r);
+        if (index != null) index.addRoom(r);
+        if (roomIndex != null) roomIndex.add(r);
+        markDirty(PartitionedStore.ROOMS);
+        publish(new DatabaseChange.RoomAdded(r));
+    }
+
+    public void removeRoom(Room r) {
+        if (this.rooms.remove(r)) {
+            if (index != null) index.removeRoom(r);
+            if (roomIndex != null) roomIndex.remove(r);
+            publish(new DatabaseChange.RoomRemoved(r));
+        }
+        markDirty(PartitionedStore.ROOMS);
+    }
+
+    /**
+     * Removes a student, organizer or administrator (the exact instance) from its list.
+     */
+    public void removeUser(User u) {
+        boolean removed;
+        if (u instanceof Administrator) {
+            removed = this.administrators.remove(u);
+            markDirty(PartitionedStore.ADMINISTRATORS);
+        } else if (u instanceof EventOrganizer) {
+            removed = this.organizers.remove(u);
+            markDirty(PartitionedStore.ORGANIZERS);
+        } else {
+            removed = this.students.remove(u);
+            markDirty(PartitionedStore.STUDENTS);
+        }
+        if (removed) {
+            if (index != null) index.removeUser(u);
+            publish(new DatabaseChange.UserRemoved(u));
+        }
+    }
+
+    // --- Lookups (hash indexes) ---
+
+    private DatabaseIndex index() {
+        if (index == null) index = new DatabaseIndex(this);
+        return index;
+    }
+
+    /**
+     * The user with this email and password, or null. Administrators are checked first,
+     * then organizers, then students.
+     */
+    public User authenticate(String email, String password) {
+        List<User> candidates = index().usersWithEmail(email);
+        for (Class<? extends User> role : List.of(Administrator.class, EventOrganizer.class, Student.class)) {
+            for (User u : candidates) {
+                if (role.isInstance(u) && u.login(email, password)) return u;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * True if any user already has this email (ignoring case and surrounding spaces).
+     */
+    public boolean isEmailTaken(String email) {
+        return !index().usersWithEmail(email).isEmpty();
+    }
+
+    /**
+     * Every user with this email (ignoring case and surrounding spaces).
+     */
+    public List<User> findUsersByEmail(String email) {
+        return new ArrayList<>(index().usersWithEmail(email));
+    }
+
+    /**
+     * The user with this ID, or null. Students are checked first, then organizers, then administrators.
+     */
+    public User findUser(String userID) {
+        List<User> candidates = index().usersWithID(userID);
+        for (Class<? extends User> role : List.of(Student.class, EventOrganizer.class, Administrator.class)) {
+            for (User u : candidates) {
+                if (role.isInstance(u)) return u;
+            }
+        }
+        return null;
+    }
+
+    public Room findRoom(String roomID) {
+        return index().room(roomID);
+    }
+
+    // --- Free-room search ---
+
+    /**
+     * Rooms with at least minCapacity seats that are free for the whole [start, end),
+     * smallest room first. Events that can overlap the window are loaded first.
+     */
+    public List<Room> findFreeRooms(Date start, Date end, int minCapacity) {
+        loadEventsBetween(start, end);
+        if (roomIndex == null) roomIndex = new RoomSearchIndex(rooms);
+        return roomIndex.findFree(start, end, minCapacity);
+    }
+
+    // --- Calendar queries (active and pending events only) ---
+
+    /**
+     * Events starting in [from, to), ordered by start time, e.g. "starting in the next hour".
+     */
+    public List<Event> getEventsStartingBetween(Date from, Date to) {
+        loadEventsBetween(from, to);
+        return calendarIndex().startingBetween(from, to);
+    }
+
+    /**
+     * Events running at any time during [from, to), ordered by start time, e.g. "this week".
+     */
+    public List<Event> getEventsBetween(Date from, Date to) {
+        loadEventsBetween(from, to);
+        return calendarIndex().runningBetween(from, to);
+    }
+
+    /**
+     * Events running on the (local) day of the given date.
+     */
+    public List<Event> getEventsOn(Date day) {
+        Calendar cal = Calendar.getInstance();
+        cal.setTime(day);
+        cal.set(Calendar.HOUR_OF_DAY, 0);
+        cal.set(Calendar.MINUTE, 0);
+        cal.set(Calendar.SECOND, 0);
+        cal.set(Calendar.MILLISECOND, 0);
+        Date start = cal.getTime();
+        cal.add(Calendar.DAY_OF_MONTH, 1);
+        return getEventsBetween(start, cal.getTime());
+    }
+
+    /**
+     * Events running during [from, to) in rooms whose location contains the given text
+     * (ignoring case), e.g. everything on in "Building A" today.
+     */
+    public List<Event> getEventsAt(String location, Date from, Date to) {
+        String wanted = location.trim().toLowerCase();
+        List<Event> result = new ArrayList<>();
+        for (Event e : getEventsBetween(from, to)) {
+            Room room = e.getRoom();
+            if (room != null && room.getLocation() != null && room.getLocation().toLowerCase().contains(wanted)) {
+                result.add(e);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Iterates over the events starting at or after the given time, in start order, e.g.
+     * for reminder jobs. On a lazily loaded database all event segments are loaded first.
+     */
+    public Iterator<Event> iterateEventsFrom(Date from) {
+        loadAllEvents();
+        return calendarIndex().iteratorFrom(from);
+    }
+
+    private CalendarIndex calendarIndex() {
+        if (calendarIndex == null) calendarIndex = new CalendarIndex(events);
+        return calendarIndex;
+    }
+
+    // --- Full-text search ---
+
+    /**
+     * Events whose title, organizer, room or description match every word of the query
+     * (as whole words, prefixes or, from three letters on, anywhere inside a word), best
+     * match first. A blank query returns an empty list. All event segments are loaded first,
+     * which changes a lazy database: a background thread may only search once every event is
+     * in memory (see prefetchEvents). Interrupting the search stops it early.
+     *
+     * The index is built on first use under the database's lock, which every change of the
+     * event list also takes, so a build on a background thread reads a consistent list.
+     */
+    public List<Event> searchEvents(String query) {
+        loadAllEvents();
+        SearchIndex s = searchIndex;
+        if (s == null) {
+            synchronized (this) {
+                if (searchIndex == null) searchIndex = new SearchIndex(events);
+                s = searchIndex;
+            }
+        }
+        return s.search(query);
+    }
+
+    // --- Analytics and reports ---
+
+    /**
+     * The dashboard statistics, maintained incrementally from here on. The first call counts
+     * every event (all segments are loaded on a lazy database), later calls return at once.
+     */
+    public EventAnalytics getAnalytics() {
+        EventAnalytics a = analytics;
+        if (a == null) {
+            synchronized (this) {
+                if (analytics == null) {
+                    EventAnalytics built = new EventAnalytics();
+                    built.attach(this);
+                    analytics = built;
+                }
+                a = analytics;
+            }
+        }
+        return a;
+    }
+
+    /**
+     * The report engine behind Administrator.generateReports. The first call sorts every event
+     * into its segment (all segments are loaded on a lazy database).
+     */
+    public ReportEngine getReportEngine() {
+        ReportEngine r = reportEngine;
+        if (r == null) {
+            synchronized (this) {
+                if (reportEngine == null) {
+                    ReportEngine built = new ReportEngine(this);
+                    built.attach();
+                    reportEngine = built;
+                }
+                r = reportEngine;
+            }
+        }
+        return r;
+    }
+
+    private void resetStatistics() {
+        EventAnalytics a = analytics;
+        if (a != null) a.detach();
+        analytics = null;
+        ReportEngine r = reportEngine;
+        if (r != null) r.detach();
+        reportEngine = null;
+    }
 
-    public void addStudent(Student s) { this.students.add(s); }
-    public void addOrganizer(EventOrganizer o) { this.organizers.add(o); }
-    public void addAdministrator(Administrator a) { this.administrators.add(a); }
-    public void addEvent(Event e) { this.events.add(e); }
-    public void addRoom(Room r) { this.rooms.add(r); }
+    // --- Lazy loading ---
+
+    void setLoader(LazyEventLoader loader) { this.loader = loader; }
+
+    /**
+     * A copy of every event, taken under the lock that guards the event list, for readers on
+     * a background thread.
+     */
+    synchronized List<Event> snapshotEvents() {
+        return new ArrayList<>(getEvents());
+    }
+
+    /**
+     * The events currently in memory, without loading anything.
+     */
+    List<Event> loadedEvents() { return events; }
+
+    /**
+     * Adds events read from a segment (lazy loading), without marking anything dirty.
+     */
+    synchronized void attachEvents(List<Event> loaded) {
+        events.addAll(loaded);
+        for (Event e : loaded) track(e);
+    }
+
+    /**
+     * Drops evicted events from memory (lazy loading).
+     */
+    synchronized void detachEvents(Set<Event> evicted) {
+        events.removeIf(evicted::contains);
+        for (Event e : evicted) {
+            e.setListener(null);
+            if (index != null) index.removeEvent(e);
+            if (statusIndex != null) statusIndex.remove(e);
+            if (calendarIndex != null) calendarIndex.remove(e);
+            if (searchIndex != null) searchIndex.remove(e);
+        }
+    }
+
+    /**
+     * Listens to an event that entered memory and adds it to the indexes built so far.
+     */
+    private void track(Event e) {
+        e.setListener(watcher());
+        if (index != null) index.addEvent(e);
+        if (statusIndex != null) statusIndex.add(e);
+        if (calendarIndex != null) calendarIndex.add(e);
+        if (searchIndex != null) searchIndex.add(e);
+    }
+
+    public boolean isFullyLoaded() { return loader == null; }
+
+    /**
+     * True if the event is in memory (never loads anything).
+     */
+    boolean isLoaded(String eventID) {
+        return index().event(eventID) != null;
+    }
+
+    /**
+     * Reads the event segments that are not in memory yet without changing the database, so
+     * that the next getEvents() only links them in. Safe to call from a background thread;
+     * getEvents() itself changes the database on a lazy database and belongs on the thread
+     * that owns it. Returns the number of segments read.
+     */
+    public int prefetchEvents() {
+        LazyEventLoader l = loader;
+        return (l != null) ? l.prefetchAll() : 0;
+    }
+
+    private void loadAllEvents() {
+        LazyEventLoader l = loader;
+        if (l != null) {
+            l.loadAll(this);
+            loader = null;
+        }
+    }
+
+    /**
+     * Finds an event by ID, loading only its own segment.
+     */
+    public Event findEvent(String eventID) {
+        LazyEventLoader l = loader;
+        if (l != null) l.loadEvent(eventID, this);
+        return index().event(eventID);
+    }
+
+    /**
+     * Lists every event as a summary without loading event segments.
+     */
+    public List<EventSummary> getEventSummaries() {
+        LazyEventLoader l = loader;
+        if (l != null) return l.summaries(this);
+        List<EventSummary> summaries = new ArrayList<>(events.size());
+        for (Event e : events) summaries.add(EventSummary.of(e));
+        return summaries;
+    }
+
+    /**
+     * Summaries of the events with the given status. Uses the status indexes, so the cost
+     * is proportional to the result; on a lazy database no segments are loaded.
+     */
+    public List<EventSummary> getEventSummaries(EventStatus status) {
+        LazyEventLoader l = loader;
+        if (l != null) return l.summaries(this, status);
+        List<EventSummary> summaries = new ArrayList<>();
+        for (Event e : statusIndex().eventsWith(status)) summaries.add(EventSummary.of(e));
+        return summaries;
+    }
+
+    // --- Paging: an ID list per query, summaries only for the page on screen ---
+
+    /**
+     * IDs of the events with the given status, in the order of getEventSummaries(status).
+     * Nothing is loaded; pair with getEventSummaries(List) to build one page at a time.
+     */
+    public List<String> getEventIDs(EventStatus status) {
+        LazyEventLoader l = loader;
+        if (l != null) return l.eventIDs(this, status);
+        List<String> ids = new ArrayList<>();
+        for (Event e : statusIndex().eventsWith(status)) ids.add(e.getEventID());
+        return ids;
+    }
+
+    /**
+     * One summary per ID, in the same order (null for an unknown ID). Events in memory are
+     * summarized from the Event, all others from the event index; no segment is loaded.
+     */
+    public List<EventSummary> getEventSummaries(List<String> eventIDs) {
+        LazyEventLoader l = loader;
+        List<EventSummary> summaries = new ArrayList<>(eventIDs.size());
+        for (String eventID : eventIDs) {
+            Event e = index().event(eventID);
+            if (e != null) {
+                summaries.add(EventSummary.of(e));
+            } else {
+                summaries.add((l != null) ? l.summary(eventID) : null);
+            }
+        }
+        return summaries;
+    }
+
+    /**
+     * The events with the given status (all segments are loaded on a lazy database).
+     */
+    public List<Event> getEventsWithStatus(EventStatus status) {
+        loadAllEvents();
+        return statusIndex().eventsWith(status);
+    }
+
+    /**
+     * Number of events with the given status, in O(1) once every event is in memory.
+     */
+    public int countEvents(EventStatus status) {
+        LazyEventLoader l = loader;
+        if (l != null) return l.summaries(this, status).size();
+        return statusIndex().count(status);
+    }
+
+    /**
+     * The in-memory events with the given status (never loads anything).
+     */
+    List<Event> loadedEventsWithStatus(EventStatus status) {
+        return statusIndex().eventsWith(status);
+    }
+
+    private StatusIndex statusIndex() {
+        if (statusIndex == null) statusIndex = new StatusIndex(events);
+        return statusIndex;
+    }
+
+    /**
+     * Makes sure the student's registrations (and their events) are in memory.
+     */
+    public void loadRegistrationsOf(Student student) {
+        LazyEventLoader l = loader;
+        if (l != null) l.loadRegistrationsOf(student, this);
+    }
+
+    /**
+     * Makes sure every event the organizer owns is in memory (see getCreatedEvents()).
+     */
+    public void loadEventsOf(EventOrganizer organizer) {
+        LazyEventLoader l = loader;
+        if (l != null) l.loadEventsOf(organizer, this);
+    }
+
+    /**
+     * Makes sure every event that can overlap the given time range is in memory,
+     * so room bookings can be checked.
+     */
+    public void loadEventsBetween(Date start, Date end) {
+        LazyEventLoader l = loader;
+        if (l != null && start != null) l.loadEventsBetween(start, end, this);
+    }
+
+    // --- Change notification ---
+
+    /**
+     * The bus on which every change of this database is published (see DatabaseChange).
+     */
+    public ChangeBus getChangeBus() {
+        ChangeBus bus = changeBus;
+        if (bus == null) {
+            synchronized (this) {
+                if (changeBus == null) changeBus = new ChangeBus();
+                bus = changeBus;
+            }
+        }
+        return bus;
+    }
+
+    private void publish(DatabaseChange change) {
+        ChangeBus bus = changeBus;
+        if (bus != null) bus.publish(change);
+    }
+
+    private Watcher watcher() {
+        if (watcher == null) watcher = new Watcher();
+        return watcher;
+    }
+
+    /**
+     * The listener of every in-memory event: keeps the indexes current, stamps the event's
+     * modification time and publishes the change.
+     */
+    private class Watcher implements Event.Listener {
+        @Override
+        public void statusChanged(Event event, EventStatus previous) {
+            touch(event);
+            StatusIndex s = statusIndex;
+            if (s != null) s.statusChanged(event, previous);
+            publish(new DatabaseChange.StatusChanged(event, previous));
+        }
+
+        @Override
+        public void scheduleChanged(Event event, Date previousStart) {
+            touch(event);
+            CalendarIndex c = calendarIndex;
+            if (c != null) c.scheduleChanged(event, previousStart);
+            publish(new DatabaseChange.EventUpdated(event));
+        }
+
+        @Override
+        public void detailsChanged(Event event) {
+            touch(event);
+            SearchIndex s = searchIndex;
+            if (s == null) {
+                // Waits for an index build in progress, which may have read the old details
+                synchronized (EventDatabase.this) {
+                    s = searchIndex;
+                }
+            }
+            if (s != null) s.detailsChanged(event);
+            publish(new DatabaseChange.EventUpdated(event));
+        }
+
+        @Override
+        public void registrationAdded(Event event, Registration reg) {
+            touch(event);
+            publish(new DatabaseChange.RegistrationAdded(event, reg));
+        }
+
+        @Override
+        public void registrationRemoved(Event event, Registration reg) {
+            touch(event);
+            publish(new DatabaseChange.RegistrationRemoved(event, reg));
+        }
+
+        // Stamps the change time read by incremental exports
+        private void touch(Event event) {
+            event.setLastModified(System.currentTimeMillis());
+        }
+    }
+
+    // --- Dirty tracking ---
+
+    /**
+     * Flags a storage partition as changed so the next save rewrites it.
+     */
+    public synchronized void markDirty(String partition) {
+        dirtyPartitions.add(partition);
+    }
+
+    public synchronized void markDirty(Set<String> partitions) {
+        dirtyPartitions.addAll(partitions);
+    }
+
+    /**
+     * Flags every partition as changed (e.g. after a migration or journal replay).
+     * A freshly constructed database starts out all dirty.
+     */
+    public synchronized void markAllDirty() {
+        allDirty = true;
+    }
+
+    public synchronized boolean isAllDirty() { return allDirty; }
+
+    public synchronized Set<String> getDirtyPartitions() {
+        return Collections.unmodifiableSet(new HashSet<>(dirtyPartitions));
+    }
+
+    public synchronized void clearDirty() {
+        dirtyPartitions.clear();
+        allDirty = false;
+    }
+
+    /**
+     * Called once a snapshot of the dirty partitions has been captured: the dirty flags are
+     * cleared, but the captured partitions still count as unsaved (see isUnsaved) until
+     * saveFinished is called with the returned number, i.e. until the write has completed.
+     */
+    public synchronized long startSave() {
+        long save = ++saveCount;
+        if (allDirty) allSavingUntil = save;
+        for (String partition : dirtyPartitions) savingPartitions.put(partition, save);
+        dirtyPartitions.clear();
+        allDirty = false;
+        return save;
+    }
+
+    /**
+     * The write of the given save (and of every earlier one) has completed or failed.
+     * A failed write has marked everything dirty again first.
+     */
+    public synchronized void saveFinished(long save) {
+        savingPartitions.values().removeIf(s -> s <= save);
+        if (allSavingUntil <= save) allSavingUntil = 0;
+    }
+
+    /**
+     * True if the partition has changes that are not on disk yet: it is dirty, or captured
+     * by a snapshot that is still being written.
+     */
+    public synchronized boolean isUnsaved(String partition) {
+        return allDirty || allSavingUntil != 0
+                || dirtyPartitions.contains(partition) || savingPartitions.containsKey(partition);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,49 @@
+package com.eventsystem.storage;
+
+import com.eventsystem.model.Event;
+
+import java.util.Date;
+
+/**
+ * Read-only view of an event as listed on the dashboards.
+ * Built either from a loaded Event or from the event index, so listing events
+ * never requires hydrating their segments.
+ */
+public class EventSummary {
+
+    private final String eventID;
+    private final String title;
+    private final String status;
+    private final String organizerName;
+    private final Date startTime;
+    private final Date endTime;
+    private final int capacity;
+    private final int registeredCount;
+
+    public EventSummary(String eventID, String title, String status, String organizerName,
+                        Date startTime, Date endTime, int capacity, int registeredCount) {
+        this.eventID = eventID;
+        this.title = title;
+        this.status = status;
+        this.organizerName = organizerName;
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.capacity = capacity;
+        this.registeredCount = registeredCount;
+    }
+
+    public static EventSummary of(Event e) {
+        return new EventSummary(e.getEventID(), e.getTitle(), e.getStatus(),
+                (e.getOrganizer() != null) ? e.getOrganizer().getName() : null,
+                e.getStartTime(), e.getEndTime(), e.getCapacity(), e.getRegistrations().size());
+    }
+
+    public String getEventID() { return eventID; }
+    public String getTitle() { return title; }
+    public String getStatus() { return status; }
+    public String getOrganizerName() { return organizerName; }
+    public Date getStartTime() { return startTime; }
+    public Date getEndTime() { return endTime; }
+    public int getCapacity() { return capacity; }
+    public int getRegisteredCount() { return registeredCount; }
+}
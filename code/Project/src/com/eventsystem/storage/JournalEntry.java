@@ -0,0 +1,595 @@
+package com.eventsystem.storage;
+
+import com.eventsystem.model.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * A single mutation record in the storage journal.
+ * Each entry is stored as one tab-separated line and can be re-applied to an EventDatabase.
+ * Applying an entry twice has no further effect, so replaying a journal over a
+ * snapshot that already contains some of its entries is safe.
+ */
+public class JournalEntry {
+
+    private final String type;
+    private final String[] fields;
+
+    // Version of the event this change was based on (-1 for entries that do not update an event)
+    private int baseVersion = -1;
+
+    // Storage partitions touched by this change (only known for entries created in this session)
+    private Set<String> partitions = Collections.emptySet();
+
+    // --- Local state that revert puts back (only known for entries created in this session) ---
+    private String previousOrganizerID;   // EVENT_STATUS that changed the owner ("" for none)
+    private int waitlistPosition;         // REGISTER that took the student off the waitlist
+
+    private JournalEntry(String type, String... fields) {
+        this.type = type;
+        this.fields = fields;
+    }
+
+    private JournalEntry touching(String... partitionNames) {
+        this.partitions = new HashSet<>(Arrays.asList(partitionNames));
+        return this;
+    }
+
+    private JournalEntry basedOn(Event event) {
+        this.baseVersion = event.getVersion();
+        return this;
+    }
+
+    // --- Factory methods (one per kind of mutation) ---
+
+    public static JournalEntry addUser(User user) {
+        String role = roleOf(user);
+        String studentID = (user instanceof Student) ? ((Student) user).getStudentID() : "";
+        return new JournalEntry("ADD_USER", role, user.getUserID(), user.getName(),
+                user.getEmail(), user.getPasswordHash(), studentID).touching(partitionOf(user));
+    }
+
+    public static JournalEntry removeUser(User user) {
+        return new JournalEntry("REMOVE_USER", roleOf(user), user.getEmail()).touching(partitionOf(user));
+    }
+
+    public static JournalEntry addRoom(Room room) {
+        return new JournalEntry("ADD_ROOM", room.getRoomID(), room.getName(),
+                room.getLocation(), String.valueOf(room.getCapacity())).touching(PartitionedStore.ROOMS);
+    }
+
+    public static JournalEntry removeRoom(Room room) {
+        return new JournalEntry("REMOVE_ROOM", room.getRoomID()).touching(PartitionedStore.ROOMS);
+    }
+
+    public static JournalEntry addEvent(Event event) {
+        String organizerID = (event.getOrganizer() != null) ? event.getOrganizer().getUserID() : "";
+        String roomID = (event.getRoom() != null) ? event.getRoom().getRoomID() : "";
+        return new JournalEntry("ADD_EVENT", event.getEventID(), event.getTitle(), event.getDescription(),
+                millis(event.getStartTime()), millis(event.getEndTime()),
+                String.valueOf(event.getCapacity()), event.getStatus(), organizerID, roomID)
+                .touching(PartitionedStore.eventSegment(event));
+    }
+
+    /**
+     * Records a status change (approve, reject, cancel), including the organizer who now owns the event.
+     */
+    public static JournalEntry eventStatus(Event event) {
+        String organizerID = (event.getOrganizer() != null) ? event.getOrganizer().getUserID() : "";
+        return new JournalEntry("EVENT_STATUS", event.getEventID(), event.getStatus(), organizerID)
+                .touching(PartitionedStore.eventSegment(event)).basedOn(event);
+    }
+
+    /**
+     * Records a status change that also made the event's current organizer its owner.
+     * If the change loses a conflict, previousOrganizer (null for none) owns the event again.
+     */
+    public static JournalEntry eventStatus(Event event, EventOrganizer previousOrganizer) {
+        JournalEntry entry = eventStatus(event);
+        entry.previousOrganizerID = (previousOrganizer != null) ? previousOrganizer.getUserID() : "";
+        return entry;
+    }
+
+    public static JournalEntry register(Registration reg) {
+        return new JournalEntry("REGISTER", reg.getRegistrationID(), millis(reg.getTimestamp()),
+                reg.getStudent().getUserID(), reg.getEvent().getEventID())
+                .touching(PartitionedStore.eventSegment(reg.getEvent())).basedOn(reg.getEvent());
+    }
+
+    /**
+     * Records a registration of a student who was #waitlistPosition on the event's waitlist
+     * (0 if not waiting). If the registration loses a conflict, the student gets that place back.
+     */
+    public static JournalEntry register(Registration reg, int waitlistPosition) {
+        JournalEntry entry = register(reg);
+        entry.waitlistPosition = waitlistPosition;
+        return entry;
+    }
+
+    public static JournalEntry cancelRegistration(Registration reg) {
+        return new JournalEntry("CANCEL_REGISTRATION", reg.getStudent().getUserID(), reg.getEvent().getEventID())
+                .touching(PartitionedStore.eventSegment(reg.getEvent())).basedOn(reg.getEvent());
+    }
+
+    public static JournalEntry joinWaitlist(Student student, Event event) {
+        return new JournalEntry("WAITLIST_JOIN", student.getUserID(), event.getEventID())
+                .touching(PartitionedStore.eventSegment(event));
+    }
+
+    /**
+     * Records a waitlisted student taking a freed seat, together with the notification they were sent.
+     */
+    public static JournalEntry promote(Registration reg, Notification note) {
+        return new JournalEntry("PROMOTE", reg.getRegistrationID(), millis(reg.getTimestamp()),
+                reg.getStudent().getUserID(), reg.getEvent().getEventID(),
+                note.getNotificationID(), note.getMessage())
+                .touching(PartitionedStore.eventSegment(reg.getEvent())).basedOn(reg.getEvent());
+    }
+
+    /**
+     * Records an event moving to a new time. The previous start time is kept so that the
+     * event's old segment is known when the entry is read back.
+     */
+    public static JournalEntry reschedule(Event event, Date previousStart) {
+        return new JournalEntry("RESCHEDULE", event.getEventID(), millis(event.getStartTime()),
+                millis(event.getEndTime()), millis(previousStart))
+                .touching(PartitionedStore.eventSegment(event), PartitionedStore.segmentFor(previousStart))
+                .basedOn(event);
+    }
+
+    // --- Replay ---
+
+    /**
+     * Re-applies this mutation to the given database.
+     */
+    public void apply(EventDatabase db) {
+        Event updated = null;
+        if (baseVersion >= 0) {
+            updated = findEvent(db, eventID());
+            // The event already includes this change (it was saved in a newer snapshot)
+            if (updated != null && updated.getVersion() > baseVersion) return;
+        }
+
+        switch (type) {
+            case "ADD_USER": applyAddUser(db); break;
+            case "REMOVE_USER": applyRemoveUser(db); break;
+            case "ADD_ROOM": applyAddRoom(db); break;
+            case "REMOVE_ROOM": applyRemoveRoom(db); break;
+            case "ADD_EVENT": applyAddEvent(db); break;
+            case "EVENT_STATUS": applyEventStatus(db); break;
+            case "REGISTER": applyRegister(db); break;
+            case "WAITLIST_JOIN": applyJoinWaitlist(db); break;
+            case "PROMOTE": applyPromote(db); break;
+            case "CANCEL_REGISTRATION": applyCancelRegistration(db); break;
+            case "RESCHEDULE": applyReschedule(db); break;
+            default:
+                System.out.println("!!! Skipping unknown journal entry: " + type);
+        }
+
+        if (updated != null) {
+            updated.setVersion(baseVersion + 1);
+        }
+    }
+
+    // --- Optimistic concurrency (see DataStorageService shared mode) ---
+
+    /**
+     * Called when this change was made locally while other instances committed the given entries.
+     * Returns a description of the conflict, or null if the changes can be merged.
+     * Registrations of different students merge unless the event no longer has room for this one;
+     * two status changes of the same event always conflict.
+     */
+    String conflictWith(List<JournalEntry> committed, EventDatabase db) {
+        switch (type) {
+            case "EVENT_STATUS":
+                for (JournalEntry other : committed) {
+                    if (other.type.equals("EVENT_STATUS") && other.eventID().equals(fields[0])) {
+                        return "The event status was changed at another desk (now " + other.fields[1] + ").";
+                    }
+                }
+                return null;
+            case "RESCHEDULE":
+                for (JournalEntry other : committed) {
+                    if (other.type.equals("RESCHEDULE") && other.eventID().equals(fields[0])) {
+                        return "The event was rescheduled at another desk.";
+                    }
+                }
+                return null;
+            case "REGISTER":
+            case "PROMOTE":
+                Event event = findEvent(db, fields[3]);
+                if (event == null || event.getEventStatus() != EventStatus.ACTIVE) {
+                    return "The event is no longer open for registration.";
+                }
+                if (event.getRegistrations().size() > event.getCapacity()) {
+                    return "The last seat was taken at another desk.";
+                }
+                return null;
+            case "ADD_USER":
+                for (User user : db.findUsersByEmail(fields[3])) {
+                    if (!user.getUserID().equals(fields[1])) {
+                        return "This email was registered at another desk.";
+                    }
+                }
+                return null;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Undoes a local change that lost a conflict. For status changes the committed status
+     * was already applied over the local one; only the local side effects (ownership,
+     * released room booking) are undone. A lost reschedule needs no undo either: the
+     * committed time was applied over the local one, room booking included.
+     */
+    void revert(EventDatabase db) {
+        if (type.equals("EVENT_STATUS")) {
+            Event event = findEvent(db, fields[0]);
+            EventOrganizer organizer = findOrganizer(db, fields[2]);
+            if (event == null) return;
+            if (organizer != null && event.getOrganizer() != organizer) {
+                organizer.getCreatedEvents().remove(event);
+            } else if (organizer != null && previousOrganizerID != null && !previousOrganizerID.equals(fields[2])) {
+                // Nobody else took the event over: it goes back to its previous owner
+                event.setOrganizer(findOrganizer(db, previousOrganizerID));
+                organizer.getCreatedEvents().remove(event);
+            }
+            boolean holdsRoom = event.getEventStatus() != null && event.getEventStatus().holdsRoom();
+            if (holdsRoom && event.getRoom() != null && !event.getRoom().getBookings().contains(event)) {
+                event.getRoom().getBookings().add(event);
+            }
+        } else if (type.equals("REGISTER") || type.equals("PROMOTE")) {
+            Event event = findEvent(db, fields[3]);
+            User user = findUser(db, fields[2]);
+            if (event != null) {
+                event.getRegistrations().removeIf(r -> fields[0].equals(r.getRegistrationID()));
+            }
+            if (user instanceof Student) {
+                ((Student) user).getRegistrations().removeIf(r -> fields[0].equals(r.getRegistrationID()));
+                // A promoted student goes back to the head of the line, a registered one to their old place
+                if (type.equals("PROMOTE") && event != null) event.getWaitlist().restore((Student) user);
+                if (waitlistPosition > 0 && event != null) event.getWaitlist().rejoin((Student) user, waitlistPosition);
+            }
+        } else if (type.equals("ADD_USER")) {
+            for (User user : db.findUsersByEmail(fields[3])) {
+                if (user.getUserID().equals(fields[1])) db.removeUser(user);
+            }
+        }
+    }
+
+    /**
+     * Bases this local change on the event's current version and advances the version.
+     * Called just before the entry is committed to the journal.
+     */
+    void commitVersion(EventDatabase db) {
+        if (baseVersion < 0) return;
+        Event event = findEvent(db, eventID());
+        if (event != null) {
+            baseVersion = event.getVersion();
+            event.setVersion(baseVersion + 1);
+        }
+    }
+
+    private String eventID() {
+        switch (type) {
+            case "EVENT_STATUS": return fields[0];
+            case "REGISTER": return fields[3];
+            case "PROMOTE": return fields[3];
+            case "WAITLIST_JOIN": return fields[1];
+            case "CANCEL_REGISTRATION": return fields[1];
+            case "RESCHEDULE": return fields[0];
+            default: return null;
+        }
+    }
+
+    private void applyAddUser(EventDatabase db) {
+        String role = fields[0];
+        String userID = fields[1];
+        if (findUser(db, userID) != null) return;
+
+        if (role.equals("Student")) {
+            db.addStudent(new Student(userID, fields[5], fields[2], fields[3], fields[4]));
+        } else if (role.equals("Organizer")) {
+            db.addOrganizer(new EventOrganizer(userID, fields[2], fields[3], fields[4]));
+        } else if (role.equals("Admin")) {
+            db.addAdministrator(new Administrator(userID, fields[2], fields[3], fields[4]));
+        }
+    }
+
+    private void applyRemoveUser(EventDatabase db) {
+        String role = fields[0];
+        String email = fields[1];
+        for (User user : db.findUsersByEmail(email)) {
+            if (email.equals(user.getEmail()) && role.equals(roleOf(user))) db.removeUser(user);
+        }
+    }
+
+    private void applyAddRoom(EventDatabase db) {
+        if (findRoom(db, fields[0]) != null) return;
+        db.addRoom(new Room(fields[0], fields[1], fields[2], Integer.parseInt(fields[3])));
+    }
+
+    private void applyRemoveRoom(EventDatabase db) {
+        Room room = findRoom(db, fields[0]);
+        if (room != null) db.removeRoom(room);
+    }
+
+    private void applyAddEvent(EventDatabase db) {
+        if (findEvent(db, fields[0]) != null) return;
+
+        EventOrganizer organizer = findOrganizer(db, fields[7]);
+        Room room = findRoom(db, fields[8]);
+        Event event = new Event(fields[0], fields[1], fields[2], date(fields[3]), date(fields[4]),
+                Integer.parseInt(fields[5]), organizer, room);
+        event.setStatus(fields[6]);
+
+        if (room != null) {
+            room.bookRoom(event);
+        }
+        if (organizer != null) {
+            organizer.getCreatedEvents().add(event);
+        }
+        db.addEvent(event);
+    }
+
+    private void applyEventStatus(EventDatabase db) {
+        Event event = findEvent(db, fields[0]);
+        if (event == null) return;
+
+        event.setStatus(fields[1]);
+        EventOrganizer organizer = findOrganizer(db, fields[2]);
+        if (organizer != null && event.getOrganizer() != organizer) {
+            event.setOrganizer(organizer);
+            organizer.getCreatedEvents().add(event);
+        }
+        // Rejected and cancelled events no longer hold their room
+        boolean holdsRoom = event.getEventStatus() != null && event.getEventStatus().holdsRoom();
+        if (!holdsRoom && event.getRoom() != null) {
+            event.getRoom().releaseBooking(event);
+        }
+    }
+
+    private void applyRegister(EventDatabase db) {
+        User user = findUser(db, fields[2]);
+        Event event = findEvent(db, fields[3]);
+        if (!(user instanceof Student) || event == null) return;
+
+        Student student = (Student) user;
+        if (findRegistration(student, event) != null) return;
+
+        Registration reg = new Registration(student, event);
+        reg.setRegistrationID(fields[0]);
+        reg.setTimestamp(date(fields[1]));
+        student.getRegistrations().add(reg);
+        // Committed registrations always count, even if a local uncommitted one holds the last seat
+        event.getRegistrations().add(reg);
+        event.getWaitlist().leave(student);
+    }
+
+    private void applyJoinWaitlist(EventDatabase db) {
+        User user = findUser(db, fields[0]);
+        Event event = findEvent(db, fields[1]);
+        if (!(user instanceof Student) || event == null) return;
+        if (findRegistration((Student) user, event) != null) return;
+        event.getWaitlist().join((Student) user);
+    }
+
+    private void applyPromote(EventDatabase db) {
+        applyRegister(db);
+        Event event = findEvent(db, fields[3]);
+        if (event == null) return;
+        for (Notification n : event.getNotifications()) {
+            if (n.getNotificationID().equals(fields[4])) return;
+        }
+        event.getNotifications().add(new Notification(fields[4], fields[5], event, fields[2]));
+    }
+
+    private void applyCancelRegistration(EventDatabase db) {
+        User user = findUser(db, fields[0]);
+        Event event = findEvent(db, fields[1]);
+        if (!(user instanceof Student) || event == null) return;
+
+        Student student = (Student) user;
+        Registration reg = findRegistration(student, event);
+        if (reg != null) {
+            student.getRegistrations().remove(reg);
+            event.removeRegistration(reg);
+        }
+    }
+
+    private void applyReschedule(EventDatabase db) {
+        Event event = findEvent(db, fields[0]);
+        if (event == null) return;
+        Date start = date(fields[1]);
+        Date end = date(fields[2]);
+        if (Objects.equals(start, event.getStartTime()) && Objects.equals(end, event.getEndTime())) return;
+        if (!db.rescheduleEvent(event, start, end)) {
+            System.out.println("!!! Could not apply the new time of event " + fields[0] + ": room taken");
+        }
+    }
+
+    // --- Line encoding ---
+
+    /**
+     * Encodes this entry as a single line (without the trailing newline).
+     */
+    public String toLine() {
+        StringBuilder sb = new StringBuilder();
+        if (baseVersion >= 0) {
+            sb.append('@').append(baseVersion).append('\t');
+        }
+        sb.append(escape(type));
+        for (String field : fields) {
+            sb.append('\t').append(escape(field));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Parses a line produced by toLine().
+     */
+    public static JournalEntry fromLine(String line) {
+        List<String> parts = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '\\' && i + 1 < line.length()) {
+                char next = line.charAt(++i);
+                current.append(next == 't' ? '\t' : next == 'n' ? '\n' : next == 'r' ? '\r' : next);
+            } else if (c == '\t') {
+                parts.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        parts.add(current.toString());
+
+        // Versioned entries start with "@<base version>"
+        int baseVersion = -1;
+        if (parts.get(0).startsWith("@")) {
+            baseVersion = Integer.parseInt(parts.remove(0).substring(1));
+        }
+        String type = parts.remove(0);
+        if (parts.size() < fieldCount(type)) {
+            throw new IllegalArgumentException("truncated " + type + " entry (" + parts.size() + " fields)");
+        }
+        JournalEntry entry = new JournalEntry(type, parts.toArray(new String[0]));
+        entry.baseVersion = baseVersion;
+        return entry;
+    }
+
+    /**
+     * Number of fields the factory method writes for the given type (0 for unknown types,
+     * which apply() skips).
+     */
+    private static int fieldCount(String type) {
+        switch (type) {
+            case "ADD_USER": return 6;
+            case "REMOVE_USER": return 2;
+            case "ADD_ROOM": return 4;
+            case "REMOVE_ROOM": return 1;
+            case "ADD_EVENT": return 9;
+            case "EVENT_STATUS": return 3;
+            case "REGISTER": return 4;
+            case "CANCEL_REGISTRATION": return 2;
+            case "WAITLIST_JOIN": return 2;
+            case "PROMOTE": return 6;
+            case "RESCHEDULE": return 4;
+            default: return 0;
+        }
+    }
+
+    public String getType() { return type; }
+
+    public Set<String> getPartitions() { return partitions; }
+
+    /**
+     * The partitions this entry touches, also for entries read back from the journal.
+     * Call after apply() so that the affected event can be found in the database.
+     */
+    public Set<String> partitionsIn(EventDatabase db) {
+        if (!partitions.isEmpty()) return partitions;
+        switch (type) {
+            case "ADD_USER":
+            case "REMOVE_USER":
+                if ("Admin".equals(fields[0])) return Collections.singleton(PartitionedStore.ADMINISTRATORS);
+                if ("Organizer".equals(fields[0])) return Collections.singleton(PartitionedStore.ORGANIZERS);
+                return Collections.singleton(PartitionedStore.STUDENTS);
+            case "ADD_ROOM":
+            case "REMOVE_ROOM":
+                return Collections.singleton(PartitionedStore.ROOMS);
+            case "ADD_EVENT":
+                return Collections.singleton(PartitionedStore.segmentFor(date(fields[3])));
+            case "EVENT_STATUS":
+            case "REGISTER":
+            case "CANCEL_REGISTRATION":
+            case "WAITLIST_JOIN":
+            case "PROMOTE":
+                return segmentOf(db, eventID());
+            case "RESCHEDULE":
+                Set<String> segments = new HashSet<>(segmentOf(db, eventID()));
+                segments.add(PartitionedStore.segmentFor(date(fields[3])));
+                return segments;
+            default:
+                return Collections.emptySet();
+        }
+    }
+
+    // --- Helpers ---
+
+    private static String escape(String value) {
+        if (value == null) return "";
+        StringBuilder sb = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\': sb.append("\\\\"); break;
+                case '\t': sb.append("\\t"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                default: sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String partitionOf(User user) {
+        if (user instanceof Administrator) return PartitionedStore.ADMINISTRATORS;
+        if (user instanceof EventOrganizer) return PartitionedStore.ORGANIZERS;
+        return PartitionedStore.STUDENTS;
+    }
+
+    private static String roleOf(User user) {
+        if (user instanceof Administrator) return "Admin";
+        if (user instanceof EventOrganizer) return "Organizer";
+        return "Student";
+    }
+
+    private static String millis(Date date) {
+        return (date != null) ? String.valueOf(date.getTime()) : "";
+    }
+
+    private static Date date(String millis) {
+        return millis.isEmpty() ? null : new Date(Long.parseLong(millis));
+    }
+
+    private static User findUser(EventDatabase db, String userID) {
+        return db.findUser(userID);
+    }
+
+    private static EventOrganizer findOrganizer(EventDatabase db, String userID) {
+        User user = findUser(db, userID);
+        return (user instanceof EventOrganizer) ? (EventOrganizer) user : null;
+    }
+
+    private static Room findRoom(EventDatabase db, String roomID) {
+        return db.findRoom(roomID);
+    }
+
+    private static Event findEvent(EventDatabase db, String eventID) {
+        // Only hydrates the event's own segment when the database is loaded lazily
+        return db.findEvent(eventID);
+    }
+
+    private static Set<String> segmentOf(EventDatabase db, String eventID) {
+        Event event = findEvent(db, eventID);
+        if (event == null) return Collections.emptySet();
+        return Collections.singleton(PartitionedStore.eventSegment(event));
+    }
+
+    private static Registration findRegistration(Student student, Event event) {
+        for (Registration r : student.getRegistrations()) {
+            if (r.getEvent() != null && r.getEvent().getEventID().equals(event.getEventID())) return r;
+        }
+        return null;
+    }
+}
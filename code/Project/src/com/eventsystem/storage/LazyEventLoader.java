@@ -0,0 +1,407 @@
+package com.eventsystem.storage;
+
+import com.eventsystem.model.Event;
+import com.eventsystem.model.EventOrganizer;
+import com.eventsystem.model.EventStatus;
+import com.eventsystem.model.Registration;
+import com.eventsystem.model.Student;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Loads the event segments of a partitioned snapshot on demand.
+ *
+ * At startup only the room and user partitions and the event index (event-index.idx) are
+ * read, so login works without touching any event segment. A segment is hydrated the first
+ * time one of its events is needed and kept in an LRU cache of at most maxSegments segments.
+ * When the cache is full, the least recently used segment without unsaved changes is
+ * unlinked from the database again. Segments that are dirty or pinned are never evicted.
+ *
+ * EventDatabase.getEvents() still returns every event: it hydrates all remaining segments
+ * and ends lazy mode for that database. prefetchAll() reads those segments ahead on a
+ * background thread, so that linking them in (which changes the database) is all that is
+ * left for the thread that owns the database.
+ */
+class LazyEventLoader {
+
+    private final PartitionedStore store;
+    private final SnapshotTables.Resolver resolver;
+    private final int maxSegments;
+
+    // --- Event index: kept up to date for segments that are not in memory ---
+    private final Map<String, SnapshotTables.EventRecord> index = new LinkedHashMap<>();
+    private final Map<String, List<String>> registrantsByEvent = new HashMap<>();
+    private final Set<String> segmentsOnDisk = new HashSet<>();
+    private final Map<EventStatus, Set<String>> indexByStatus = new EnumMap<>(EventStatus.class);
+
+    // Hydrated segments in access order (least recently used first)
+    private final LinkedHashMap<String, List<Event>> cache = new LinkedHashMap<>(16, 0.75f, true);
+    private final Set<String> pinned = new HashSet<>();
+
+    // Segments read by prefetchAll() but not linked into the database yet
+    private final Map<String, Prefetched> prefetched = new HashMap<>();
+
+    private LazyEventLoader(PartitionedStore store, SnapshotTables.Resolver resolver,
+                            SnapshotTables indexTables, int maxSegments) {
+        this.store = store;
+        this.resolver = resolver;
+        this.maxSegments = maxSegments;
+        for (EventStatus status : EventStatus.values()) {
+            indexByStatus.put(status, new LinkedHashSet<>());
+        }
+        for (SnapshotTables.EventRecord r : indexTables.getEvents()) {
+            putRecord(r);
+            segmentsOnDisk.add(PartitionedStore.segmentFor(r.getStartTime()));
+        }
+        for (SnapshotTables.RegistrationRecord r : indexTables.getRegistrations()) {
+            registrantsByEvent.computeIfAbsent(r.getEventID(), k -> new ArrayList<>()).add(r.getStudentID());
+        }
+    }
+
+    /**
+     * Reads the rooms, users and event index in parallel and returns a database whose
+     * events are loaded on demand.
+     */
+    static EventDatabase open(PartitionedStore store, int maxSegments) throws IOException {
+        List<Path> files = new ArrayList<>();
+        for (String partition : new String[]{PartitionedStore.ROOMS, PartitionedStore.ADMINISTRATORS,
+                PartitionedStore.ORGANIZERS, PartitionedStore.STUDENTS}) {
+            Path file = PartitionedStore.fileFor(partition);
+            if (Files.exists(file)) files.add(file);
+        }
+        files.add(PartitionedStore.INDEX_FILE);
+
+        List<SnapshotTables> parts;
+        try {
+            parts = files.parallelStream()
+                    .map(store::readPartition)
+                    .collect(Collectors.toList());
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        SnapshotTables base = new SnapshotTables();
+        for (SnapshotTables part : parts.subList(0, parts.size() - 1)) {
+            base.addAll(part);
+        }
+        SnapshotTables indexTables = parts.get(parts.size() - 1);
+
+        EventDatabase db = new EventDatabase();
+        SnapshotTables.Resolver resolver = base.addEntitiesTo(db);
+        LazyEventLoader loader = new LazyEventLoader(store, resolver, indexTables, maxSegments);
+        db.setLoader(loader);
+        System.out.println("--- Loaded users, rooms and an index of " + loader.index.size()
+                + " events; event segments load on demand ---");
+        return db;
+    }
+
+    // =================================================
+    // HYDRATION
+    // =================================================
+
+    /**
+     * Makes sure the segment holding this event is in memory.
+     */
+    synchronized void loadEvent(String eventID, EventDatabase db) {
+        SnapshotTables.EventRecord record = index.get(eventID);
+        if (record != null) {
+            hydrate(PartitionedStore.segmentFor(record.getStartTime()), db);
+        }
+    }
+
+    /**
+     * Loads the segments holding the student's registrations and pins them for the session,
+     * so the student's own registration list stays complete.
+     */
+    synchronized void loadRegistrationsOf(Student student, EventDatabase db) {
+        Set<String> segments = new HashSet<>();
+        for (Map.Entry<String, List<String>> entry : registrantsByEvent.entrySet()) {
+            if (entry.getValue().contains(student.getUserID())) {
+                segments.add(PartitionedStore.segmentFor(index.get(entry.getKey()).getStartTime()));
+            }
+        }
+        pinned.addAll(segments);
+        for (String segment : segments) {
+            hydrate(segment, db);
+        }
+    }
+
+    /**
+     * Loads the segments holding the events the organizer owns and pins them for the
+     * session, so the organizer's list of created events stays complete.
+     */
+    synchronized void loadEventsOf(EventOrganizer organizer, EventDatabase db) {
+        Set<String> segments = new HashSet<>();
+        for (SnapshotTables.EventRecord r : index.values()) {
+            if (organizer.getUserID().equals(r.getOrganizerID())) {
+                segments.add(PartitionedStore.segmentFor(r.getStartTime()));
+            }
+        }
+        pinned.addAll(segments);
+        for (String segment : segments) {
+            hydrate(segment, db);
+        }
+    }
+
+    /**
+     * Loads every segment that can hold events starting between the two dates
+     * (including the month before, for events running over a month boundary).
+     */
+    synchronized void loadEventsBetween(Date start, Date end, EventDatabase db) {
+        Calendar month = Calendar.getInstance();
+        month.setTime(start);
+        month.set(Calendar.DAY_OF_MONTH, 1);
+        month.add(Calendar.MONTH, -1);
+        Date last = (end != null) ? end : start;
+        while (!month.getTime().after(last)) {
+            hydrate(PartitionedStore.segmentFor(month.getTime()), db);
+            month.add(Calendar.MONTH, 1);
+        }
+        hydrate(PartitionedStore.segmentFor(last), db);
+    }
+
+    /**
+     * Loads every remaining segment. The database leaves lazy mode afterwards.
+     */
+    synchronized void loadAll(EventDatabase db) {
+        List<String> missing = new ArrayList<>(segmentsOnDisk);
+        missing.removeAll(cache.keySet());
+        Collections.sort(missing);
+        for (String segment : missing) {
+            attach(segment, db);
+        }
+        System.out.println("--- Hydrated all event segments (" + missing.size() + " loaded on full access) ---");
+    }
+
+    /**
+     * Reads every segment that is not in memory yet without touching the database; the next
+     * hydration of such a segment only links its events in. The files are read outside the
+     * loader's lock, so the thread that owns the database is not held up meanwhile. Returns
+     * the number of segments read.
+     */
+    int prefetchAll() {
+        List<String> missing;
+        synchronized (this) {
+            missing = new ArrayList<>(segmentsOnDisk);
+            missing.removeAll(cache.keySet());
+            missing.removeAll(prefetched.keySet());
+        }
+        Collections.sort(missing);
+        int read = 0;
+        for (String segment : missing) {
+            if (Thread.currentThread().isInterrupted()) break;
+            Path file = PartitionedStore.fileFor(segment);
+            FileTime modified = modifiedTime(file);
+            SnapshotTables tables = store.readPartition(file);
+            synchronized (this) {
+                if (!cache.containsKey(segment)) prefetched.put(segment, new Prefetched(tables, modified));
+            }
+            read++;
+        }
+        return read;
+    }
+
+    private void hydrate(String segment, EventDatabase db) {
+        if (cache.get(segment) != null) return; // get() also marks the segment as recently used
+        attach(segment, db);
+        evict(db);
+    }
+
+    private void attach(String segment, EventDatabase db) {
+        List<Event> loaded = new ArrayList<>();
+        if (segmentsOnDisk.contains(segment)) {
+            SnapshotTables tables = read(segment);
+
+            // Events created in this session before the segment was loaded are already in memory
+            Set<String> inMemory = new HashSet<>();
+            for (Event e : db.loadedEvents()) inMemory.add(e.getEventID());
+            tables.getEvents().removeIf(r -> inMemory.contains(r.getEventID()));
+            tables.getRegistrations().removeIf(r -> inMemory.contains(r.getEventID()));
+            tables.getNotifications().removeIf(r -> inMemory.contains(r.getEventID()));
+            tables.getBookings().removeIf(r -> inMemory.contains(r.getEventID()));
+            tables.getCreatedEvents().removeIf(r -> inMemory.contains(r.getEventID()));
+            tables.getWaitlist().removeIf(r -> inMemory.contains(r.getEventID()));
+
+            loaded = tables.resolveEvents(resolver);
+            db.attachEvents(loaded);
+        }
+        cache.put(segment, loaded);
+    }
+
+    /**
+     * The segment's tables, from prefetchAll() if the file has not changed since.
+     */
+    private SnapshotTables read(String segment) {
+        Path file = PartitionedStore.fileFor(segment);
+        Prefetched ahead = prefetched.remove(segment);
+        if (ahead != null && ahead.modified != null && ahead.modified.equals(modifiedTime(file))) {
+            return ahead.tables;
+        }
+        return store.readPartition(file);
+    }
+
+    private static FileTime modifiedTime(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static final class Prefetched {
+        final SnapshotTables tables;
+        final FileTime modified;
+
+        Prefetched(SnapshotTables tables, FileTime modified) {
+            this.tables = tables;
+            this.modified = modified;
+        }
+    }
+
+    // =================================================
+    // EVICTION
+    // =================================================
+
+    private void evict(EventDatabase db) {
+        Iterator<Map.Entry<String, List<Event>>> it = cache.entrySet().iterator();
+        while (cache.size() > maxSegments && it.hasNext()) {
+            Map.Entry<String, List<Event>> eldest = it.next();
+            // A segment still being written counts as dirty until its write has completed
+            if (pinned.contains(eldest.getKey()) || db.isUnsaved(eldest.getKey())) continue;
+            detach(eldest.getKey(), db);
+            it.remove();
+        }
+    }
+
+    /**
+     * Unlinks the events of a clean segment from the database and the rooms and users
+     * referencing them. The index is refreshed from the events first, since the segment
+     * may have been saved with changes since startup.
+     */
+    private void detach(String segment, EventDatabase db) {
+        Set<Event> evicted = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Event e : db.loadedEvents()) {
+            if (segment.equals(PartitionedStore.eventSegment(e))) evicted.add(e);
+        }
+
+        for (Event e : evicted) {
+            SnapshotTables.EventRecord record = new SnapshotTables.EventRecord(e);
+            record.setDescription(null);
+            putRecord(record);
+            List<String> registrants = new ArrayList<>();
+
+            for (Registration reg : e.getRegistrations()) {
+                if (reg.getStudent() != null) {
+                    registrants.add(reg.getStudent().getUserID());
+                    reg.getStudent().getRegistrations().remove(reg);
+                }
+            }
+            registrantsByEvent.put(e.getEventID(), registrants);
+            if (e.getRoom() != null) e.getRoom().getBookings().remove(e);
+            if (e.getOrganizer() != null) e.getOrganizer().getCreatedEvents().remove(e);
+        }
+        segmentsOnDisk.add(segment);
+        db.detachEvents(evicted);
+    }
+
+    // =================================================
+    // SUMMARIES
+    // =================================================
+
+    /**
+     * Every event as a summary: loaded events from memory, all others from the index.
+     */
+    synchronized List<EventSummary> summaries(EventDatabase db) {
+        Map<String, Event> loaded = new LinkedHashMap<>();
+        for (Event e : db.loadedEvents()) loaded.put(e.getEventID(), e);
+
+        List<EventSummary> result = new ArrayList<>(index.size() + loaded.size());
+        for (SnapshotTables.EventRecord r : index.values()) {
+            Event e = loaded.remove(r.getEventID());
+            result.add((e != null) ? EventSummary.of(e) : summaryOf(r));
+        }
+        // Events created in this session are not in the index yet
+        for (Event e : loaded.values()) {
+            result.add(EventSummary.of(e));
+        }
+        return result;
+    }
+
+    /**
+     * Summaries of the events with one status: the in-memory ones from the database's status
+     * index, the others from the event index. Costs O(result), nothing is loaded.
+     */
+    synchronized List<EventSummary> summaries(EventDatabase db, EventStatus status) {
+        List<EventSummary> result = new ArrayList<>();
+        for (String eventID : indexByStatus.get(status)) {
+            if (db.isLoaded(eventID)) continue;
+            result.add(summaryOf(index.get(eventID)));
+        }
+        for (Event e : db.loadedEventsWithStatus(status)) {
+            result.add(EventSummary.of(e));
+        }
+        return result;
+    }
+
+    /**
+     * IDs of the events with one status, in the same order as summaries(db, status).
+     * Nothing is loaded and no summaries are built.
+     */
+    synchronized List<String> eventIDs(EventDatabase db, EventStatus status) {
+        List<String> result = new ArrayList<>();
+        for (String eventID : indexByStatus.get(status)) {
+            if (!db.isLoaded(eventID)) result.add(eventID);
+        }
+        for (Event e : db.loadedEventsWithStatus(status)) {
+            result.add(e.getEventID());
+        }
+        return result;
+    }
+
+    /**
+     * Summary of an event that is not in memory, from the event index (null if unknown).
+     */
+    synchronized EventSummary summary(String eventID) {
+        SnapshotTables.EventRecord r = index.get(eventID);
+        return (r != null) ? summaryOf(r) : null;
+    }
+
+    private EventSummary summaryOf(SnapshotTables.EventRecord r) {
+        int registered = registrantsByEvent.getOrDefault(r.getEventID(), Collections.emptyList()).size();
+        EventOrganizer organizer = (r.getOrganizerID() != null) ? resolver.organizersById.get(r.getOrganizerID()) : null;
+        return new EventSummary(r.getEventID(), r.getTitle(), r.getStatus(),
+                (organizer != null) ? organizer.getName() : null,
+                r.getStartTime(), r.getEndTime(), r.getCapacity(), registered);
+    }
+
+    private void putRecord(SnapshotTables.EventRecord record) {
+        SnapshotTables.EventRecord previous = index.put(record.getEventID(), record);
+        if (previous != null && previous.getStatus() != null) {
+            indexByStatus.get(EventStatus.fromLabel(previous.getStatus())).remove(previous.getEventID());
+        }
+        if (record.getStatus() != null) {
+            indexByStatus.get(EventStatus.fromLabel(record.getStatus())).add(record.getEventID());
+        }
+    }
+
+    synchronized int getCachedSegmentCount() { return cache.size(); }
+}
@@ -0,0 +1,64 @@
+package com.eventsystem.storage;
+
+import com.eventsystem.model.SnowflakeIdGenerator;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reserves a node number for the ID generator of an app instance on the shared data store.
+ *
+ * Node n is held with an OS file lock on node-n.lock in the lease directory for as long as
+ * the instance runs, so two live instances never get the same number. The OS releases the
+ * lock if the process dies, and the number can be reused by the next instance.
+ */
+final class NodeLease implements AutoCloseable {
+
+    private final int node;
+    private final FileChannel channel;
+    private final FileLock lock;
+
+    private NodeLease(int node, FileChannel channel, FileLock lock) {
+        this.node = node;
+        this.channel = channel;
+        this.lock = lock;
+    }
+
+    /**
+     * Claims the lowest free node number. Throws an IOException if all numbers are taken.
+     */
+    static NodeLease claim(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        for (int node = 0; node <= SnowflakeIdGenerator.MAX_NODE; node++) {
+            FileChannel channel = FileChannel.open(directory.resolve("node-" + node + ".lock"),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            FileLock lock;
+            try {
+                lock = channel.tryLock();
+            } catch (OverlappingFileLockException e) {
+                lock = null; // held by another service in this JVM
+            }
+            if (lock != null) {
+                return new NodeLease(node, channel, lock);
+            }
+            channel.close();
+        }
+        throw new IOException("No free ID generator node in " + directory);
+    }
+
+    int getNode() { return node; }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            lock.release();
+        } finally {
+            channel.close();
+        }
+    }
+}
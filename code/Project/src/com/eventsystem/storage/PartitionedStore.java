@@ -0,0 +1,223 @@
+package com.eventsystem.storage;
+
+import com.eventsystem.model.Event;
+import com.eventsystem.model.Registration;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Splits a snapshot into one file per collection inside the event_data/ directory.
+ *
+ * Users and rooms each get their own partition; events are split into monthly segments
+ * ("events-2025-12"), each holding its events plus their registrations, notifications,
+ * room bookings and ownership links. Only partitions marked dirty in the EventDatabase
+ * are captured and rewritten, and loading reads all partition files in parallel.
+ */
+public class PartitionedStore {
+
+    public static final String DIRECTORY = "event_data";
+    public static final String FILE_SUFFIX = ".bin";
+
+    /**
+     * Lightweight event index read by LazyEventLoader: one row per event and registration,
+     * without descriptions, notifications or links.
+     */
+    public static final Path INDEX_FILE = Paths.get(DIRECTORY, "event-index.idx");
+
+    public static final String ROOMS = "rooms";
+    public static final String ADMINISTRATORS = "administrators";
+    public static final String ORGANIZERS = "organizers";
+    public static final String STUDENTS = "students";
+    private static final String EVENT_SEGMENT_PREFIX = "events-";
+    private static final String UNDATED_SEGMENT = EVENT_SEGMENT_PREFIX + "undated";
+
+    private final boolean compressed;
+
+    public PartitionedStore(boolean compressed) {
+        this.compressed = compressed;
+    }
+
+    /**
+     * Name of the time-range segment an event is stored in (one segment per start month).
+     */
+    public static String eventSegment(Event event) {
+        return segmentFor(event.getStartTime());
+    }
+
+    public static String segmentFor(Date startTime) {
+        if (startTime == null) {
+            return UNDATED_SEGMENT;
+        }
+        // SimpleDateFormat is not thread-safe, so a fresh one is used per call
+        return EVENT_SEGMENT_PREFIX + new SimpleDateFormat("yyyy-MM").format(startTime);
+    }
+
+    public static Path fileFor(String partition) {
+        return Paths.get(DIRECTORY, partition + FILE_SUFFIX);
+    }
+
+    public static boolean exists() {
+        return Files.isDirectory(Paths.get(DIRECTORY));
+    }
+
+    // =================================================
+    // CAPTURE (runs on the thread that owns the database)
+    // =================================================
+
+    /**
+     * Builds the tables of every dirty partition and clears the dirty flags.
+     * When the whole database is dirty, every partition is captured.
+     */
+    public Map<Path, SnapshotTables> captureDirty(EventDatabase db) {
+        boolean all = db.isAllDirty();
+        Set<String> dirty = db.getDirtyPartitions();
+        Map<Path, SnapshotTables> captured = new LinkedHashMap<>();
+
+        if (all || dirty.contains(ROOMS)) {
+            SnapshotTables t = new SnapshotTables();
+            t.addRoomTable(db);
+            captured.put(fileFor(ROOMS), t);
+        }
+        if (all || dirty.contains(ADMINISTRATORS)) {
+            SnapshotTables t = new SnapshotTables();
+            t.addAdministratorTable(db);
+            captured.put(fileFor(ADMINISTRATORS), t);
+        }
+        if (all || dirty.contains(ORGANIZERS)) {
+            SnapshotTables t = new SnapshotTables();
+            t.addOrganizerTable(db);
+            captured.put(fileFor(ORGANIZERS), t);
+        }
+        if (all || dirty.contains(STUDENTS)) {
+            SnapshotTables t = new SnapshotTables();
+            t.addStudentTable(db);
+            captured.put(fileFor(STUDENTS), t);
+        }
+
+        // Group the events of the dirty segments, then capture each segment
+        Map<String, List<Event>> segments = new TreeMap<>();
+        for (Event e : db.getEvents()) {
+            String segment = eventSegment(e);
+            if (all || dirty.contains(segment)) {
+                segments.computeIfAbsent(segment, k -> new ArrayList<>()).add(e);
+            }
+        }
+        // A segment whose last event was rescheduled to another month is rewritten empty,
+        // so the event is not read back from its old segment as well
+        for (String segment : existingSegments()) {
+            if (!segments.containsKey(segment) && (all || dirty.contains(segment))) {
+                captured.put(fileFor(segment), new SnapshotTables());
+            }
+        }
+
+        if (!segments.isEmpty()) {
+            Set<Event> booked = SnapshotTables.bookedEvents(db);
+            Map<Event, List<String>> owners = SnapshotTables.eventOwners(db);
+            for (Map.Entry<String, List<Event>> segment : segments.entrySet()) {
+                SnapshotTables t = new SnapshotTables();
+                t.addEventTables(segment.getValue(), booked, owners);
+                captured.put(fileFor(segment.getKey()), t);
+            }
+            captured.put(INDEX_FILE, indexOf(db.getEvents()));
+        }
+
+        if (!captured.containsKey(INDEX_FILE) && captured.keySet().stream().anyMatch(PartitionedStore::isSegmentFile)) {
+            captured.put(INDEX_FILE, indexOf(db.getEvents()));
+        }
+
+        return captured;
+    }
+
+    private static List<String> existingSegments() {
+        List<String> names = new ArrayList<>();
+        if (!exists()) return names;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(Paths.get(DIRECTORY),
+                EVENT_SEGMENT_PREFIX + "*" + FILE_SUFFIX)) {
+            for (Path file : stream) {
+                String name = file.getFileName().toString();
+                names.add(name.substring(0, name.length() - FILE_SUFFIX.length()));
+            }
+        } catch (IOException e) {
+            System.out.println("!!! ERROR listing event segments: " + e.getMessage());
+        }
+        return names;
+    }
+
+    private static boolean isSegmentFile(Path file) {
+        return file.getFileName().toString().startsWith(EVENT_SEGMENT_PREFIX);
+    }
+
+    /**
+     * The event index: event rows without descriptions and registration rows without timestamps.
+     */
+    static SnapshotTables indexOf(List<Event> events) {
+        SnapshotTables index = new SnapshotTables();
+        for (Event e : events) {
+            SnapshotTables.EventRecord record = new SnapshotTables.EventRecord(e);
+            record.setDescription(null);
+            index.getEvents().add(record);
+            for (Registration reg : e.getRegistrations()) {
+                SnapshotTables.RegistrationRecord row = new SnapshotTables.RegistrationRecord(reg);
+                row.setTimestamp(null);
+                index.getRegistrations().add(row);
+            }
+        }
+        return index;
+    }
+
+    // =================================================
+    // LOAD
+    // =================================================
+
+    /**
+     * Reads every partition file in parallel (on the common fork-join pool) and merges the tables.
+     */
+    public SnapshotTables readAll() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(Paths.get(DIRECTORY), "*" + FILE_SUFFIX)) {
+            stream.forEach(files::add);
+        }
+        Collections.sort(files);
+
+        List<SnapshotTables> parts;
+        try {
+            parts = files.parallelStream()
+                    .map(this::readPartition)
+                    .collect(Collectors.toList());
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        SnapshotTables merged = new SnapshotTables();
+        for (SnapshotTables part : parts) {
+            merged.addAll(part);
+        }
+        System.out.println("--- Loaded " + files.size() + " partitions from " + DIRECTORY + "/ ---");
+        return merged;
+    }
+
+    SnapshotTables readPartition(Path file) {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file))) {
+            return new BinarySnapshotCodec(compressed).readTables(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read partition " + file, e);
+        }
+    }
+}
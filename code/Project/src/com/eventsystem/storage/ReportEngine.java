@@ -0,0 +1,484 @@
+package com.eventsystem.storage;
+
+import com.eventsystem.model.Event;
+import com.eventsystem.model.EventStatus;
+import com.eventsystem.model.IdService;
+import com.eventsystem.model.Report;
+import com.eventsystem.model.ReportGenerator;
+import com.eventsystem.model.Room;
+import com.eventsystem.model.User;
+
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Campus-wide reports over every event of an EventDatabase: participation per event, room
+ * utilization per building, organizer activity, cancellation and empty-seat rates, and demand
+ * per time of day.
+ *
+ * The events are aggregated per event segment (the monthly partitions of PartitionedStore).
+ * A segment's events are split by a RecursiveTask until SPLIT_THRESHOLD remain, and all
+ * segments that need it are aggregated in parallel on the common fork/join pool. The result
+ * of each segment is cached and dropped when the ChangeBus reports a change to one of its
+ * events, so a new report only aggregates the segments that changed since the last one and
+ * merges the rest from the cache. If nothing changed at all, the previous Report objects are
+ * returned as they are. A segment is also aggregated again once one of its events has ended,
+ * because ended events feed the empty-seat rate.
+ */
+public class ReportEngine implements ReportGenerator {
+
+    private static final int SPLIT_THRESHOLD = 1_024;
+    private static final int TOP_EVENTS = 20;
+    private static final int HOURS = 24;
+
+    // Most registered first; ties by event ID, so the list does not depend on the merge order
+    private static final Comparator<EventRow> BY_REGISTRATIONS =
+            Comparator.comparingInt((EventRow r) -> r.registered).reversed().thenComparing(r -> r.eventID);
+
+    private final EventDatabase database;
+    private final ZoneId zone = ZoneId.systemDefault();
+
+    // --- Guarded by 'this' ---
+    private final Map<String, Set<Event>> eventsBySegment = new HashMap<>();
+    private final Map<Event, String> segmentOf = new IdentityHashMap<>();
+    private final Map<String, Stats> cache = new HashMap<>();
+    private final Map<String, Long> segmentVersions = new HashMap<>();
+    private long version;
+    private List<Report> reports;
+    private long reportsVersion = -1;
+    private long reportsValidUntil;
+    private ChangeBus.Subscription subscription;
+
+    ReportEngine(EventDatabase database) {
+        this.database = database;
+    }
+
+    /**
+     * Sorts every event into its segment and starts following the database's changes.
+     */
+    synchronized void attach() {
+        subscription = database.getChangeBus().subscribe(DatabaseChange.class, this::apply);
+        for (Event e : new ArrayList<>(database.getEvents())) {
+            place(e);
+        }
+    }
+
+    /**
+     * Stops following the database (called when its lists are replaced wholesale).
+     */
+    synchronized void detach() {
+        if (subscription != null) subscription.close();
+        subscription = null;
+    }
+
+    private synchronized void apply(DatabaseChange change) {
+        // Room and user changes only affect the merge (buildings, organizer names)
+        version++;
+        if (change instanceof DatabaseChange.EventRemoved) {
+            unplace(((DatabaseChange.EventRemoved) change).getEvent());
+        } else if (change instanceof DatabaseChange.EventChange) {
+            place(((DatabaseChange.EventChange) change).getEvent());
+        }
+    }
+
+    /**
+     * Files the event under its current segment (it may have been rescheduled into another
+     * month) and drops the cached results of the segments involved.
+     */
+    private void place(Event e) {
+        String current = PartitionedStore.eventSegment(e);
+        String previous = segmentOf.put(e, current);
+        if (previous != null && !previous.equals(current)) {
+            eventsBySegment.get(previous).remove(e);
+            invalidate(previous);
+        }
+        eventsBySegment.computeIfAbsent(current, k -> Collections.newSetFromMap(new IdentityHashMap<>())).add(e);
+        invalidate(current);
+    }
+
+    private void unplace(Event e) {
+        String previous = segmentOf.remove(e);
+        if (previous != null) {
+            eventsBySegment.get(previous).remove(e);
+            invalidate(previous);
+        }
+    }
+
+    private void invalidate(String segment) {
+        cache.remove(segment);
+        segmentVersions.merge(segment, 1L, Long::sum);
+    }
+
+    // =================================================
+    // GENERATION
+    // =================================================
+
+    @Override
+    public List<Report> generate() {
+        long now = System.currentTimeMillis();
+
+        Map<String, Event[]> stale = new HashMap<>();
+        Map<String, Long> staleVersions = new HashMap<>();
+        List<Stats> fresh = new ArrayList<>();
+        long snapshotVersion;
+        synchronized (this) {
+            if (reports != null && reportsVersion == version && now < reportsValidUntil) {
+                return reports;
+            }
+            snapshotVersion = version;
+            for (Map.Entry<String, Set<Event>> segment : eventsBySegment.entrySet()) {
+                Stats cached = cache.get(segment.getKey());
+                if (cached != null && now < cached.validUntil) {
+                    fresh.add(cached);
+                } else {
+                    stale.put(segment.getKey(), segment.getValue().toArray(new Event[0]));
+                    staleVersions.put(segment.getKey(), segmentVersions.getOrDefault(segment.getKey(), 0L));
+                }
+            }
+        }
+
+        // The changed segments are aggregated in parallel, outside the lock
+        Map<String, Stats> computed = ForkJoinPool.commonPool().invoke(new RecursiveTask<Map<String, Stats>>() {
+            @Override
+            protected Map<String, Stats> compute() {
+                Map<String, Aggregate> tasks = new HashMap<>();
+                for (Map.Entry<String, Event[]> segment : stale.entrySet()) {
+                    Event[] events = segment.getValue();
+                    tasks.put(segment.getKey(), new Aggregate(events, 0, events.length, now));
+                }
+                invokeAll(tasks.values());
+                Map<String, Stats> results = new HashMap<>();
+                for (Map.Entry<String, Aggregate> task : tasks.entrySet()) {
+                    results.put(task.getKey(), task.getValue().join());
+                }
+                return results;
+            }
+        });
+
+        Stats total = new Stats();
+        for (Stats s : fresh) total.add(s);
+        for (Stats s : computed.values()) total.add(s);
+        List<Report> built = build(total, now);
+
+        synchronized (this) {
+            // A segment changed while it was being aggregated stays uncached
+            for (Map.Entry<String, Stats> result : computed.entrySet()) {
+                if (staleVersions.get(result.getKey()).equals(segmentVersions.getOrDefault(result.getKey(), 0L))) {
+                    cache.put(result.getKey(), result.getValue());
+                }
+            }
+            if (version == snapshotVersion) {
+                reports = built;
+                reportsVersion = snapshotVersion;
+                reportsValidUntil = total.validUntil;
+            }
+        }
+        return built;
+    }
+
+    /**
+     * Aggregates events[from, to), splitting the range in halves while it is large.
+     */
+    private final class Aggregate extends RecursiveTask<Stats> {
+        private final Event[] events;
+        private final int from;
+        private final int to;
+        private final long now;
+
+        Aggregate(Event[] events, int from, int to, long now) {
+            this.events = events;
+            this.from = from;
+            this.to = to;
+            this.now = now;
+        }
+
+        @Override
+        protected Stats compute() {
+            if (to - from > SPLIT_THRESHOLD) {
+                int middle = (from + to) >>> 1;
+                Aggregate left = new Aggregate(events, from, middle, now);
+                left.fork();
+                Stats right = new Aggregate(events, middle, to, now).compute();
+                Stats result = left.join();
+                result.add(right);
+                return result;
+            }
+            Stats stats = new Stats();
+            for (int i = from; i < to; i++) {
+                stats.count(events[i], now, zone);
+            }
+            return stats;
+        }
+    }
+
+    // =================================================
+    // AGGREGATES
+    // =================================================
+
+    /**
+     * Mergeable counters over a set of events.
+     */
+    private static final class Stats {
+        long events;
+        final int[] byStatus = new int[EventStatus.values().length];
+        long registrations;
+        long activeSeats;
+        long activeRegistrations;
+        long waitlisted;
+
+        // Active events that have already ended
+        long endedEvents;
+        long endedSeats;
+        long endedRegistrations;
+
+        final Map<String, RoomUse> rooms = new HashMap<>();
+        final Map<String, OrganizerActivity> organizers = new HashMap<>();
+        final int[] eventsByHour = new int[HOURS];
+        final long[] seatsByHour = new long[HOURS];
+        final long[] registrationsByHour = new long[HOURS];
+        List<EventRow> top = new ArrayList<>();
+
+        // The next time an event ends; the counts are stale from then on
+        long validUntil = Long.MAX_VALUE;
+
+        void count(Event e, long now, ZoneId zone) {
+            EventStatus status = e.getEventStatus();
+            int registered = e.getRegistrations().size();
+            events++;
+            registrations += registered;
+            waitlisted += e.getWaitlist().size();
+            if (status != null) byStatus[status.ordinal()]++;
+
+            if (e.getOrganizer() != null) {
+                OrganizerActivity o = organizers.computeIfAbsent(e.getOrganizer().getUserID(), k -> new OrganizerActivity());
+                o.events++;
+                if (status != null) o.byStatus[status.ordinal()]++;
+                o.registrations += registered;
+            }
+
+            top.add(new EventRow(e.getEventID(), e.getTitle(), (status != null) ? status.getLabel() : "", registered, e.getCapacity()));
+            if (top.size() > 2 * TOP_EVENTS) trimTop();
+
+            if (status != EventStatus.ACTIVE) return;
+            activeSeats += e.getCapacity();
+            activeRegistrations += registered;
+
+            Date start = e.getStartTime();
+            Date end = e.getEndTime();
+            if (end != null) {
+                if (end.getTime() <= now) {
+                    endedEvents++;
+                    endedSeats += e.getCapacity();
+                    endedRegistrations += registered;
+                } else {
+                    validUntil = Math.min(validUntil, end.getTime());
+                }
+            }
+            if (start != null) {
+                int hour = start.toInstant().atZone(zone).getHour();
+                eventsByHour[hour]++;
+                seatsByHour[hour] += e.getCapacity();
+                registrationsByHour[hour] += registered;
+            }
+            if (e.getRoom() != null) {
+                RoomUse r = rooms.computeIfAbsent(e.getRoom().getRoomID(), k -> new RoomUse());
+                r.events++;
+                r.seats += e.getCapacity();
+                r.registrations += registered;
+                if (start != null && end != null) r.bookedMillis += end.getTime() - start.getTime();
+            }
+        }
+
+        void add(Stats o) {
+            events += o.events;
+            for (int i = 0; i < byStatus.length; i++) byStatus[i] += o.byStatus[i];
+            registrations += o.registrations;
+            activeSeats += o.activeSeats;
+            activeRegistrations += o.activeRegistrations;
+            waitlisted += o.waitlisted;
+            endedEvents += o.endedEvents;
+            endedSeats += o.endedSeats;
+            endedRegistrations += o.endedRegistrations;
+            for (Map.Entry<String, RoomUse> r : o.rooms.entrySet()) {
+                rooms.computeIfAbsent(r.getKey(), k -> new RoomUse()).add(r.getValue());
+            }
+            for (Map.Entry<String, OrganizerActivity> a : o.organizers.entrySet()) {
+                organizers.computeIfAbsent(a.getKey(), k -> new OrganizerActivity()).add(a.getValue());
+            }
+            for (int h = 0; h < HOURS; h++) {
+                eventsByHour[h] += o.eventsByHour[h];
+                seatsByHour[h] += o.seatsByHour[h];
+                registrationsByHour[h] += o.registrationsByHour[h];
+            }
+            top.addAll(o.top);
+            trimTop();
+            validUntil = Math.min(validUntil, o.validUntil);
+        }
+
+        private void trimTop() {
+            top.sort(BY_REGISTRATIONS);
+            if (top.size() > TOP_EVENTS) top = new ArrayList<>(top.subList(0, TOP_EVENTS));
+        }
+    }
+
+    private static final class RoomUse {
+        long events;
+        long seats;
+        long registrations;
+        long bookedMillis;
+
+        void add(RoomUse o) {
+            events += o.events;
+            seats += o.seats;
+            registrations += o.registrations;
+            bookedMillis += o.bookedMillis;
+        }
+    }
+
+    private static final class OrganizerActivity {
+        long events;
+        final int[] byStatus = new int[EventStatus.values().length];
+        long registrations;
+
+        void add(OrganizerActivity o) {
+            events += o.events;
+            for (int i = 0; i < byStatus.length; i++) byStatus[i] += o.byStatus[i];
+            registrations += o.registrations;
+        }
+    }
+
+    private static final class EventRow {
+        final String eventID;
+        final String title;
+        final String status;
+        final int registered;
+        final int capacity;
+
+        EventRow(String eventID, String title, String status, int registered, int capacity) {
+            this.eventID = eventID;
+            this.title = title;
+            this.status = status;
+            this.registered = registered;
+            this.capacity = capacity;
+        }
+    }
+
+    // =================================================
+    // REPORTS
+    // =================================================
+
+    private List<Report> build(Stats s, long now) {
+        List<Report> result = new ArrayList<>();
+        result.add(report("Event Participation Report", participation(s)));
+        result.add(report("Room Utilization per Building", roomUtilization(s)));
+        result.add(report("Organizer Activity Report", organizerActivity(s)));
+        result.add(report("Cancellation and No-Show Report", cancellations(s)));
+        result.add(report("Time-of-Day Demand Report", timeOfDay(s)));
+        return Collections.unmodifiableList(result);
+    }
+
+    private static Report report(String title, String data) {
+        return new Report(IdService.nextId("R"), title, data);
+    }
+
+    private String participation(Stats s) {
+        StringBuilder out = new StringBuilder();
+        out.append("Events: ").append(s.events).append('\n');
+        for (EventStatus status : EventStatus.values()) {
+            out.append("- ").append(status.getLabel()).append(": ").append(s.byStatus[status.ordinal()]).append('\n');
+        }
+        out.append("Registrations: ").append(s.registrations).append('\n');
+        out.append("Seats taken in active events: ").append(s.activeRegistrations).append(" / ").append(s.activeSeats)
+                .append(" (").append(percent(s.activeRegistrations, s.activeSeats)).append(")\n\n");
+        out.append("Most registered events:\n");
+        for (EventRow r : s.top) {
+            out.append(String.format("- %s [%s]: %d / %d (%s)%n", r.title, r.status, r.registered, r.capacity,
+                    percent(r.registered, r.capacity)));
+        }
+        return out.toString();
+    }
+
+    private String roomUtilization(Stats s) {
+        // Buildings are the rooms' locations; bookings of deleted rooms are listed separately
+        Map<String, RoomUse> buildings = new TreeMap<>();
+        Map<String, Integer> roomCounts = new TreeMap<>();
+        Map<String, RoomUse> unknown = new HashMap<>(s.rooms);
+        for (Room room : new ArrayList<>(database.getRooms())) {
+            String building = (room.getLocation() != null) ? room.getLocation() : "(no location)";
+            roomCounts.merge(building, 1, Integer::sum);
+            RoomUse use = unknown.remove(room.getRoomID());
+            RoomUse total = buildings.computeIfAbsent(building, k -> new RoomUse());
+            if (use != null) total.add(use);
+        }
+        if (!unknown.isEmpty()) {
+            RoomUse removed = new RoomUse();
+            for (RoomUse use : unknown.values()) removed.add(use);
+            buildings.put("(removed rooms)", removed);
+            roomCounts.put("(removed rooms)", unknown.size());
+        }
+
+        StringBuilder out = new StringBuilder("Active events per building:\n");
+        for (Map.Entry<String, RoomUse> b : buildings.entrySet()) {
+            RoomUse use = b.getValue();
+            out.append(String.format("- %s: %d room(s), %d event(s), %.1f hours booked, seats taken %d / %d (%s)%n",
+                    b.getKey(), roomCounts.get(b.getKey()), use.events, use.bookedMillis / 3_600_000.0,
+                    use.registrations, use.seats, percent(use.registrations, use.seats)));
+        }
+        return out.toString();
+    }
+
+    private String organizerActivity(Stats s) {
+        List<Map.Entry<String, OrganizerActivity>> rows = new ArrayList<>(s.organizers.entrySet());
+        rows.sort(Comparator.comparingLong((Map.Entry<String, OrganizerActivity> r) -> r.getValue().events).reversed());
+
+        StringBuilder out = new StringBuilder("Organizers by events created:\n");
+        for (Map.Entry<String, OrganizerActivity> row : rows) {
+            User organizer = database.findUser(row.getKey());
+            OrganizerActivity a = row.getValue();
+            out.append(String.format("- %s: %d event(s) (%d active, %d pending, %d cancelled, %d rejected), "
+                            + "%d registrations, %.1f per event%n",
+                    (organizer != null) ? organizer.getName() : row.getKey(), a.events,
+                    a.byStatus[EventStatus.ACTIVE.ordinal()], a.byStatus[EventStatus.PENDING.ordinal()],
+                    a.byStatus[EventStatus.CANCELLED.ordinal()], a.byStatus[EventStatus.REJECTED.ordinal()],
+                    a.registrations, (a.events == 0) ? 0.0 : (double) a.registrations / a.events));
+        }
+        return out.toString();
+    }
+
+    private String cancellations(Stats s) {
+        int cancelled = s.byStatus[EventStatus.CANCELLED.ordinal()];
+        int rejected = s.byStatus[EventStatus.REJECTED.ordinal()];
+        return "Cancelled events: " + cancelled + " of " + s.events + " (" + percent(cancelled, s.events) + ")\n"
+                + "Rejected events: " + rejected + " of " + s.events + " (" + percent(rejected, s.events) + ")\n"
+                + "Ended active events: " + s.endedEvents + "\n"
+                // Attendance is not recorded, so unclaimed seats of past events stand in for no-shows
+                + "Empty seats at ended events: " + (s.endedSeats - s.endedRegistrations) + " of " + s.endedSeats
+                + " (" + percent(s.endedSeats - s.endedRegistrations, s.endedSeats) + ")\n"
+                + "Students on waitlists: " + s.waitlisted + "\n";
+    }
+
+    private String timeOfDay(Stats s) {
+        StringBuilder out = new StringBuilder("Active events by start hour:\n");
+        for (int h = 0; h < HOURS; h++) {
+            if (s.eventsByHour[h] == 0) continue;
+            out.append(String.format("- %02d:00: %d event(s), %d registrations, seats taken %s%n",
+                    h, s.eventsByHour[h], s.registrationsByHour[h], percent(s.registrationsByHour[h], s.seatsByHour[h])));
+        }
+        return out.toString();
+    }
+
+    private static String percent(long part, long whole) {
+        return (whole == 0) ? "-" : String.format("%.1f%%", 100.0 * part / whole);
+    }
+}
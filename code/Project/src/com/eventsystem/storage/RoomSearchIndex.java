@@ -0,0 +1,49 @@
+package com.eventsystem.storage;
+
+import com.eventsystem.model.Room;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * The rooms of an EventDatabase sorted by capacity, for the free-room search.
+ *
+ * A search only visits rooms that are large enough (one TreeMap tail), smallest first,
+ * and asks each of them whether the time window is free (occupancy bitmaps of its BookingList).
+ */
+class RoomSearchIndex {
+
+    private final TreeMap<Integer, List<Room>> byCapacity = new TreeMap<>();
+
+    RoomSearchIndex(List<Room> rooms) {
+        for (Room r : rooms) {
+            add(r);
+        }
+    }
+
+    void add(Room room) {
+        byCapacity.computeIfAbsent(room.getCapacity(), k -> new ArrayList<>()).add(room);
+    }
+
+    void remove(Room room) {
+        List<Room> sameCapacity = byCapacity.get(room.getCapacity());
+        if (sameCapacity == null) return;
+        sameCapacity.remove(room);
+        if (sameCapacity.isEmpty()) byCapacity.remove(room.getCapacity());
+    }
+
+    /**
+     * Rooms with at least minCapacity seats and no booking in [start, end), best fit first.
+     */
+    List<Room> findFree(Date start, Date end, int minCapacity) {
+        List<Room> result = new ArrayList<>();
+        for (List<Room> sameCapacity : byCapacity.tailMap(minCapacity, true).values()) {
+            for (Room r : sameCapacity) {
+                if (r.isAvailable(start, end)) result.add(r);
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,278 @@
+package com.eventsystem.storage;
+
+import com.eventsystem.model.Event;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Inverted full-text index over the in-memory events of an EventDatabase, for as-you-type search.
+ *
+ * Title, description, organizer name and room name are split into lower-case words. Each word
+ * maps to the events containing it, weighted by field (title 8, organizer 4, room 2,
+ * description 1). The words are kept sorted, so a prefix is one TreeMap range. A trigram
+ * index over the vocabulary (not over the events) finds words that contain a term in the
+ * middle, e.g. "conf" in "videoconference".
+ *
+ * Every event gets a dense document number, stored with its weight in each posting, so a
+ * query scores into plain int arrays and ranks with a counting sort over the (small) score
+ * range: the cost depends on the number of matching words and events, not on the total
+ * number of events. The database forwards every change of an event's details (see
+ * EventDatabase.Watcher), so an event is re-indexed when its title, description, organizer
+ * or room changes.
+ */
+class SearchIndex {
+
+    private static final int TITLE_WEIGHT = 8;
+    private static final int ORGANIZER_WEIGHT = 4;
+    private static final int ROOM_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+
+    // Match quality multipliers
+    private static final int EXACT = 3;
+    private static final int PREFIX = 2;
+    private static final int INFIX = 1;
+
+    // A posting value is (document << WEIGHT_BITS) | field weight
+    private static final int WEIGHT_BITS = 4;
+    private static final int WEIGHT_MASK = (1 << WEIGHT_BITS) - 1;
+    private static final int MAX_TERM_SCORE = WEIGHT_MASK * EXACT;
+
+    private static final int GRAM = 3;
+
+    private final TreeMap<String, Map<Event, Integer>> postings = new TreeMap<>();
+    private final Map<String, Set<String>> wordsByGram = new HashMap<>();
+
+    // --- Documents ---
+    private final List<Event> documents = new ArrayList<>();
+    private final ArrayDeque<Integer> freeDocuments = new ArrayDeque<>();
+    private final Map<Event, Integer> documentOf = new HashMap<>();
+    private final Map<Event, Set<String>> wordsByEvent = new HashMap<>();
+
+    SearchIndex(Collection<Event> events) {
+        for (Event e : events) {
+            add(e);
+        }
+    }
+
+    synchronized void add(Event event) {
+        if (documentOf.containsKey(event)) return;
+        Integer doc = freeDocuments.poll();
+        if (doc == null) {
+            doc = documents.size();
+            documents.add(event);
+        } else {
+            documents.set(doc, event);
+        }
+        documentOf.put(event, doc);
+        index(event, doc);
+    }
+
+    synchronized void remove(Event event) {
+        Integer doc = documentOf.remove(event);
+        if (doc == null) return;
+        unindex(event);
+        documents.set(doc, null);
+        freeDocuments.push(doc);
+    }
+
+    synchronized void detailsChanged(Event event) {
+        Integer doc = documentOf.get(event);
+        if (doc == null) return;
+        unindex(event);
+        index(event, doc);
+    }
+
+    /**
+     * The events matching every word of the query, best match first (ties in index order).
+     * A blank query matches nothing. If the calling thread is interrupted (a superseded
+     * search being cancelled) the search stops early and returns an empty list.
+     */
+    synchronized List<Event> search(String query) {
+        List<String> terms = new ArrayList<>(tokenize(query));
+        if (terms.isEmpty()) return new ArrayList<>();
+
+        int n = documents.size();
+        int[] total = new int[n];
+        int[] matchedTerms = new int[n];
+        int[] best = new int[n];
+        int[] touched = new int[n];
+        int touchedCount = 0;
+
+        for (int t = 0; t < terms.size(); t++) {
+            if (Thread.currentThread().isInterrupted()) return new ArrayList<>();
+            String term = terms.get(t);
+            touchedCount = 0;
+
+            // Best match of this term per document: exact or prefix words, then words containing it
+            for (Map.Entry<String, Map<Event, Integer>> word
+                    : postings.subMap(term, true, term + Character.MAX_VALUE, false).entrySet()) {
+                int quality = word.getKey().equals(term) ? EXACT : PREFIX;
+                touchedCount = collect(word.getValue(), quality, best, touched, touchedCount);
+            }
+            if (term.length() >= GRAM) {
+                for (String word : wordsContaining(term)) {
+                    if (!word.startsWith(term)) {
+                        touchedCount = collect(postings.get(word), INFIX, best, touched, touchedCount);
+                    }
+                }
+            }
+
+            // Only documents that matched every earlier term stay in the running
+            for (int i = 0; i < touchedCount; i++) {
+                int doc = touched[i];
+                if (matchedTerms[doc] == t) {
+                    matchedTerms[doc]++;
+                    total[doc] += best[doc];
+                }
+                best[doc] = 0;
+            }
+        }
+
+        if (Thread.currentThread().isInterrupted()) return new ArrayList<>();
+
+        // Counting sort of the documents that matched every term, highest score first
+        int termCount = terms.size();
+        int[] countByScore = new int[MAX_TERM_SCORE * termCount + 2];
+        int matches = 0;
+        for (int i = 0; i < touchedCount; i++) {
+            int doc = touched[i];
+            if (matchedTerms[doc] == termCount) {
+                countByScore[total[doc]]++;
+                matches++;
+            }
+        }
+        int[] slot = new int[countByScore.length];
+        for (int score = countByScore.length - 2, next = 0; score >= 0; score--) {
+            slot[score] = next;
+            next += countByScore[score];
+        }
+        Arrays.sort(touched, 0, touchedCount);
+        Event[] ranked = new Event[matches];
+        for (int i = 0; i < touchedCount; i++) {
+            int doc = touched[i];
+            if (matchedTerms[doc] == termCount) ranked[slot[total[doc]]++] = documents.get(doc);
+        }
+        return new ArrayList<>(Arrays.asList(ranked));
+    }
+
+    synchronized int getWordCount() { return postings.size(); }
+
+    // --- Matching ---
+
+    /**
+     * Raises each document's best score for the current term; returns the new touched count.
+     */
+    private static int collect(Map<Event, Integer> posting, int quality, int[] best, int[] touched, int touchedCount) {
+        for (int value : posting.values()) {
+            int doc = value >>> WEIGHT_BITS;
+            int score = (value & WEIGHT_MASK) * quality;
+            if (best[doc] == 0) touched[touchedCount++] = doc;
+            if (score > best[doc]) best[doc] = score;
+        }
+        return touchedCount;
+    }
+
+    /**
+     * Words containing the term, found by intersecting the words of each trigram of the term.
+     */
+    private Set<String> wordsContaining(String term) {
+        Set<String> candidates = null;
+        for (int i = 0; i + GRAM <= term.length(); i++) {
+            Set<String> words = wordsByGram.get(term.substring(i, i + GRAM));
+            if (words == null) return new HashSet<>();
+            if (candidates == null) {
+                candidates = new HashSet<>(words);
+            } else {
+                candidates.retainAll(words);
+            }
+        }
+        candidates.removeIf(word -> !word.contains(term));
+        return candidates;
+    }
+
+    // --- Indexing ---
+
+    private void index(Event event, int doc) {
+        Map<String, Integer> words = new HashMap<>();
+        addField(words, event.getTitle(), TITLE_WEIGHT);
+        addField(words, event.getOrganizer() != null ? event.getOrganizer().getName() : null, ORGANIZER_WEIGHT);
+        addField(words, event.getRoom() != null ? event.getRoom().getName() : null, ROOM_WEIGHT);
+        addField(words, event.getDescription(), DESCRIPTION_WEIGHT);
+
+        wordsByEvent.put(event, words.keySet());
+        for (Map.Entry<String, Integer> w : words.entrySet()) {
+            Map<Event, Integer> posting = postings.get(w.getKey());
+            if (posting == null) {
+                posting = new HashMap<>();
+                postings.put(w.getKey(), posting);
+                for (String gram : grams(w.getKey())) {
+                    wordsByGram.computeIfAbsent(gram, k -> new HashSet<>()).add(w.getKey());
+                }
+            }
+            posting.put(event, (doc << WEIGHT_BITS) | w.getValue());
+        }
+    }
+
+    private void unindex(Event event) {
+        Set<String> words = wordsByEvent.remove(event);
+        if (words == null) return;
+        for (String word : words) {
+            Map<Event, Integer> posting = postings.get(word);
+            posting.remove(event);
+            if (posting.isEmpty()) {
+                postings.remove(word);
+                for (String gram : grams(word)) {
+                    Set<String> gramWords = wordsByGram.get(gram);
+                    gramWords.remove(word);
+                    if (gramWords.isEmpty()) wordsByGram.remove(gram);
+                }
+            }
+        }
+    }
+
+    private static void addField(Map<String, Integer> words, String text, int weight) {
+        // A word counts once per field
+        for (String word : tokenize(text)) {
+            words.merge(word, weight, Integer::sum);
+        }
+    }
+
+    /**
+     * The distinct lower-case words (runs of letters and digits) of the text, in order.
+     */
+    private static Set<String> tokenize(String text) {
+        Set<String> words = new LinkedHashSet<>();
+        if (text == null) return words;
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean wordChar = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                words.add(lower.substring(start, i));
+                start = -1;
+            }
+        }
+        return words;
+    }
+
+    private static Set<String> grams(String word) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= word.length(); i++) {
+            grams.add(word.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+}
@@ -0,0 +1,524 @@
+package com.eventsystem.storage;
+
+import com.eventsystem.model.*;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * ID-normalized form of an EventDatabase used by every snapshot format.
+ *
+ * Each entity is stored exactly once in a flat per-type table, and every link between
+ * entities is written as an ID (eventID, userID, roomID). Building the tables is one pass
+ * over the graph; turning them back into objects is a table pass plus a second linear
+ * pass that resolves IDs through hash maps. Neither direction recurses into the graph.
+ *
+ * Records are plain JavaBeans so the tables can also be written with XMLEncoder.
+ */
+public class SnapshotTables implements Serializable {
+
+    private List<RoomRecord> rooms = new ArrayList<>();
+    private List<UserRecord> administrators = new ArrayList<>();
+    private List<UserRecord> organizers = new ArrayList<>();
+    private List<UserRecord> students = new ArrayList<>();
+    private List<EventRecord> events = new ArrayList<>();
+    private List<RegistrationRecord> registrations = new ArrayList<>();
+    private List<NotificationRecord> notifications = new ArrayList<>();
+    private List<LinkRecord> bookings = new ArrayList<>();
+    private List<LinkRecord> createdEvents = new ArrayList<>();
+    private List<LinkRecord> waitlist = new ArrayList<>();
+
+    /**
+     * Public no-arg constructor (REQUIRED for XMLDecoder)
+     */
+    public SnapshotTables() {
+    }
+
+    // =================================================
+    // GRAPH -> TABLES
+    // =================================================
+
+    public static SnapshotTables fromDatabase(EventDatabase db) {
+        SnapshotTables t = new SnapshotTables();
+        t.addRoomTable(db);
+        t.addAdministratorTable(db);
+        t.addOrganizerTable(db);
+        t.addStudentTable(db);
+        t.addEventTables(db.getEvents(), bookedEvents(db), eventOwners(db));
+        return t;
+    }
+
+    // Rooms and users that were removed from the lists but are still referenced are kept as "unlisted"
+
+    void addRoomTable(EventDatabase db) {
+        List<Room> graph = withDetached(db.getRooms(), db.getEvents(), Event::getRoom);
+        for (int i = 0; i < graph.size(); i++) {
+            Room r = graph.get(i);
+            rooms.add(new RoomRecord(r.getRoomID(), r.getName(), r.getLocation(), r.getCapacity(), i < db.getRooms().size()));
+        }
+    }
+
+    void addAdministratorTable(EventDatabase db) {
+        for (Administrator a : db.getAdministrators()) {
+            administrators.add(new UserRecord(a, null, true));
+        }
+    }
+
+    void addOrganizerTable(EventDatabase db) {
+        List<EventOrganizer> graph = withDetached(db.getOrganizers(), db.getEvents(), Event::getOrganizer);
+        for (int i = 0; i < graph.size(); i++) {
+            organizers.add(new UserRecord(graph.get(i), null, i < db.getOrganizers().size()));
+        }
+    }
+
+    void addStudentTable(EventDatabase db) {
+        List<Student> referenced = new ArrayList<>();
+        for (Event e : db.getEvents()) {
+            for (Registration reg : e.getRegistrations()) {
+                referenced.add(reg.getStudent());
+            }
+            referenced.addAll(e.getWaitlist().getStudents());
+        }
+        List<Student> graph = withDetached(db.getStudents(), referenced, s -> s);
+        for (int i = 0; i < graph.size(); i++) {
+            Student s = graph.get(i);
+            students.add(new UserRecord(s, s.getStudentID(), i < db.getStudents().size()));
+        }
+    }
+
+    /**
+     * Adds the given events together with everything that hangs off them:
+     * registrations, notifications, the waitlist, the room booking and the organizer ownership links.
+     */
+    void addEventTables(Collection<Event> eventList, Set<Event> booked, Map<Event, List<String>> owners) {
+        for (Event e : eventList) {
+            events.add(new EventRecord(e));
+            for (Registration reg : e.getRegistrations()) {
+                registrations.add(new RegistrationRecord(reg));
+            }
+            for (Notification n : e.getNotifications()) {
+                NotificationRecord record = new NotificationRecord(n.getNotificationID(), n.getMessage(), e.getEventID());
+                record.setRecipientID(n.getRecipientID());
+                notifications.add(record);
+            }
+            for (Student s : e.getWaitlist().getStudents()) {
+                waitlist.add(new LinkRecord(s.getUserID(), e.getEventID()));
+            }
+            if (e.getRoom() != null && booked.contains(e)) {
+                bookings.add(new LinkRecord(e.getRoom().getRoomID(), e.getEventID()));
+            }
+            for (String ownerID : owners.getOrDefault(e, Collections.emptyList())) {
+                createdEvents.add(new LinkRecord(ownerID, e.getEventID()));
+            }
+        }
+    }
+
+    /**
+     * Appends every row of another table set (used to merge partitions).
+     */
+    void addAll(SnapshotTables other) {
+        rooms.addAll(other.rooms);
+        administrators.addAll(other.administrators);
+        organizers.addAll(other.organizers);
+        students.addAll(other.students);
+        events.addAll(other.events);
+        registrations.addAll(other.registrations);
+        notifications.addAll(other.notifications);
+        bookings.addAll(other.bookings);
+        createdEvents.addAll(other.createdEvents);
+        waitlist.addAll(other.waitlist);
+    }
+
+    /**
+     * Events currently holding a booking in their room.
+     */
+    static Set<Event> bookedEvents(EventDatabase db) {
+        Set<Event> booked = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Room r : withDetached(db.getRooms(), db.getEvents(), Event::getRoom)) {
+            booked.addAll(r.getBookings());
+        }
+        return booked;
+    }
+
+    /**
+     * For each event, the userIDs of the organizers listing it among their created events.
+     */
+    static Map<Event, List<String>> eventOwners(EventDatabase db) {
+        Map<Event, List<String>> owners = new IdentityHashMap<>();
+        for (EventOrganizer o : withDetached(db.getOrganizers(), db.getEvents(), Event::getOrganizer)) {
+            for (Event created : o.getCreatedEvents()) {
+                owners.computeIfAbsent(created, k -> new ArrayList<>()).add(o.getUserID());
+            }
+        }
+        return owners;
+    }
+
+    private static <T, O> List<T> withDetached(List<T> listed, List<O> owners, Function<O, T> reference) {
+        Set<T> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        seen.addAll(listed);
+        List<T> result = new ArrayList<>(listed);
+        for (O owner : owners) {
+            T target = reference.apply(owner);
+            if (target != null && seen.add(target)) {
+                result.add(target);
+            }
+        }
+        return result;
+    }
+
+    // =================================================
+    // TABLES -> GRAPH
+    // =================================================
+
+    public EventDatabase toDatabase() {
+        EventDatabase db = new EventDatabase();
+        Resolver resolver = addEntitiesTo(db);
+        for (Event e : resolveEvents(resolver)) {
+            db.addEvent(e);
+        }
+        return db;
+    }
+
+    /**
+     * Rooms and users by ID, including unlisted ones, used to resolve event references.
+     */
+    static class Resolver {
+        final Map<String, Room> roomsById = new HashMap<>();
+        final Map<String, EventOrganizer> organizersById = new HashMap<>();
+        final Map<String, Student> studentsById = new HashMap<>();
+    }
+
+    /**
+     * Pass 1 for rooms and users: creates them, adds the listed ones to the database
+     * and returns the lookup maps for the event tables.
+     */
+    Resolver addEntitiesTo(EventDatabase db) {
+        Resolver resolver = new Resolver();
+        for (RoomRecord r : rooms) {
+            Room room = new Room(r.getRoomID(), r.getName(), r.getLocation(), r.getCapacity());
+            if (r.isListed()) db.addRoom(room);
+            resolver.roomsById.put(room.getRoomID(), room);
+        }
+        for (UserRecord u : administrators) {
+            db.addAdministrator(new Administrator(u.getUserID(), u.getName(), u.getEmail(), u.getPasswordHash()));
+        }
+        for (UserRecord u : organizers) {
+            EventOrganizer o = new EventOrganizer(u.getUserID(), u.getName(), u.getEmail(), u.getPasswordHash());
+            if (u.isListed()) db.addOrganizer(o);
+            resolver.organizersById.put(o.getUserID(), o);
+        }
+        for (UserRecord u : students) {
+            Student s = new Student(u.getUserID(), u.getStudentID(), u.getName(), u.getEmail(), u.getPasswordHash());
+            if (u.isListed()) db.addStudent(s);
+            resolver.studentsById.put(s.getUserID(), s);
+        }
+        return resolver;
+    }
+
+    /**
+     * Creates the events of these tables and links them to the resolver's rooms and users
+     * (registrations, bookings and created events are added on both sides).
+     * The events are returned in table order and are not added to any database.
+     */
+    List<Event> resolveEvents(Resolver resolver) {
+        List<Event> created = new ArrayList<>(events.size());
+        Map<String, Event> eventsById = new HashMap<>();
+
+        // --- Pass 1: create the events ---
+        for (EventRecord r : events) {
+            Event e = new Event();
+            e.setEventID(r.getEventID());
+            e.setTitle(r.getTitle());
+            e.setDescription(r.getDescription());
+            e.setStartTime(r.getStartTime());
+            e.setEndTime(r.getEndTime());
+            e.setCapacity(r.getCapacity());
+            e.setStatus(r.getStatus());
+            e.setVersion(r.getVersion());
+            e.setLastModified(r.getLastModified());
+            created.add(e);
+            eventsById.put(e.getEventID(), e);
+        }
+
+        // --- Pass 2: resolve references by ID ---
+        for (EventRecord r : events) {
+            Event e = eventsById.get(r.getEventID());
+            e.setOrganizer(resolver.organizersById.get(r.getOrganizerID()));
+            e.setRoom(resolver.roomsById.get(r.getRoomID()));
+        }
+        for (RegistrationRecord r : registrations) {
+            Event e = eventsById.get(r.getEventID());
+            if (e == null) continue;
+            Registration reg = new Registration();
+            reg.setRegistrationID(r.getRegistrationID());
+            reg.setTimestamp(r.getTimestamp());
+            reg.setEvent(e);
+            Student s = resolver.studentsById.get(r.getStudentID());
+            if (s != null) {
+                reg.setStudent(s);
+                s.getRegistrations().add(reg);
+            }
+            e.getRegistrations().add(reg);
+        }
+        for (NotificationRecord r : notifications) {
+            Event e = eventsById.get(r.getEventID());
+            if (e != null) {
+                e.getNotifications().add(new Notification(r.getNotificationID(), r.getMessage(), e, r.getRecipientID()));
+            }
+        }
+        for (LinkRecord link : bookings) {
+            Room room = resolver.roomsById.get(link.getOwnerID());
+            Event e = eventsById.get(link.getEventID());
+            if (room != null && e != null) room.getBookings().add(e);
+        }
+        for (LinkRecord link : createdEvents) {
+            EventOrganizer o = resolver.organizersById.get(link.getOwnerID());
+            Event e = eventsById.get(link.getEventID());
+            if (o != null && e != null) o.getCreatedEvents().add(e);
+        }
+        // Waitlist rows are in line order
+        for (LinkRecord link : waitlist) {
+            Student s = resolver.studentsById.get(link.getOwnerID());
+            Event e = eventsById.get(link.getEventID());
+            if (s != null && e != null) e.getWaitlist().join(s);
+        }
+        return created;
+    }
+
+    // --- Getters and Setters (REQUIRED for XMLEncoder) ---
+
+    public List<RoomRecord> getRooms() { return rooms; }
+    public void setRooms(List<RoomRecord> rooms) { this.rooms = rooms; }
+
+    public List<UserRecord> getAdministrators() { return administrators; }
+    public void setAdministrators(List<UserRecord> administrators) { this.administrators = administrators; }
+
+    public List<UserRecord> getOrganizers() { return organizers; }
+    public void setOrganizers(List<UserRecord> organizers) { this.organizers = organizers; }
+
+    public List<UserRecord> getStudents() { return students; }
+    public void setStudents(List<UserRecord> students) { this.students = students; }
+
+    public List<EventRecord> getEvents() { return events; }
+    public void setEvents(List<EventRecord> events) { this.events = events; }
+
+    public List<RegistrationRecord> getRegistrations() { return registrations; }
+    public void setRegistrations(List<RegistrationRecord> registrations) { this.registrations = registrations; }
+
+    public List<NotificationRecord> getNotifications() { return notifications; }
+    public void setNotifications(List<NotificationRecord> notifications) { this.notifications = notifications; }
+
+    public List<LinkRecord> getBookings() { return bookings; }
+    public void setBookings(List<LinkRecord> bookings) { this.bookings = bookings; }
+
+    public List<LinkRecord> getCreatedEvents() { return createdEvents; }
+    public void setCreatedEvents(List<LinkRecord> createdEvents) { this.createdEvents = createdEvents; }
+
+    public List<LinkRecord> getWaitlist() { return waitlist; }
+    public void setWaitlist(List<LinkRecord> waitlist) { this.waitlist = waitlist; }
+
+    // =================================================
+    // RECORD TYPES
+    // =================================================
+
+    public static class RoomRecord implements Serializable {
+        private String roomID;
+        private String name;
+        private String location;
+        private int capacity;
+        private boolean listed = true;
+
+        public RoomRecord() {
+        }
+
+        public RoomRecord(String roomID, String name, String location, int capacity, boolean listed) {
+            this.roomID = roomID;
+            this.name = name;
+            this.location = location;
+            this.capacity = capacity;
+            this.listed = listed;
+        }
+
+        public String getRoomID() { return roomID; }
+        public void setRoomID(String roomID) { this.roomID = roomID; }
+        public String getName() { return name; }
+        public void setName(String name) { this.name = name; }
+        public String getLocation() { return location; }
+        public void setLocation(String location) { this.location = location; }
+        public int getCapacity() { return capacity; }
+        public void setCapacity(int capacity) { this.capacity = capacity; }
+        public boolean isListed() { return listed; }
+        public void setListed(boolean listed) { this.listed = listed; }
+    }
+
+    public static class UserRecord implements Serializable {
+        private String userID;
+        private String name;
+        private String email;
+        private String passwordHash;
+        private String studentID;
+        private boolean listed = true;
+
+        public UserRecord() {
+        }
+
+        public UserRecord(User user, String studentID, boolean listed) {
+            this.userID = user.getUserID();
+            this.name = user.getName();
+            this.email = user.getEmail();
+            this.passwordHash = user.getPasswordHash();
+            this.studentID = studentID;
+            this.listed = listed;
+        }
+
+        public String getUserID() { return userID; }
+        public void setUserID(String userID) { this.userID = userID; }
+        public String getName() { return name; }
+        public void setName(String name) { this.name = name; }
+        public String getEmail() { return email; }
+        public void setEmail(String email) { this.email = email; }
+        public String getPasswordHash() { return passwordHash; }
+        public void setPasswordHash(String passwordHash) { this.passwordHash = passwordHash; }
+        public String getStudentID() { return studentID; }
+        public void setStudentID(String studentID) { this.studentID = studentID; }
+        public boolean isListed() { return listed; }
+        public void setListed(boolean listed) { this.listed = listed; }
+    }
+
+    public static class EventRecord implements Serializable {
+        private String eventID;
+        private String title;
+        private String description;
+        private Date startTime;
+        private Date endTime;
+        private int capacity;
+        private String status;
+        private String organizerID;
+        private String roomID;
+        private int version;
+        private long lastModified;
+
+        public EventRecord() {
+        }
+
+        public EventRecord(Event e) {
+            this.eventID = e.getEventID();
+            this.title = e.getTitle();
+            this.description = e.getDescription();
+            this.startTime = e.getStartTime();
+            this.endTime = e.getEndTime();
+            this.capacity = e.getCapacity();
+            this.status = e.getStatus();
+            this.organizerID = (e.getOrganizer() != null) ? e.getOrganizer().getUserID() : null;
+            this.roomID = (e.getRoom() != null) ? e.getRoom().getRoomID() : null;
+            this.version = e.getVersion();
+            this.lastModified = e.getLastModified();
+        }
+
+        public String getEventID() { return eventID; }
+        public void setEventID(String eventID) { this.eventID = eventID; }
+        public String getTitle() { return title; }
+        public void setTitle(String title) { this.title = title; }
+        public String getDescription() { return description; }
+        public void setDescription(String description) { this.description = description; }
+        public Date getStartTime() { return startTime; }
+        public void setStartTime(Date startTime) { this.startTime = startTime; }
+        public Date getEndTime() { return endTime; }
+        public void setEndTime(Date endTime) { this.endTime = endTime; }
+        public int getCapacity() { return capacity; }
+        public void setCapacity(int capacity) { this.capacity = capacity; }
+        public String getStatus() { return status; }
+        public void setStatus(String status) { this.status = status; }
+        public String getOrganizerID() { return organizerID; }
+        public void setOrganizerID(String organizerID) { this.organizerID = organizerID; }
+        public String getRoomID() { return roomID; }
+        public void setRoomID(String roomID) { this.roomID = roomID; }
+        public int getVersion() { return version; }
+        public void setVersion(int version) { this.version = version; }
+        public long getLastModified() { return lastModified; }
+        public void setLastModified(long lastModified) { this.lastModified = lastModified; }
+    }
+
+    public static class RegistrationRecord implements Serializable {
+        private String registrationID;
+        private Date timestamp;
+        private String studentID;
+        private String eventID;
+
+        public RegistrationRecord() {
+        }
+
+        public RegistrationRecord(Registration reg) {
+            this.registrationID = reg.getRegistrationID();
+            this.timestamp = reg.getTimestamp();
+            this.studentID = (reg.getStudent() != null) ? reg.getStudent().getUserID() : null;
+            this.eventID = reg.getEvent().getEventID();
+        }
+
+        public String getRegistrationID() { return registrationID; }
+        public void setRegistrationID(String registrationID) { this.registrationID = registrationID; }
+        public Date getTimestamp() { return timestamp; }
+        public void setTimestamp(Date timestamp) { this.timestamp = timestamp; }
+        /** The student's userID (not the printed student number). */
+        public String getStudentID() { return studentID; }
+        public void setStudentID(String studentID) { this.studentID = studentID; }
+        public String getEventID() { return eventID; }
+        public void setEventID(String eventID) { this.eventID = eventID; }
+    }
+
+    public static class NotificationRecord implements Serializable {
+        private String notificationID;
+        private String message;
+        private String eventID;
+        private String recipientID;
+
+        public NotificationRecord() {
+        }
+
+        public NotificationRecord(String notificationID, String message, String eventID) {
+            this.notificationID = notificationID;
+            this.message = message;
+            this.eventID = eventID;
+        }
+
+        public String getNotificationID() { return notificationID; }
+        public void setNotificationID(String notificationID) { this.notificationID = notificationID; }
+        public String getMessage() { return message; }
+        public void setMessage(String message) { this.message = message; }
+        public String getEventID() { return eventID; }
+        public void setEventID(String eventID) { this.eventID = eventID; }
+        public String getRecipientID() { return recipientID; }
+        public void setRecipientID(String recipientID) { this.recipientID = recipientID; }
+    }
+
+    /**
+     * A (owner, event) pair: room bookings use the roomID, created events use the organizer's userID,
+     * waitlist rows use the student's userID.
+     */
+    public static class LinkRecord implements Serializable {
+        private String ownerID;
+        private String eventID;
+
+        public LinkRecord() {
+        }
+
+        public LinkRecord(String ownerID, String eventID) {
+            this.ownerID = ownerID;
+            this.eventID = eventID;
+        }
+
+        public String getOwnerID() { return ownerID; }
+        public void setOwnerID(String ownerID) { this.ownerID = ownerID; }
+        public String getEventID() { return eventID; }
+        public void setEventID(String eventID) { this.eventID = eventID; }
+    }
+}
@@ -0,0 +1,54 @@
+package com.eventsystem.storage;
+
+import com.eventsystem.model.Event;
+import com.eventsystem.model.EventStatus;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The in-memory events of an EventDatabase grouped by status.
+ *
+ * The database forwards every status change of its events (see EventDatabase.Watcher), so
+ * each approve/reject/cancel (and each status set by journal replay) moves the event to its
+ * new group right away. Listing the events of one status is O(result), counting is O(1).
+ */
+class StatusIndex {
+
+    private final Map<EventStatus, Set<Event>> byStatus = new EnumMap<>(EventStatus.class);
+
+    StatusIndex(Collection<Event> events) {
+        for (EventStatus status : EventStatus.values()) {
+            byStatus.put(status, new LinkedHashSet<>());
+        }
+        for (Event e : events) {
+            add(e);
+        }
+    }
+
+    synchronized void add(Event event) {
+        if (event.getEventStatus() != null) byStatus.get(event.getEventStatus()).add(event);
+    }
+
+    synchronized void remove(Event event) {
+        if (event.getEventStatus() != null) byStatus.get(event.getEventStatus()).remove(event);
+    }
+
+    synchronized void statusChanged(Event event, EventStatus previous) {
+        if (previous != null) byStatus.get(previous).remove(event);
+        if (event.getEventStatus() != null) byStatus.get(event.getEventStatus()).add(event);
+    }
+
+    synchronized List<Event> eventsWith(EventStatus status) {
+        return new ArrayList<>(byStatus.get(status));
+    }
+
+    synchronized int count(EventStatus status) {
+        return byStatus.get(status).size();
+    }
+}
@@ -0,0 +1,13 @@
+package com.eventsystem.storage;
+
+/**
+ * Thrown when a change cannot be committed because another app instance sharing the
+ * data store changed the same data first. The local change has been undone by then,
+ * so the caller only has to tell the user and refresh its view.
+ */
+public class StorageConflictException extends RuntimeException {
+
+    public StorageConflictException(String message) {
+        super(message);
+    }
+}
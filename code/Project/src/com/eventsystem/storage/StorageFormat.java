@@ -0,0 +1,25 @@
+package com.eventsystem.storage;
+
+/**
+ * On-disk snapshot formats supported by DataStorageService.
+ */
+public enum StorageFormat {
+
+    /** Legacy java.beans.XMLEncoder output (event_data.xml). */
+    XML("event_data.xml"),
+
+    /** Compact versioned binary snapshot written by BinarySnapshotCodec (event_data.bin). */
+    BINARY("event_data.bin"),
+
+    /** Binary snapshot split into per-collection partition files (event_data/), see PartitionedStore. */
+    PARTITIONED(PartitionedStore.DIRECTORY);
+
+    private final String filename;
+
+    StorageFormat(String filename) {
+        this.filename = filename;
+    }
+
+    /** The snapshot file, or the directory for PARTITIONED. */
+    public String getFilename() { return filename; }
+}
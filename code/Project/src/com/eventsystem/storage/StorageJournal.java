@@ -0,0 +1,168 @@
+package com.eventsystem.storage;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Append-only log of JournalEntry records.
+ * Appending costs the size of one entry, no matter how large the database is.
+ * The journal is cleared whenever a fresh snapshot has been written.
+ */
+public class StorageJournal {
+
+    private final Path path;
+    private BufferedWriter writer;
+    private int entryCount;
+    private boolean keepOpen = true;
+
+    public StorageJournal(String filename) {
+        this.path = Paths.get(filename);
+    }
+
+    /**
+     * Appends one entry and flushes it to disk.
+     */
+    public synchronized void append(JournalEntry entry) throws IOException {
+        appendAll(Collections.singletonList(entry));
+    }
+
+    /**
+     * Appends a batch of entries with a single flush.
+     */
+    public synchronized void appendAll(List<JournalEntry> entries) throws IOException {
+        if (writer == null) {
+            writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        }
+        for (JournalEntry entry : entries) {
+            writer.write(entry.toLine());
+            writer.newLine();
+        }
+        writer.flush();
+        entryCount += entries.size();
+        if (!keepOpen) {
+            close();
+        }
+    }
+
+    /**
+     * Reads every entry currently in the journal.
+     * A partially written last line (e.g. after a crash) is ignored.
+     */
+    public synchronized List<JournalEntry> readAll() throws IOException {
+        List<JournalEntry> entries = new ArrayList<>();
+        if (!Files.exists(path)) {
+            entryCount = 0;
+            return entries;
+        }
+
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) continue;
+                try {
+                    entries.add(JournalEntry.fromLine(line));
+                } catch (RuntimeException e) {
+                    System.out.println("!!! Ignoring corrupt journal line: " + line);
+                }
+            }
+        }
+        entryCount = entries.size();
+        return entries;
+    }
+
+    /**
+     * Reads the entries after the given byte offset (a value returned by length()).
+     */
+    public synchronized List<JournalEntry> readFrom(long offset) throws IOException {
+        return readFrom(path, offset);
+    }
+
+    static List<JournalEntry> readFrom(Path file, long offset) throws IOException {
+        List<JournalEntry> entries = new ArrayList<>();
+        if (!Files.exists(file)) return entries;
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                Channels.newInputStream(Files.newByteChannel(file).position(offset)), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) continue;
+                try {
+                    entries.add(JournalEntry.fromLine(line));
+                } catch (RuntimeException e) {
+                    System.out.println("!!! Ignoring corrupt journal line: " + line);
+                }
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Current size of the journal file in bytes (0 if it does not exist).
+     */
+    public synchronized long length() throws IOException {
+        return Files.exists(path) ? Files.size(path) : 0;
+    }
+
+    /**
+     * Moves the journal to the given archive file and starts a new, empty one.
+     */
+    public synchronized void rotate(Path archive) throws IOException {
+        close();
+        if (Files.exists(path)) {
+            Files.move(path, archive, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        entryCount = 0;
+    }
+
+    /**
+     * Adds entries appended by other app instances to the entry count used for compaction.
+     */
+    public synchronized void countExternal(int entries) {
+        entryCount += entries;
+    }
+
+    public synchronized void resetCount() {
+        entryCount = 0;
+    }
+
+    /**
+     * When false the file is closed after every append, so appends always go to the file
+     * currently at the journal path (another instance may have rotated it).
+     */
+    public synchronized void setKeepOpen(boolean keepOpen) {
+        this.keepOpen = keepOpen;
+    }
+
+    /**
+     * Empties the journal. Called after a snapshot has made its entries redundant.
+     */
+    public synchronized void clear() throws IOException {
+        close();
+        Files.deleteIfExists(path);
+        entryCount = 0;
+    }
+
+    public synchronized void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+            writer = null;
+        }
+    }
+
+    public synchronized int size() { return entryCount; }
+
+    public Path getPath() { return path; }
+}
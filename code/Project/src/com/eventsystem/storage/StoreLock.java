@@ -0,0 +1,64 @@
+package com.eventsystem.storage;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Exclusive lock on the shared data store, held while an app instance reads or writes it.
+ *
+ * Other processes are locked out with an OS file lock on event_data.lock, which the OS
+ * releases if the process dies. Threads of the same JVM are serialized by a reentrant lock
+ * first, since file locks are held per process. Release it with close() in a finally block.
+ */
+final class StoreLock implements AutoCloseable {
+
+    static final Path LOCK_FILE = Paths.get("event_data.lock");
+
+    private static final ReentrantLock JVM_LOCK = new ReentrantLock();
+    private static final StoreLock HANDLE = new StoreLock();
+
+    // Guarded by JVM_LOCK
+    private static FileChannel channel;
+    private static FileLock fileLock;
+
+    private StoreLock() {
+    }
+
+    /**
+     * Blocks until this thread holds the store. Reentrant within a thread.
+     */
+    static StoreLock acquire() throws IOException {
+        JVM_LOCK.lock();
+        if (JVM_LOCK.getHoldCount() == 1) {
+            try {
+                channel = FileChannel.open(LOCK_FILE, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                fileLock = channel.lock();
+            } catch (IOException e) {
+                if (channel != null) channel.close();
+                channel = null;
+                JVM_LOCK.unlock();
+                throw e;
+            }
+        }
+        return HANDLE;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (JVM_LOCK.getHoldCount() == 1) {
+                fileLock.release();
+                channel.close();
+                fileLock = null;
+                channel = null;
+            }
+        } finally {
+            JVM_LOCK.unlock();
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.eventsystem.storage;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Background writer for DataStorageService.
+ *
+ * Callers hand over journal entries and snapshots and return immediately. A single
+ * "storage-writer" thread waits a short coalescing window, then writes everything that
+ * arrived in one go: the snapshot files (newest version of each file wins) followed by
+ * one batched journal append. Every submission returns a future that completes once its data is on disk.
+ */
+public class WriteBehindSaver {
+
+    private static final long DEFAULT_COALESCE_MILLIS = 50;
+
+    private final DataStorageService storage;
+    private final long coalesceMillis;
+    private final ScheduledExecutorService executor;
+    private final Thread shutdownHook;
+
+    // --- Pending work (guarded by 'this') ---
+    private Map<Path, SnapshotTables> pendingSnapshot;
+    private final List<JournalEntry> pendingEntries = new ArrayList<>();
+    private List<CompletableFuture<Void>> pendingFutures = new ArrayList<>();
+    private CompletableFuture<Void> inFlight = CompletableFuture.completedFuture(null);
+    private boolean drainScheduled;
+    private boolean closed;
+
+    public WriteBehindSaver(DataStorageService storage) {
+        this(storage, DEFAULT_COALESCE_MILLIS);
+    }
+
+    public WriteBehindSaver(DataStorageService storage, long coalesceMillis) {
+        this.storage = storage;
+        this.coalesceMillis = coalesceMillis;
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "storage-writer");
+            t.setDaemon(true);
+            return t;
+        });
+
+        // Make sure nothing queued is lost if the JVM exits without calling close()
+        this.shutdownHook = new Thread(this::flush, "storage-writer-shutdown");
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+    }
+
+    /**
+     * Queues a journal entry. The future completes once it has been appended to the journal.
+     */
+    public synchronized CompletableFuture<Void> submit(JournalEntry entry) {
+        ensureOpen();
+        pendingEntries.add(entry);
+        return track();
+    }
+
+    /**
+     * Queues a batch of journal entries; they are appended together. The future completes
+     * once all of them are in the journal.
+     */
+    public synchronized CompletableFuture<Void> submitAll(List<JournalEntry> entries) {
+        ensureOpen();
+        pendingEntries.addAll(entries);
+        return track();
+    }
+
+    /**
+     * Queues snapshot files. Entries queued before them are already contained in the
+     * snapshot, so they are dropped; a pending older version of the same file is replaced.
+     */
+    public synchronized CompletableFuture<Void> submitSnapshot(Map<Path, SnapshotTables> files) {
+        ensureOpen();
+        if (pendingSnapshot == null) {
+            pendingSnapshot = new LinkedHashMap<>();
+        }
+        pendingSnapshot.putAll(files);
+        pendingEntries.clear();
+        return track();
+    }
+
+    /**
+     * Blocks until everything submitted so far is on disk.
+     */
+    public void flush() {
+        CompletableFuture<Void> barrier;
+        synchronized (this) {
+            if (pendingFutures.isEmpty()) {
+                // Nothing queued; wait for a batch that may still be writing
+                barrier = inFlight;
+            } else if (executor.isShutdown()) {
+                // Writer thread is gone: write on the calling thread
+                barrier = allOf(pendingFutures);
+                drain();
+            } else {
+                // Queued work runs after any in-flight batch on the single writer thread
+                barrier = allOf(pendingFutures);
+            }
+        }
+        barrier.exceptionally(e -> null).join();
+    }
+
+    /**
+     * Flushes pending work and stops the writer thread.
+     */
+    public void close() {
+        synchronized (this) {
+            if (closed) return;
+        }
+        flush();
+        synchronized (this) {
+            closed = true;
+        }
+        executor.shutdown();
+        try {
+            Runtime.getRuntime().removeShutdownHook(shutdownHook);
+        } catch (IllegalStateException e) {
+            // Already shutting down, the hook is running
+        }
+    }
+
+    public synchronized boolean isSnapshotPending() {
+        return pendingSnapshot != null;
+    }
+
+    public synchronized int getPendingCount() {
+        return pendingEntries.size() + (pendingSnapshot != null ? 1 : 0);
+    }
+
+    // --- Internals ---
+
+    private CompletableFuture<Void> track() {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        pendingFutures.add(future);
+        if (!drainScheduled && !executor.isShutdown()) {
+            drainScheduled = true;
+            executor.schedule(this::drain, coalesceMillis, TimeUnit.MILLISECONDS);
+        }
+        return future;
+    }
+
+    private void drain() {
+        Map<Path, SnapshotTables> snapshot;
+        List<JournalEntry> entries;
+        List<CompletableFuture<Void>> futures;
+        synchronized (this) {
+            snapshot = pendingSnapshot;
+            entries = new ArrayList<>(pendingEntries);
+            futures = pendingFutures;
+            pendingSnapshot = null;
+            pendingEntries.clear();
+            pendingFutures = new ArrayList<>();
+            drainScheduled = false;
+            inFlight = allOf(futures);
+        }
+
+        try {
+            if (snapshot != null) {
+                storage.writeSnapshotFiles(snapshot);
+            }
+            if (!entries.isEmpty()) {
+                storage.appendToJournal(entries);
+            }
+            futures.forEach(f -> f.complete(null));
+        } catch (Exception e) {
+            System.out.println("!!! ERROR in background save: " + e.getMessage());
+            futures.forEach(f -> f.completeExceptionally(e));
+        }
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("WriteBehindSaver has been closed");
+        }
+    }
+
+    private static CompletableFuture<Void> allOf(List<CompletableFuture<Void>> futures) {
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]));
+    }
+}
@@ -0,0 +1,176 @@
+package com.eventsystem.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Seat allocation of RegistrationList, single-threaded and under contention.
+ */
+class RegistrationListTest {
+
+    private static final int THREADS = 8;
+
+    private static Event newEvent(int capacity) {
+        return new Event("E1", "Talk", "d", new Date(0), new Date(3_600_000), capacity, null, null);
+    }
+
+    private static List<Student> newStudents(int count) {
+        List<Student> students = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            students.add(new Student("U" + i, "S" + i, "Student " + i, "s" + i + "@campus.edu", "pw"));
+        }
+        return students;
+    }
+
+    /**
+     * Runs every call at once on THREADS threads and returns the results in order.
+     */
+    private static <T> List<T> runTogether(List<Callable<T>> calls) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<T>> futures = new ArrayList<>();
+            for (Callable<T> call : calls) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    return call.call();
+                }));
+            }
+            start.countDown();
+            List<T> results = new ArrayList<>();
+            for (Future<T> f : futures) {
+                results.add(f.get(30, TimeUnit.SECONDS));
+            }
+            return results;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    // --- Single thread ---
+
+    @Test
+    void registerIsIdempotentPerStudent() {
+        Event event = newEvent(5);
+        Student student = newStudents(1).get(0);
+
+        Registration first = event.register(student);
+        Registration second = event.register(student);
+
+        assertNotNull(first);
+        assertSame(first, second);
+        assertEquals(1, event.getRegistrations().size());
+        assertEquals(1, ((RegistrationList) event.getRegistrations()).getSeatsTaken());
+    }
+
+    @Test
+    void registerFailsWhenFull() {
+        Event event = newEvent(2);
+        List<Student> students = newStudents(3);
+
+        assertNotNull(event.register(students.get(0)));
+        assertNotNull(event.register(students.get(1)));
+        assertNull(event.register(students.get(2)));
+        assertTrue(event.isFull());
+    }
+
+    @Test
+    void cancelFreesTheSeatOnce() {
+        Event event = newEvent(1);
+        List<Student> students = newStudents(2);
+        Registration reg = event.register(students.get(0));
+
+        assertSame(reg, event.cancelRegistration(students.get(0)));
+        assertNull(event.cancelRegistration(students.get(0)));
+        assertEquals(0, ((RegistrationList) event.getRegistrations()).getSeatsTaken());
+        assertNotNull(event.register(students.get(1)));
+    }
+
+    @Test
+    void addRegistrationReportsAFullEvent() {
+        Event event = newEvent(1);
+        List<Student> students = newStudents(2);
+        event.register(students.get(0));
+
+        assertNull(event.addRegistration(new Registration(students.get(1), event)));
+        assertEquals(1, event.getRegistrations().size());
+    }
+
+    // --- Contention ---
+
+    @Test
+    void concurrentRegistrationsNeverExceedCapacity() throws Exception {
+        int capacity = 50;
+        Event event = newEvent(capacity);
+        List<Callable<Registration>> calls = new ArrayList<>();
+        for (Student s : newStudents(400)) {
+            calls.add(() -> event.register(s));
+        }
+
+        List<Registration> results = runTogether(calls);
+
+        long granted = results.stream().filter(r -> r != null).count();
+        assertEquals(capacity, granted);
+        assertEquals(capacity, event.getRegistrations().size());
+        assertEquals(capacity, ((RegistrationList) event.getRegistrations()).getSeatsTaken());
+        Set<Student> holders = new HashSet<>();
+        for (Registration reg : event.getRegistrations()) {
+            assertTrue(holders.add(reg.getStudent()), "student holds two seats");
+        }
+    }
+
+    @Test
+    void concurrentRegistrationsOfOneStudentShareOneSeat() throws Exception {
+        Event event = newEvent(10);
+        Student student = newStudents(1).get(0);
+        List<Callable<Registration>> calls = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            calls.add(() -> event.register(student));
+        }
+
+        List<Registration> results = runTogether(calls);
+
+        Registration seat = results.get(0);
+        for (Registration r : results) {
+            assertSame(seat, r);
+        }
+        assertEquals(1, event.getRegistrations().size());
+        assertEquals(1, ((RegistrationList) event.getRegistrations()).getSeatsTaken());
+    }
+
+    @Test
+    void concurrentRegisterAndCancelKeepCounterInSync() throws Exception {
+        int capacity = 20;
+        Event event = newEvent(capacity);
+        List<Student> students = newStudents(100);
+        List<Callable<Boolean>> calls = new ArrayList<>();
+        for (int round = 0; round < 20; round++) {
+            for (Student s : students) {
+                calls.add(() -> event.register(s) != null);
+                calls.add(() -> event.cancelRegistration(s) != null);
+            }
+        }
+
+        runTogether(calls);
+
+        RegistrationList regs = (RegistrationList) event.getRegistrations();
+        assertEquals(regs.size(), regs.getSeatsTaken());
+        assertTrue(regs.size() <= capacity);
+        for (Registration reg : regs) {
+            assertSame(reg, regs.findByStudent(reg.getStudent()));
+        }
+    }
+}
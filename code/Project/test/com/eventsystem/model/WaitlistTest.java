@@ -0,0 +1,160 @@
+package com.eventsystem.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Order and positions of the Waitlist, single-threaded and under contention.
+ */
+class WaitlistTest {
+
+    private static List<Student> newStudents(int count) {
+        List<Student> students = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            students.add(new Student("U" + i, "S" + i, "Student " + i, "s" + i + "@campus.edu", "pw"));
+        }
+        return students;
+    }
+
+    private static void assertPositionsMatchOrder(Waitlist waitlist) {
+        List<Student> order = waitlist.getStudents();
+        assertEquals(order.size(), waitlist.size());
+        for (int i = 0; i < order.size(); i++) {
+            assertEquals(i + 1, waitlist.positionOf(order.get(i)), "position of " + order.get(i).getUserID());
+        }
+    }
+
+    // --- Single thread ---
+
+    @Test
+    void joinIsFifoAndIdempotent() {
+        Waitlist waitlist = new Waitlist();
+        List<Student> students = newStudents(3);
+
+        assertEquals(1, waitlist.join(students.get(0)));
+        assertEquals(2, waitlist.join(students.get(1)));
+        assertEquals(1, waitlist.join(students.get(0)));
+        assertEquals(3, waitlist.join(students.get(2)));
+
+        assertSame(students.get(0), waitlist.poll());
+        assertSame(students.get(1), waitlist.poll());
+        assertEquals(1, waitlist.positionOf(students.get(2)));
+    }
+
+    @Test
+    void leavingMovesLaterStudentsUp() {
+        Waitlist waitlist = new Waitlist();
+        List<Student> students = newStudents(5);
+        students.forEach(waitlist::join);
+
+        assertTrue(waitlist.leave(students.get(1)));
+        assertTrue(waitlist.leave(students.get(3)));
+        assertFalse(waitlist.leave(students.get(3)));
+
+        assertEquals(0, waitlist.positionOf(students.get(1)));
+        assertEquals(3, waitlist.positionOf(students.get(4)));
+        assertPositionsMatchOrder(waitlist);
+    }
+
+    @Test
+    void restorePutsStudentBackAtTheHead() {
+        Waitlist waitlist = new Waitlist();
+        List<Student> students = newStudents(3);
+        students.forEach(waitlist::join);
+
+        Student head = waitlist.poll();
+        waitlist.restore(head);
+        waitlist.restore(head);
+
+        assertEquals(1, waitlist.positionOf(head));
+        assertEquals(3, waitlist.size());
+        assertPositionsMatchOrder(waitlist);
+    }
+
+    @Test
+    void rejoinRestoresThePreviousPlace() {
+        Waitlist waitlist = new Waitlist();
+        List<Student> students = newStudents(4);
+        students.forEach(waitlist::join);
+
+        waitlist.leave(students.get(2));
+        waitlist.rejoin(students.get(2), 3);
+
+        assertEquals(students, waitlist.getStudents());
+        assertPositionsMatchOrder(waitlist);
+        // The renumbered line keeps working
+        waitlist.leave(students.get(0));
+        assertEquals(2, waitlist.positionOf(students.get(2)));
+    }
+
+    // --- Contention ---
+
+    @Test
+    void concurrentJoinsGetDistinctPositions() throws Exception {
+        Waitlist waitlist = new Waitlist();
+        List<Student> students = newStudents(500);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Integer>> positions = new ArrayList<>();
+            for (Student s : students) {
+                positions.add(pool.submit(() -> {
+                    start.await();
+                    return waitlist.join(s);
+                }));
+            }
+            start.countDown();
+            Set<Integer> seen = new HashSet<>();
+            for (Future<Integer> f : positions) {
+                seen.add(f.get(30, TimeUnit.SECONDS));
+            }
+            assertEquals(students.size(), seen.size());
+        } finally {
+            pool.shutdownNow();
+        }
+        assertPositionsMatchOrder(waitlist);
+    }
+
+    @Test
+    void concurrentPollsHandOutEveryStudentOnce() throws Exception {
+        Waitlist waitlist = new Waitlist();
+        List<Student> students = newStudents(500);
+        students.forEach(waitlist::join);
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Student> polled = new ArrayList<>();
+        try {
+            List<Future<List<Student>>> workers = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                workers.add(pool.submit(() -> {
+                    List<Student> mine = new ArrayList<>();
+                    Student s;
+                    while ((s = waitlist.poll()) != null) {
+                        mine.add(s);
+                    }
+                    return mine;
+                }));
+            }
+            for (Future<List<Student>> f : workers) {
+                polled.addAll(f.get(30, TimeUnit.SECONDS));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(students.size(), polled.size());
+        assertEquals(new HashSet<>(students), new HashSet<>(polled));
+        assertTrue(waitlist.isEmpty());
+    }
+}
@@ -0,0 +1,189 @@
+package com.eventsystem.storage;
+
+import com.eventsystem.model.*;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Round trips of whole databases through the binary snapshot format.
+ */
+class BinarySnapshotCodecTest {
+
+    private static EventDatabase sampleDatabase() {
+        EventDatabase db = new EventDatabase();
+        Room hall = new Room("R1", "Hall", "Main building", 100);
+        Room lab = new Room("R2", "Lab", "Annex", 2);
+        db.addRoom(hall);
+        db.addRoom(lab);
+        db.addAdministrator(new Administrator("A1", "Ada", "ada@campus.edu", "pw"));
+        EventOrganizer olga = new EventOrganizer("O1", "Olga", "olga@campus.edu", "pw");
+        db.addOrganizer(olga);
+        List<Student> students = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Student s = new Student("U" + i, "S" + i, "Student " + i, "s" + i + "@campus.edu", "pw");
+            students.add(s);
+            db.addStudent(s);
+        }
+
+        Event talk = new Event("E1", "Talk", "\u00dcmlauts and\ttabs", new Date(86_400_000L), new Date(90_000_000L), 50, olga, hall);
+        hall.bookRoom(talk);
+        olga.getCreatedEvents().add(talk);
+        db.addEvent(talk);
+        talk.setVersion(3);
+        talk.setLastModified(1_700_000_000_000L);
+
+        Event workshop = new Event("E2", "Workshop", "Small", new Date(172_800_000L), new Date(176_400_000L), 2, olga, lab);
+        lab.bookRoom(workshop);
+        olga.getCreatedEvents().add(workshop);
+        db.addEvent(workshop);
+
+        Event request = new Event("E3", "Request", null, new Date(259_200_000L), new Date(262_800_000L), 10, null, hall);
+        request.setEventStatus(EventStatus.PENDING);
+        hall.bookRoom(request);
+        db.addEvent(request);
+
+        students.get(0).registerForEvent(talk);
+        students.get(1).registerForEvent(talk);
+        students.get(0).registerForEvent(workshop);
+        students.get(1).registerForEvent(workshop);
+        students.get(2).joinWaitlist(workshop);
+        students.get(3).joinWaitlist(workshop);
+        workshop.getNotifications().add(new Notification("N1", "A seat opened up", workshop, students.get(2).getUserID()));
+
+        // A removed room is still referenced by its event
+        db.removeRoom(lab);
+        return db;
+    }
+
+    private static EventDatabase roundTrip(EventDatabase db, boolean compressed) throws IOException {
+        BinarySnapshotCodec codec = new BinarySnapshotCodec(compressed);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        codec.write(db, out);
+        return codec.read(new ByteArrayInputStream(out.toByteArray()));
+    }
+
+    private static void assertSameContent(EventDatabase expected, EventDatabase actual) {
+        assertEquals(names(expected.getRooms()), names(actual.getRooms()));
+        assertEquals(expected.getAdministrators().size(), actual.getAdministrators().size());
+        assertEquals(expected.getOrganizers().size(), actual.getOrganizers().size());
+        assertEquals(expected.getStudents().size(), actual.getStudents().size());
+        for (Student s : expected.getStudents()) {
+            Student copy = (Student) actual.findUser(s.getUserID());
+            assertEquals(s.getEmail(), copy.getEmail());
+            assertEquals(s.getPasswordHash(), copy.getPasswordHash());
+            assertEquals(s.getStudentID(), copy.getStudentID());
+            assertEquals(s.getRegistrations().size(), copy.getRegistrations().size());
+        }
+
+        assertEquals(expected.getEvents().size(), actual.getEvents().size());
+        for (Event e : expected.getEvents()) {
+            Event copy = actual.findEvent(e.getEventID());
+            assertNotNull(copy, e.getEventID());
+            assertEquals(e.getTitle(), copy.getTitle());
+            assertEquals(e.getDescription(), copy.getDescription());
+            assertEquals(e.getStartTime(), copy.getStartTime());
+            assertEquals(e.getEndTime(), copy.getEndTime());
+            assertEquals(e.getCapacity(), copy.getCapacity());
+            assertEquals(e.getEventStatus(), copy.getEventStatus());
+            assertEquals(e.getVersion(), copy.getVersion());
+            assertEquals(e.getLastModified(), copy.getLastModified());
+            assertEquals(id(e.getOrganizer()), id(copy.getOrganizer()));
+            assertEquals(e.getRoom().getRoomID(), copy.getRoom().getRoomID());
+            assertTrue(copy.getRoom().getBookings().contains(copy));
+            assertEquals(e.getRegistrations().size(), copy.getRegistrations().size());
+            for (int i = 0; i < e.getRegistrations().size(); i++) {
+                Registration reg = e.getRegistrations().get(i);
+                Registration regCopy = copy.getRegistrations().get(i);
+                assertEquals(reg.getRegistrationID(), regCopy.getRegistrationID());
+                assertEquals(reg.getTimestamp(), regCopy.getTimestamp());
+                assertEquals(reg.getStudent().getUserID(), regCopy.getStudent().getUserID());
+                assertSame(copy, regCopy.getEvent());
+            }
+            assertEquals(e.getNotifications().size(), copy.getNotifications().size());
+            for (int i = 0; i < e.getNotifications().size(); i++) {
+                assertEquals(e.getNotifications().get(i).getMessage(), copy.getNotifications().get(i).getMessage());
+                assertEquals(e.getNotifications().get(i).getRecipientID(), copy.getNotifications().get(i).getRecipientID());
+            }
+            assertEquals(userIDs(e.getWaitlist().getStudents()), userIDs(copy.getWaitlist().getStudents()));
+        }
+    }
+
+    private static List<String> names(List<Room> rooms) {
+        List<String> names = new ArrayList<>();
+        for (Room r : rooms) names.add(r.getRoomID() + "/" + r.getName());
+        return names;
+    }
+
+    private static List<String> userIDs(List<? extends User> users) {
+        List<String> ids = new ArrayList<>();
+        for (User u : users) ids.add(u.getUserID());
+        return ids;
+    }
+
+    private static String id(User user) {
+        return (user != null) ? user.getUserID() : null;
+    }
+
+    // --- Round trips ---
+
+    @Test
+    void roundTripKeepsEverything() throws IOException {
+        EventDatabase db = sampleDatabase();
+        assertSameContent(db, roundTrip(db, false));
+    }
+
+    @Test
+    void compressedRoundTripKeepsEverything() throws IOException {
+        EventDatabase db = sampleDatabase();
+        assertSameContent(db, roundTrip(db, true));
+    }
+
+    @Test
+    void emptyDatabaseRoundTrips() throws IOException {
+        EventDatabase copy = roundTrip(new EventDatabase(), true);
+        assertTrue(copy.getEvents().isEmpty());
+        assertTrue(copy.getStudents().isEmpty());
+        assertTrue(copy.getRooms().isEmpty());
+    }
+
+    @Test
+    void readDatabaseCanBeWrittenAgainUnchanged() throws IOException {
+        BinarySnapshotCodec codec = new BinarySnapshotCodec(false);
+        ByteArrayOutputStream first = new ByteArrayOutputStream();
+        codec.write(sampleDatabase(), first);
+        ByteArrayOutputStream second = new ByteArrayOutputStream();
+        codec.write(codec.read(new ByteArrayInputStream(first.toByteArray())), second);
+
+        assertArrayEquals(first.toByteArray(), second.toByteArray());
+    }
+
+    // --- Header checks ---
+
+    @Test
+    void otherFilesAreRejected() {
+        byte[] xml = "<?xml version=\"1.0\"?>".getBytes();
+        assertThrows(IOException.class, () -> new BinarySnapshotCodec(false).read(new ByteArrayInputStream(xml)));
+    }
+
+    @Test
+    void unknownVersionsAreRejected() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        DataOutputStream header = new DataOutputStream(out);
+        header.writeInt(BinarySnapshotCodec.MAGIC);
+        header.writeShort(BinarySnapshotCodec.VERSION + 1);
+        header.writeByte(0);
+
+        IOException e = assertThrows(IOException.class,
+                () -> new BinarySnapshotCodec(false).read(new ByteArrayInputStream(out.toByteArray())));
+        assertTrue(e.getMessage().contains("version"), e.getMessage());
+    }
+}
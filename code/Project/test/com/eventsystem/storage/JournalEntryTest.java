@@ -0,0 +1,293 @@
+package com.eventsystem.storage;
+
+import com.eventsystem.model.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Encoding, replay and conflict handling of journal entries.
+ */
+class JournalEntryTest {
+
+    private EventDatabase db;
+    private Room room;
+    private EventOrganizer organizer;
+    private Student alice;
+    private Student bob;
+
+    @BeforeEach
+    void setUp() {
+        db = new EventDatabase();
+        room = new Room("R1", "Hall", "Main building", 100);
+        organizer = new EventOrganizer("O1", "Olga", "olga@campus.edu", "pw");
+        alice = new Student("U1", "S1", "Alice", "alice@campus.edu", "pw");
+        bob = new Student("U2", "S2", "Bob", "bob@campus.edu", "pw");
+        db.addRoom(room);
+        db.addOrganizer(organizer);
+        db.addStudent(alice);
+        db.addStudent(bob);
+    }
+
+    private Event addEvent(String eventID, int capacity, EventOrganizer owner) {
+        Event event = new Event(eventID, "Talk", "d", new Date(86_400_000L), new Date(90_000_000L), capacity, owner, room);
+        room.bookRoom(event);
+        if (owner != null) owner.getCreatedEvents().add(event);
+        db.addEvent(event);
+        return event;
+    }
+
+    /**
+     * Writes the entry as a line and reads it back, as a replay from disk would.
+     */
+    private static JournalEntry reread(JournalEntry entry) {
+        return JournalEntry.fromLine(entry.toLine());
+    }
+
+    // --- Encoding ---
+
+    @Test
+    void linesRoundTripWithEscapedFields() {
+        Room odd = new Room("R2", "Tab\there", "Line\nbreak \\ slash", 7);
+        JournalEntry entry = reread(JournalEntry.addRoom(odd));
+
+        entry.apply(db);
+
+        Room copy = db.findRoom("R2");
+        assertNotNull(copy);
+        assertEquals("Tab\there", copy.getName());
+        assertEquals("Line\nbreak \\ slash", copy.getLocation());
+        assertEquals(7, copy.getCapacity());
+    }
+
+    @Test
+    void truncatedLinesAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> JournalEntry.fromLine("REGISTER\tR1\t0"));
+    }
+
+    @Test
+    void versionedEntriesKeepTheirBaseVersion() {
+        Event event = addEvent("E1", 10, organizer);
+        event.setVersion(4);
+
+        String line = JournalEntry.eventStatus(event).toLine();
+
+        assertTrue(line.startsWith("@4\t"), line);
+        assertEquals("EVENT_STATUS", JournalEntry.fromLine(line).getType());
+    }
+
+    // --- Replay ---
+
+    @Test
+    void replayRebuildsAnEventWithItsRegistrations() {
+        Event event = addEvent("E1", 10, organizer);
+        Registration reg = alice.registerForEvent(event);
+        List<JournalEntry> journal = List.of(
+                reread(JournalEntry.addEvent(event)),
+                reread(JournalEntry.register(reg)));
+
+        EventDatabase replica = new EventDatabase();
+        replica.addRoom(new Room("R1", "Hall", "Main building", 100));
+        replica.addOrganizer(new EventOrganizer("O1", "Olga", "olga@campus.edu", "pw"));
+        replica.addStudent(new Student("U1", "S1", "Alice", "alice@campus.edu", "pw"));
+        for (JournalEntry entry : journal) entry.apply(replica);
+
+        Event copy = replica.findEvent("E1");
+        assertNotNull(copy);
+        assertEquals(1, copy.getRegistrations().size());
+        assertEquals(reg.getRegistrationID(), copy.getRegistrations().get(0).getRegistrationID());
+        assertEquals(1, ((Student) replica.findUser("U1")).getRegistrations().size());
+        assertTrue(copy.getRoom().getBookings().contains(copy));
+        assertTrue(((EventOrganizer) replica.findUser("O1")).getCreatedEvents().contains(copy));
+    }
+
+    @Test
+    void applyingTwiceHasNoFurtherEffect() {
+        Event event = addEvent("E1", 10, organizer);
+        Registration reg = alice.registerForEvent(event);
+        JournalEntry register = reread(JournalEntry.register(reg));
+        JournalEntry user = reread(JournalEntry.addUser(new Student("U3", "S3", "Carl", "carl@campus.edu", "pw")));
+
+        for (int i = 0; i < 2; i++) {
+            register.apply(db);
+            user.apply(db);
+        }
+
+        assertEquals(1, event.getRegistrations().size());
+        assertEquals(1, alice.getRegistrations().size());
+        assertEquals(1, db.findUsersByEmail("carl@campus.edu").size());
+    }
+
+    @Test
+    void entriesOlderThanTheEventAreSkipped() {
+        Event event = addEvent("E1", 10, organizer);
+        event.cancel();
+        JournalEntry cancelled = reread(JournalEntry.eventStatus(event));
+        // A newer snapshot already has a later status of the event
+        event.setVersion(1);
+        event.setEventStatus(EventStatus.ACTIVE);
+
+        cancelled.apply(db);
+
+        assertEquals(EventStatus.ACTIVE, event.getEventStatus());
+    }
+
+    @Test
+    void cancelledRegistrationIsReplayed() {
+        Event event = addEvent("E1", 10, organizer);
+        Registration reg = alice.registerForEvent(event);
+        JournalEntry cancel = reread(JournalEntry.cancelRegistration(reg));
+
+        cancel.apply(db);
+
+        assertTrue(event.getRegistrations().isEmpty());
+        assertTrue(alice.getRegistrations().isEmpty());
+    }
+
+    // --- Conflicts and revert ---
+
+    @Test
+    void registrationForTheLastSeatConflicts() {
+        Event event = addEvent("E1", 1, organizer);
+        Registration local = alice.registerForEvent(event);
+        JournalEntry mine = JournalEntry.register(local);
+
+        // Another desk gave the seat to Bob
+        Registration remote = new Registration(bob, event);
+        JournalEntry theirs = reread(JournalEntry.register(remote));
+        theirs.apply(db);
+
+        assertNotNull(mine.conflictWith(List.of(theirs), db));
+        mine.revert(db);
+
+        assertEquals(1, event.getRegistrations().size());
+        assertSame(bob, event.getRegistrations().get(0).getStudent());
+        assertTrue(alice.getRegistrations().isEmpty());
+    }
+
+    @Test
+    void revertedRegistrationRestoresTheWaitlistPlace() {
+        Event event = addEvent("E1", 5, organizer);
+        Student carl = new Student("U3", "S3", "Carl", "carl@campus.edu", "pw");
+        db.addStudent(carl);
+        event.getWaitlist().join(bob);
+        event.getWaitlist().join(alice);
+        event.getWaitlist().join(carl);
+
+        int position = event.getWaitlist().positionOf(alice);
+        Registration reg = alice.registerForEvent(event);
+        JournalEntry entry = JournalEntry.register(reg, position);
+        assertFalse(event.getWaitlist().contains(alice));
+
+        entry.revert(db);
+
+        assertEquals(List.of(bob, alice, carl), event.getWaitlist().getStudents());
+        assertEquals(2, event.getWaitlist().positionOf(alice));
+        assertTrue(event.getRegistrations().isEmpty());
+    }
+
+    @Test
+    void revertedPromotionGoesBackToTheHeadOfTheLine() {
+        Event event = addEvent("E1", 1, organizer);
+        Registration seat = alice.registerForEvent(event);
+        event.getWaitlist().join(bob);
+        alice.cancelRegistration(seat);
+        Registration promoted = event.getRegistrations().get(0);
+        Notification note = event.getLastNotificationFor(bob);
+
+        JournalEntry.promote(promoted, note).revert(db);
+
+        assertTrue(event.getRegistrations().isEmpty());
+        assertTrue(bob.getRegistrations().isEmpty());
+        assertEquals(1, event.getWaitlist().positionOf(bob));
+    }
+
+    @Test
+    void twoStatusChangesOfOneEventConflict() {
+        Event event = addEvent("E1", 10, organizer);
+        event.cancel();
+        JournalEntry mine = JournalEntry.eventStatus(event);
+
+        JournalEntry theirs = reread(JournalEntry.eventStatus(event));
+        JournalEntry unrelated = reread(JournalEntry.addRoom(new Room("R9", "x", "y", 1)));
+
+        assertNull(mine.conflictWith(List.of(unrelated), db));
+        assertNotNull(mine.conflictWith(List.of(unrelated, theirs), db));
+    }
+
+    @Test
+    void revertedApprovalHandsTheEventBack() {
+        Event event = addEvent("E1", 10, null);
+        event.setEventStatus(EventStatus.PENDING);
+
+        event.approve();
+        EventOrganizer previous = event.getOrganizer();
+        event.setOrganizer(organizer);
+        organizer.getCreatedEvents().add(event);
+        JournalEntry approval = JournalEntry.eventStatus(event, previous);
+
+        // Another desk rejected the request first; the rejection names no owner
+        event.setEventStatus(EventStatus.REJECTED);
+        approval.revert(db);
+
+        assertNull(event.getOrganizer());
+        assertFalse(organizer.getCreatedEvents().contains(event));
+    }
+
+    @Test
+    void revertedApprovalKeepsAnOwnerSetByAnotherDesk() {
+        EventOrganizer other = new EventOrganizer("O2", "Otto", "otto@campus.edu", "pw");
+        db.addOrganizer(other);
+        Event event = addEvent("E1", 10, null);
+        event.setEventStatus(EventStatus.PENDING);
+
+        event.approve();
+        event.setOrganizer(organizer);
+        organizer.getCreatedEvents().add(event);
+        JournalEntry approval = JournalEntry.eventStatus(event, null);
+
+        // Another desk approved it first
+        event.setOrganizer(other);
+        JournalEntry theirs = reread(JournalEntry.eventStatus(event));
+        event.setOrganizer(organizer);
+        theirs.apply(db);
+        approval.revert(db);
+
+        assertSame(other, event.getOrganizer());
+        assertTrue(other.getCreatedEvents().contains(event));
+        assertFalse(organizer.getCreatedEvents().contains(event));
+    }
+
+    @Test
+    void revertedRejectionBooksTheRoomAgain() {
+        Event event = addEvent("E1", 10, null);
+        event.setEventStatus(EventStatus.PENDING);
+        event.reject();
+        room.releaseBooking(event);
+        JournalEntry rejection = JournalEntry.eventStatus(event);
+
+        // Another desk approved the request first
+        event.setEventStatus(EventStatus.ACTIVE);
+        rejection.revert(db);
+
+        assertTrue(room.getBookings().contains(event));
+    }
+
+    @Test
+    void revertedUserIsRemoved() {
+        Student carl = new Student("U3", "S3", "Carl", "alice@campus.edu", "pw");
+        db.addStudent(carl);
+        JournalEntry mine = JournalEntry.addUser(carl);
+
+        assertNotNull(mine.conflictWith(Collections.singletonList(JournalEntry.addUser(alice)), db));
+        mine.revert(db);
+
+        assertNull(db.findUser("U3"));
+        assertSame(alice, db.findUser("U1"));
+    }
+}